@@ -3,6 +3,7 @@ package org.bootstmytool.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @Author Mohamed Elslakawy
@@ -11,6 +12,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
  */
 @SpringBootApplication
 @EntityScan(basePackages = "org.bootstmytool.backend.model")
+@EnableScheduling
 public class BackendApplication {
 
     public static void main(String[] args) {
@@ -1,19 +1,22 @@
 package org.bootstmytool.backend.controller;
 
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
 import org.bootstmytool.backend.model.User;
 import org.bootstmytool.backend.repository.UserRepository;
 import org.bootstmytool.backend.security.CustomUserDetailsService;
+import org.bootstmytool.backend.security.LoginRateLimiter;
 import org.bootstmytool.backend.service.AuthService;
 import org.bootstmytool.backend.service.JwtService;
+import org.bootstmytool.backend.service.PasswordHashingService;
 import org.bootstmytool.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -47,6 +50,12 @@ public class AuthController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService; // BCrypt auf eigenem, begrenztem Pool
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter; // Token-Bucket pro IP und E-Mail
+
 
     /**
      * Endpunkt für die Registrierung eines neuen Benutzers.
@@ -72,11 +81,18 @@ public class AuthController {
      * Endpunkt für die Anmeldung eines Benutzers.
      * Überprüft die Benutzeranmeldeinformationen und gibt ein JWT-Token zurück, wenn die Anmeldung erfolgreich ist.
      *
-     * @param request Die Anmeldedaten des Benutzers (Email und Passwort)
+     * @param request     Die Anmeldedaten des Benutzers (Email und Passwort)
+     * @param httpRequest Die HTTP-Anfrage (für die Client-IP der Ratenbegrenzung)
      * @return Eine ResponseEntity mit dem Ergebnis der Anmeldung
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserLoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody UserLoginRequest request, HttpServletRequest httpRequest) {
+
+        // Ratenbegrenzung vor jedem DB-Zugriff und jeder BCrypt-Operation
+        long retryAfter = loginRateLimiter.tryAcquire(httpRequest.getRemoteAddr(), request.getEmail());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
 
         // Authentifizierung des Benutzers
         boolean authenticated = authService.authenticate(request.getEmail(), request.getPassword());
@@ -97,11 +113,19 @@ public class AuthController {
      * Die Länge ist in der Datenbank gespeichert und wird mit der Länge des Benutzernamens verglichen.
      * Wenn die Längen übereinstimmen, wird ein JWT-Token zurückgegeben.
      *
-     * @param body Die Anfrage mit den Benutzerdaten
+     * @param body        Die Anfrage mit den Benutzerdaten
+     * @param httpRequest Die HTTP-Anfrage (für die Client-IP der Ratenbegrenzung)
      * @return Eine ResponseEntity mit dem Ergebnis der Verifizierung
      */
     @PostMapping("/verify")
-    public ResponseEntity<?> verifyUser(@RequestBody Map<String, Object> body) {
+    public ResponseEntity<?> verifyUser(@RequestBody Map<String, Object> body, HttpServletRequest httpRequest) {
+        Object requestedEmail = body.get("email");
+        long retryAfter = loginRateLimiter.tryAcquire(httpRequest.getRemoteAddr(),
+                requestedEmail instanceof String ? (String) requestedEmail : null);
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
+
         try {
             String email = (String) body.get("email");
             int nameLength = Integer.parseInt(body.get("nameLength").toString());
@@ -139,12 +163,20 @@ public class AuthController {
      * Endpunkt zum Zurücksetzen des Passworts eines Benutzers.
      * Überprüft, ob der Token gültig ist und setzt das Passwort zurück.
      *
-     * @param token Der JWT-Token des Benutzers
-     * @param body  Die Anfrage mit dem neuen Passwort
+     * @param token       Der JWT-Token des Benutzers
+     * @param body        Die Anfrage mit dem neuen Passwort
+     * @param httpRequest Die HTTP-Anfrage (für die Client-IP der Ratenbegrenzung)
      * @return Eine ResponseEntity mit dem Ergebnis des Passwortzurücksetzens
      */
     @PostMapping("/reset-password")
-    public ResponseEntity<String> resetPassword(@RequestParam("token") String token, @RequestBody Map<String, String> body) {
+    public ResponseEntity<String> resetPassword(@RequestParam("token") String token, @RequestBody Map<String, String> body,
+                                                HttpServletRequest httpRequest) {
+
+        // Die E-Mail steckt erst im (noch ungeprüften) Token, daher nur Begrenzung pro IP
+        long retryAfter = loginRateLimiter.tryAcquire(httpRequest.getRemoteAddr(), null);
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
 
         // Benutzerdetails laden
         UserDetails userDetails = userDetailsService.loadUserByUsername(extractUsername(token));
@@ -164,12 +196,12 @@ public class AuthController {
 
         //Entschluesseln des neuen Passworts
         String newPassword = body.get("newPassword");
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-        String encryptedPassword = encoder.encode(newPassword);
+        String encryptedPassword = passwordHashingService.encode(newPassword);
 
         //Setzen des neuen Passworts
         user.setPassword(encryptedPassword);
         userRepository.save(user);
+        userService.evictIdentity(userEmail); // Identitäts-Cache enthält noch den alten Hash
         return ResponseEntity.ok("Passwort erfolgreich zurückgesetzt");
     }
 
@@ -177,6 +209,27 @@ public class AuthController {
         return jwtService.extractUsername(token);
     }
 
+    /**
+     * 429-Antwort mit Retry-After für abgewiesene Versuche.
+     */
+    private static <T> ResponseEntity<T> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    /**
+     * Antwortet mit 503 und Retry-After, wenn PasswordHashingService die Anfrage abweist:
+     * sofort bei voller Warteschlange, sonst nach auth.hashing.max-wait. Bis dahin wartet der
+     * Tomcat-Worker blockierend auf das Ergebnis; begrenzt wird nur die parallele BCrypt-Arbeit.
+     */
+    @ExceptionHandler(PasswordHashingService.BusyException.class)
+    public ResponseEntity<String> handleHashingBusy(PasswordHashingService.BusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Zu viele Anmeldeversuche, bitte später erneut versuchen");
+    }
+
 
 
 
@@ -1,36 +1,49 @@
 package org.bootstmytool.backend.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.bootstmytool.backend.dto.ImageDTO;
+import org.bootstmytool.backend.dto.ImageUploadResultDTO;
+import org.bootstmytool.backend.dto.UploadSessionDTO;
 import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.ImageVariant;
 import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.security.CurrentUser;
+import org.bootstmytool.backend.service.ChunkedUploadService;
+import org.bootstmytool.backend.service.HotImageCache;
 import org.bootstmytool.backend.service.ImageService;
+import org.bootstmytool.backend.service.ImageVariantService;
 import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.bootstmytool.backend.utils.ImageResponseWriter;
+import org.bootstmytool.backend.utils.ProcessImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.5
  * @Date: 2025-09-24
  *
  * REST-Controller für Bild-Endpunkte.
  * - Bilder einer Notiz abfragen
- * - Bilddatei ausliefern
- * - Bilder zu einer Notiz hochladen/löschen
+ * - Bilddatei ausliefern (optional als Variante thumb/medium)
+ * - Bilder zu einer Notiz hochladen/löschen (auch mehrere auf einmal)
+ * - große Bilder fortsetzbar in Teilstücken hochladen (/image/uploads)
  */
 @RestController
 @RequestMapping("/image")
@@ -38,14 +51,27 @@ public class ImageController {
 
     private final ImageService imageService;
     private final NoteRepository noteRepository;
+    private final ImageVariantService imageVariantService;
+    private final HotImageCache hotImageCache;
+    private final ImageStorage imageStorage;
+    private final ChunkedUploadService chunkedUploadService;
+
+    /** Obergrenze für DELETE /image/batch, damit die IN-Liste überschaubar bleibt */
+    static final int MAX_BATCH_DELETE = 500;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
     @Autowired
-    public ImageController(ImageService imageService, NoteRepository noteRepository) {
+    public ImageController(ImageService imageService, NoteRepository noteRepository,
+                           ImageVariantService imageVariantService, HotImageCache hotImageCache,
+                           ImageStorage imageStorage, ChunkedUploadService chunkedUploadService) {
         this.imageService = imageService;
         this.noteRepository = noteRepository;
+        this.imageVariantService = imageVariantService;
+        this.hotImageCache = hotImageCache;
+        this.imageStorage = imageStorage;
+        this.chunkedUploadService = chunkedUploadService;
     }
 
     /**
@@ -68,23 +94,63 @@ public class ImageController {
 
     /**
      * Liefert die Binärdatei eines Bildes.
-     * (Einfacher Fileserver über UrlResource; in Prod lieber über Static-Resources.)
+     * Mit ?variant=thumb|medium wird eine verkleinerte Variante geliefert; fehlt sie noch,
+     * wird sie erzeugt bzw. – wenn das nicht möglich ist – das Original ausgeliefert.
+     * Unterstützt ETag/304 und Range/206; der Body wird ohne Zwischenpuffer übertragen
+     * (siehe {@link ImageResponseWriter}). Ersatzantworten (Original statt Variante) werden
+     * nur kurz gecacht, damit die Variante später noch ankommt. Kleine, häufig abgerufene
+     * Bilder kommen aus dem {@link HotImageCache}.
      */
     @GetMapping("/{imageName}")
-    public ResponseEntity<?> getImage(@PathVariable String imageName) {
-        try {
-            // ⚠️ Pfad funktioniert im Dev-Mode; für JAR-Deploy lieber classpath:/static/images/
-            Path path = Paths.get("backend/src/main/resources/static/images/" + imageName);
-            Resource resource = new UrlResource(path.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok().body(resource);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+    public ResponseEntity<?> getImage(@PathVariable String imageName,
+                                      @RequestParam(value = "variant", required = false) String variant,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        ImageVariant imageVariant = null;
+        if (variant != null && !variant.isBlank()) {
+            try {
+                imageVariant = ImageVariant.fromParam(variant);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Unbekannte Variante: " + variant);
             }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error loading image: " + e.getMessage());
         }
+        String representation = imageVariant != null ? imageVariant.directoryName() : HotImageCache.ORIGINAL;
+
+        // Häufig abgerufene kleine Bilder direkt aus dem Speicher
+        HotImageCache.CachedImage cached = hotImageCache.getIfPresent(representation, imageName);
+        if (cached != null) {
+            ImageResponseWriter.write(imageName, cached.getData(), cached.getLastModified(), representation,
+                    ImageResponseWriter.CACHE_IMMUTABLE, request, response);
+            return null;
+        }
+
+        Optional<StoredImage> original = ImageStorage.isValidName(imageName)
+                ? imageStorage.stat(imageName) : Optional.empty();
+        if (original.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        StoredImage stored = original.get();
+        if (imageVariant != null) {
+            Optional<StoredImage> resolved = imageVariantService.resolve(imageName, imageVariant);
+            if (resolved.isEmpty()) {
+                // Original statt Variante: weder cachen noch als unveränderlich markieren
+                ImageResponseWriter.write(imageStorage, stored, HotImageCache.ORIGINAL,
+                        ImageResponseWriter.CACHE_SHORT, request, response);
+                return null;
+            }
+            stored = resolved.get();
+        }
+
+        cached = hotImageCache.load(representation, imageName, imageStorage, stored);
+        if (cached != null) {
+            ImageResponseWriter.write(imageName, cached.getData(), cached.getLastModified(), representation,
+                    ImageResponseWriter.CACHE_IMMUTABLE, request, response);
+        } else {
+            ImageResponseWriter.write(imageStorage, stored, representation, ImageResponseWriter.CACHE_IMMUTABLE,
+                    request, response);
+        }
+        return null; // Antwort wurde bereits geschrieben
     }
 
     /**
@@ -106,17 +172,36 @@ public class ImageController {
         }
     }
 
+    /**
+     * Mehrere Bilder auf einmal löschen. Erwartet die IDs als JSON-Array im Body.
+     * Gelöscht werden nur Bilder aus eigenen Notizen; alle übrigen IDs landen in notFound.
+     */
+    @DeleteMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> deleteImages(@RequestBody List<Integer> imageIds, CurrentUser currentUser) {
+        if (imageIds == null || imageIds.isEmpty()) {
+            return ResponseEntity.badRequest().body("No image ids provided");
+        }
+        if (imageIds.size() > MAX_BATCH_DELETE) {
+            return ResponseEntity.badRequest().body("Maximal " + MAX_BATCH_DELETE + " Bilder pro Anfrage");
+        }
+        Set<Integer> requested = new LinkedHashSet<>(imageIds);
+        List<Integer> deleted = imageService.deleteImagesForUser(requested, (int) currentUser.getId());
+        deleted.forEach(requested::remove);
+        return ResponseEntity.ok(Map.of("deleted", deleted, "notFound", List.copyOf(requested)));
+    }
+
     /**
      * Bilder-Upload für eine Note.
-     * Unterstützt sowohl mehrere Dateien unter "images"
-     * als auch eine einzelne Datei unter "image" (Abwärtskompatibilität).
+     * Dateien werden unter "images" erwartet; "image" (Abwärtskompatibilität) wird ebenfalls
+     * angenommen, auch mehrfach.
      * Erwartet: Multipart-Form-Data
+     * Antwort: ein Ergebnis pro Datei (id/url oder error).
      */
     @PostMapping(value = "/{noteId}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> addImagesToNote(
             @PathVariable("noteId") int noteId,
             @RequestParam(value = "images", required = false) List<MultipartFile> images, // mehrere Dateien
-            @RequestParam(value = "image", required = false) MultipartFile image // einzelne Datei (alt)
+            @RequestParam(value = "image", required = false) List<MultipartFile> image // alter Feldname
     ) {
         // Note existiert?
         Note note = noteRepository.findById(noteId)
@@ -130,28 +215,137 @@ public class ImageController {
         if (images != null && !images.isEmpty()) {
             files.addAll(images);
         }
-        if (image != null && !image.isEmpty()) {
-            files.add(image);
+        if (image != null) {
+            image.stream().filter(file -> !file.isEmpty()).forEach(files::add);
         }
         if (files.isEmpty()) {
             return ResponseEntity.badRequest().body("No files provided");
         }
 
+        // Dateien parallel schreiben, alle Image-Zeilen in einer Transaktion anlegen
+        List<ImageService.UploadResult> results = imageService.uploadImages(note, files);
+        List<ImageUploadResultDTO> dtos = results.stream()
+                .map(r -> r.isSuccess()
+                        ? new ImageUploadResultDTO(r.getFileName(), r.getImage().getId(),
+                                baseUrl + "/image/" + r.getImage().getUrl(), null)
+                        : new ImageUploadResultDTO(r.getFileName(), null, null, r.getError()))
+                .toList();
+
+        // 201 = alle gespeichert, 207 = teilweise, 415 = nur nicht unterstützte Formate,
+        // 500 = keine Datei gespeichert
+        long succeeded = results.stream().filter(ImageService.UploadResult::isSuccess).count();
+        HttpStatus status = succeeded == results.size() ? HttpStatus.CREATED
+                : succeeded > 0 ? HttpStatus.MULTI_STATUS
+                : results.stream().allMatch(ImageService.UploadResult::isUnsupportedType) ? HttpStatus.UNSUPPORTED_MEDIA_TYPE
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(dtos);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+    // Upload in Teilstücken (fortsetzbar)
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Startet einen Upload in Teilstücken für eine eigene Notiz.
+     * Erwartet JSON mit fileName und size; Antwort 201 mit uploadId und offset 0,
+     * 429, wenn der Benutzer (oder der Server) bereits zu viele offene Uploads hat.
+     */
+    @PostMapping(value = "/{noteId}/uploads", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> initiateUpload(@PathVariable("noteId") int noteId,
+                                            @RequestBody UploadSessionDTO request,
+                                            CurrentUser currentUser) throws IOException {
+        Note note = noteRepository.findById(noteId).orElse(null);
+        if (note == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Note not found: " + noteId);
+        }
+        if (note.getUser() == null || note.getUser().getId() != currentUser.getId()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Sie haben keine Berechtigung, diese Notiz zu bearbeiten");
+        }
+        try {
+            ChunkedUploadService.UploadSession session =
+                    chunkedUploadService.initiate(noteId, currentUser.getId(), request.getFileName(), request.getSize());
+            return ResponseEntity.status(HttpStatus.CREATED).body(UploadSessionDTO.from(session));
+        } catch (ChunkedUploadService.TooManySessionsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            HttpStatus status = request.getSize() > 0 ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Liefert den Stand eines Uploads – nach einem Abbruch setzt der Client bei offset fort.
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId, CurrentUser currentUser) {
+        return chunkedUploadService.find(uploadId, currentUser.getId())
+                .<ResponseEntity<?>>map(session -> ResponseEntity.ok(UploadSessionDTO.from(session)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload nicht gefunden"));
+    }
+
+    /**
+     * Nimmt ein Teilstück entgegen (roher Body) und schreibt es ab ?offset= in die Temp-Datei.
+     * 409 mit dem aktuellen Stand, wenn der Offset nicht passt.
+     */
+    @PutMapping(value = "/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(@PathVariable String uploadId,
+                                         @RequestParam("offset") long offset,
+                                         CurrentUser currentUser,
+                                         HttpServletRequest request) throws IOException {
+        Optional<ChunkedUploadService.UploadSession> session = chunkedUploadService.find(uploadId, currentUser.getId());
+        if (session.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload nicht gefunden");
+        }
         try {
-            // Service speichert Datei(en) (z.B. auf Platte) + DB-Eintrag mit Verknüpfung zur Note
-            List<Image> saved = new ArrayList<>();
-            for (MultipartFile f : files) {
-                Image img = imageService.uploadImage(noteId, f); // vorhandene Service-Methode für Single-Upload
-                saved.add(img);
-            }
-            // Antwort als DTO-Liste
-            List<ImageDTO> dtos = saved.stream()
-                    .map(img -> new ImageDTO(img.getId(), baseUrl + "/image/" + img.getUrl()))
-                    .toList();
-            return ResponseEntity.status(HttpStatus.CREATED).body(dtos);
+            chunkedUploadService.append(session.get(), offset, request.getInputStream());
+            return ResponseEntity.ok(UploadSessionDTO.from(session.get()));
+        } catch (ChunkedUploadService.OffsetConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(UploadSessionDTO.from(session.get()));
+        } catch (ChunkedUploadService.UploadTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Schließt den Upload ab und hängt das Bild an die Notiz.
+     * 409 mit dem aktuellen Stand, solange noch Bytes fehlen.
+     */
+    @PostMapping("/uploads/{uploadId}/commit")
+    public ResponseEntity<?> commitUpload(@PathVariable String uploadId, CurrentUser currentUser) {
+        Optional<ChunkedUploadService.UploadSession> session = chunkedUploadService.find(uploadId, currentUser.getId());
+        if (session.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload nicht gefunden");
+        }
+        Note note = noteRepository.findById(session.get().getNoteId()).orElse(null);
+        if (note == null) {
+            chunkedUploadService.abort(session.get());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Note not found: " + session.get().getNoteId());
+        }
+        try {
+            Image saved = chunkedUploadService.commit(session.get(), note);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new ImageUploadResultDTO(
+                    session.get().getFileName(), saved.getId(), baseUrl + "/image/" + saved.getUrl(), null));
+        } catch (ChunkedUploadService.OffsetConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(UploadSessionDTO.from(session.get()));
+        } catch (ProcessImage.UnsupportedImageTypeException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error while uploading images: " + e.getMessage());
         }
     }
+
+    /**
+     * Bricht einen Upload ab und verwirft die bisher empfangenen Bytes.
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> abortUpload(@PathVariable String uploadId, CurrentUser currentUser) {
+        Optional<ChunkedUploadService.UploadSession> session = chunkedUploadService.find(uploadId, currentUser.getId());
+        if (session.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Upload nicht gefunden");
+        }
+        chunkedUploadService.abort(session.get());
+        return ResponseEntity.noContent().build();
+    }
 }
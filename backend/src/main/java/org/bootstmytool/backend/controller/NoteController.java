@@ -1,15 +1,19 @@
 package org.bootstmytool.backend.controller;
 
+import org.bootstmytool.backend.dto.NoteCursor;
 import org.bootstmytool.backend.dto.NoteDTO;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
 import org.bootstmytool.backend.model.Image;
 import org.bootstmytool.backend.model.Note;
 import org.bootstmytool.backend.model.NoteCategory;
 import org.bootstmytool.backend.model.NoteType;
 import org.bootstmytool.backend.model.User;
-import org.bootstmytool.backend.repository.NoteRepository;
-import org.bootstmytool.backend.service.JwtService;
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.bootstmytool.backend.security.CurrentUser;
+import org.bootstmytool.backend.service.NoteQueryService;
 import org.bootstmytool.backend.service.NoteService;
 import org.bootstmytool.backend.service.UserService;
+import org.bootstmytool.backend.storage.ImageStorage;
 import org.bootstmytool.backend.utils.ProcessImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,12 +30,18 @@ import java.util.stream.Collectors;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.2
+ * @Version: 1.7
  * @Date: 2025-09-24
  *
  * NoteController verwaltet Endpunkte zum Erstellen, Abrufen, Bearbeiten und Filtern von Notizen.
  * UC-5: Filtern nach Suchbegriff (Titel/Content/Tags), Kategorie, Typ und Zeitraum.
  * Notizen können vordefinierten Kategorien/Typen zugeordnet und danach gefiltert werden.
+ * Der angemeldete Benutzer wird als CurrentUser injiziert; ohne gültigen Token antwortet
+ * der Resolver einheitlich mit 401.
+ * /notes/get liefert die Notizen seitenweise (Keyset-Pagination über limit und cursor).
+ * /notes/filter?sort=relevance sortiert Suchtreffer nach Relevanz und liefert Textausschnitte.
+ * /notes/tags?prefix= schlägt die meistgenutzten Tags des Benutzers zur Autovervollständigung vor.
+ * Listen werden über das Lesemodell (NoteQueryService) ohne Entitäten und Bilddaten aufgebaut.
  */
 @RestController
 @RequestMapping("/notes")
@@ -40,8 +50,18 @@ public class NoteController {
 
     private final NoteService noteService;
     private final UserService userService;
-    private final JwtService jwtService;
-    private final NoteRepository noteRepository;
+    private final NoteQueryService noteQueryService;
+    private final ImageStorage imageStorage;
+
+    /** Obergrenze für limit, damit eine Seite Latenz und Speicher begrenzt */
+    static final int MAX_PAGE_SIZE = 200;
+
+    /** Obergrenze für die Anzahl der Tag-Vorschläge */
+    static final int MAX_TAG_SUGGESTIONS = 50;
+
+    /** Werte für /notes/filter?sort= (date = neueste zuerst, Standard) */
+    static final String SORT_DATE = "date";
+    static final String SORT_RELEVANCE = "relevance";
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -50,32 +70,13 @@ public class NoteController {
     public NoteController(
             NoteService noteService,
             UserService userService,
-            JwtService jwtService,
-            NoteRepository noteRepository
+            NoteQueryService noteQueryService,
+            ImageStorage imageStorage
     ) {
         this.noteService = noteService;
         this.userService = userService;
-        this.jwtService = jwtService;
-        this.noteRepository = noteRepository;
-    }
-
-    /**
-     * Validiert den Authorization-Header (Bearer-Token) und liefert den zugehörigen Benutzer.
-     */
-    private User validateAuthorization(String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            throw new SecurityException("Invalid Authorization header.");
-        }
-        String token = authHeader.substring(7);
-        String username = jwtService.extractUsername(token);
-        if (username == null) {
-            throw new SecurityException("Invalid token.");
-        }
-        User user = userService.getUserByUsername(username);
-        if (user == null) {
-            throw new SecurityException("Benutzer nicht gefunden.");
-        }
-        return user;
+        this.noteQueryService = noteQueryService;
+        this.imageStorage = imageStorage;
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -88,7 +89,7 @@ public class NoteController {
      */
     @PostMapping(value = "/create", consumes = "multipart/form-data")
     public ResponseEntity<?> createNote(
-            @RequestHeader("Authorization") String authHeader,
+            CurrentUser currentUser,
             @RequestParam("title") String title,
             @RequestParam("description") String description,
             @RequestParam(value = "tags", required = false) String tags,
@@ -97,8 +98,6 @@ public class NoteController {
             @RequestParam(value = "images", required = false) MultipartFile[] images
     ) {
         try {
-            User user = validateAuthorization(authHeader);
-
             Note note = new Note();
             note.setTitle(title);
             note.setContent(description);
@@ -135,6 +134,8 @@ public class NoteController {
                 note.setType(resolvedType);
             }
 
+            // Nur eine Referenz setzen – der Benutzer muss dafür nicht geladen werden
+            User user = userService.getReference(currentUser.getId());
             note.setUser(user);
 
             // Bilder (optional) → vorverarbeiten und an Notiz hängen
@@ -142,7 +143,7 @@ public class NoteController {
             if (images != null && images.length > 0) {
                 imageList = Arrays.stream(images)
                         .filter(f -> f != null && !f.isEmpty())
-                        .map(ProcessImage::processImage) // erzeugt Image inkl. gespeichertem Dateinamen
+                        .map(f -> ProcessImage.processImage(f, imageStorage)) // erzeugt Image inkl. gespeichertem Dateinamen
                         .collect(Collectors.toList());
             }
             note.setImages(imageList);
@@ -161,7 +162,7 @@ public class NoteController {
             NoteDTO dto = NoteDTO.convertToDto(saved, baseUrl);
             return ResponseEntity.status(HttpStatus.CREATED).body(dto);
 
-        } catch (IllegalArgumentException | SecurityException e) {
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to create note.");
@@ -172,35 +173,31 @@ public class NoteController {
     // Notizen des eingeloggten Users laden (DTO)
     // ─────────────────────────────────────────────────────────────────────────
 
+    /**
+     * Liefert eine Seite der Notizen des eingeloggten Users, sortiert nach (createdAt DESC, id DESC).
+     * Für die nächste Seite wird nextCursor aus der Antwort als Parameter cursor mitgeschickt.
+     *
+     * @param limit  Anzahl Notizen pro Seite (1 bis MAX_PAGE_SIZE, Standard 50).
+     * @param cursor undurchsichtiger Cursor aus der vorherigen Antwort (optional).
+     */
     @GetMapping("/get")
-    public ResponseEntity<List<NoteDTO>> getNotesForUser(@RequestHeader("Authorization") String authHeader) {
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Collections.emptyList());
-        }
-        String token = authHeader.substring(7);
-
-        final String username;
+    public ResponseEntity<?> getNotesForUser(
+            CurrentUser currentUser,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        NoteCursor after;
         try {
-            username = jwtService.extractUsername(token);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
-        }
-
-        Optional<User> optionalUser = userService.findByUsername(username);
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Collections.emptyList());
+            after = (cursor != null && !cursor.isBlank()) ? NoteCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        User user = optionalUser.get();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
 
         try {
-            List<Note> notes = noteService.getNotesByUserId((int) user.getId());
-            if (notes.isEmpty()) {
-                return ResponseEntity.noContent().build();
-            }
-            List<NoteDTO> dtos = NoteDTO.convertListToDto(notes, baseUrl);
-            return ResponseEntity.ok(dtos);
+            return ResponseEntity.ok(noteQueryService.getNotePage((int) currentUser.getId(), after, pageSize));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Fehler beim Laden der Notizen");
         }
     }
 
@@ -219,19 +216,25 @@ public class NoteController {
 
 
     // Filtern nach q, Kategorie, Typ, Zeitraum (vom eingeloggten User)
+    // sort=relevance (nur mit q): die besten limit Treffer nach Relevanz, mit Ausschnitt statt Inhalt
+    // typos=1|2: Teilstringsuche mit Tippfehlertoleranz (ab 7 bzw. 10 Zeichen Suchtext)
 
     @GetMapping("/filter")
     public ResponseEntity<List<NoteDTO>> filterNotes(
-            @RequestHeader("Authorization") String authHeader,
+            CurrentUser currentUser,
             @RequestParam(required = false) String q,
             @RequestParam(required = false) NoteCategory category,
             @RequestParam(required = false) NoteType type,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+            @RequestParam(required = false) String sort,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "typos", defaultValue = "0") int typos
     ) {
+        if (sort != null && !SORT_RELEVANCE.equals(sort) && !SORT_DATE.equals(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            User user = validateAuthorization(authHeader);
-
             String query = (q != null && !q.isBlank()) ? q.trim() : null;
 
             Date toFixed = to;
@@ -245,42 +248,60 @@ public class NoteController {
                 toFixed = cal.getTime();
             }
 
-            List<Note> result = noteRepository.searchAndFilter(
-                    (int) user.getId(),
+            if (query != null && SORT_RELEVANCE.equals(sort)) {
+                int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+                return ResponseEntity.ok(noteQueryService.searchRanked(
+                        (int) currentUser.getId(), query, category, type, from, toFixed, pageSize));
+            }
+
+            List<NoteDTO> dtos = noteQueryService.searchAndFilter(
+                    (int) currentUser.getId(),
                     query,
                     category,
                     type,
                     from,
-                    toFixed
+                    toFixed,
+                    Math.max(0, Math.min(typos, NoteSearchIndex.MAX_TYPOS))
             );
-
-            List<NoteDTO> dtos = NoteDTO.convertListToDto(result, baseUrl);
             return ResponseEntity.ok(dtos);
 
-        } catch (SecurityException se) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
         }
     }
 
 
-    // Notiz ohne Bild ändern (inkl. optional Kategorie/Typ)
+    // Tag-Vorschläge des eingeloggten Users: Tags mit diesem Anfang, meistgenutzte zuerst
+
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagSuggestionDTO>> suggestTags(
+            CurrentUser currentUser,
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        int max = Math.max(1, Math.min(limit, MAX_TAG_SUGGESTIONS));
+        try {
+            return ResponseEntity.ok(noteQueryService.suggestTags((int) currentUser.getId(), prefix, max));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+        }
+    }
+
+
+    // Notiz ohne Bild ändern (inkl. optional Kategorie/Typ); imagesToDelete entfernt Bilder der Notiz
     @PutMapping(value = "/edit/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> editNoteWithoutImag(
             @PathVariable("id") int id,
             @RequestBody NoteDTO noteUpdates,
-            @RequestHeader("Authorization") String authHeader
+            CurrentUser currentUser
     ) {
         try {
-            User user = validateAuthorization(authHeader);
-
             Note existingNote = noteService.getNoteById(id);
             if (existingNote == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Notiz nicht gefunden");
             }
 
-            if (existingNote.getUser().getId() != user.getId()) {
+            if (existingNote.getUser().getId() != currentUser.getId()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Sie haben keine Berechtigung, diese Notiz zu bearbeiten");
             }
@@ -315,12 +336,12 @@ public class NoteController {
                 }
             }
 
-            Note updatedNote = noteService.updateNote(existingNote);
+            // Änderungen speichern und Bilder entfernen in einer Transaktion;
+            // die Dateien werden erst nach dem Commit im Hintergrund freigegeben
+            Note updatedNote = noteService.updateNote(existingNote, noteUpdates.getImagesToDelete());
             NoteDTO responseDto = NoteDTO.convertToDto(updatedNote, baseUrl);
             return ResponseEntity.ok(responseDto);
 
-        } catch (SecurityException se) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(se.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Fehler: " + e.getMessage());
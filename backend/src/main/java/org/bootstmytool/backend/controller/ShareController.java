@@ -3,10 +3,8 @@ package org.bootstmytool.backend.controller;
 import java.time.Duration;
 import java.util.Map;
 
-import org.bootstmytool.backend.model.User;
-import org.bootstmytool.backend.repository.UserRepository;
+import org.bootstmytool.backend.security.CurrentUser;
 import org.bootstmytool.backend.service.ShareLinkService;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -16,19 +14,17 @@ import org.springframework.web.bind.annotation.*;
  *
  * ShareController
  * - Erstellt Share-Links für Notizen (authentifizierte Nutzer)
- * - Nutzt den eingeloggten Benutzer (aus JWT) als Owner
+ * - Nutzt den eingeloggten Benutzer (aus dem bereits verifizierten JWT) als Owner
  */
 @RestController
 @RequestMapping("/api/share")
 public class ShareController {
 
     private final ShareLinkService service;
-    private final UserRepository userRepository; // Repository als Bean injizieren (nicht static!)
 
     // Konstruktor-Injection (empfohlen)
-    public ShareController(ShareLinkService service, UserRepository userRepository) {
+    public ShareController(ShareLinkService service) {
         this.service = service;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -36,13 +32,13 @@ public class ShareController {
      * Erzeugt einen Share-Link für eine Note.
      *
      * @param noteId       ID der Notiz
-     * @param auth         aktueller Authentication-Context (aus JWT)
+     * @param currentUser  angemeldeter Benutzer (aus dem bereits verifizierten JWT)
      * @return             Map mit der öffentlichen URL (z.B. "/share/<token>")
      */
     @PostMapping("/{noteId}")
-    public Map<String, String> create(@PathVariable long noteId, Authentication auth) {
-        // Besitzer (Owner) aus dem eingeloggten Benutzer ermitteln
-        long ownerId = extractUserId(auth);
+    public Map<String, String> create(@PathVariable long noteId, CurrentUser currentUser) {
+        // Besitzer (Owner) ist der eingeloggte Benutzer
+        long ownerId = currentUser.getId();
 
         // Link 2 Stunden gültig, unbegrenzte Nutzung (remainingUses = null)
         var link = service.createShareLink(noteId, ownerId, Duration.ofHours(2), null);
@@ -50,22 +46,4 @@ public class ShareController {
         // Nur Pfad zurückgeben; das Frontend baut die absolute URL (origin + path)
         return Map.of("url", "/share/" + link.getToken());
     }
-
-    /**
-     * Ermittelt die User-ID aus dem Authentication-Objekt.
-     * Standard: auth.getName() liefert den Subject (meist E-Mail) aus dem JWT.
-     */
-    private long extractUserId(Authentication auth) {
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated");
-        }
-
-        // Annahme: JWT-Subject = E-Mail
-        String email = auth.getName();
-
-        // Nutzer per E-Mail laden (NICHT static aufrufen!)
-        return userRepository.findByEmail(email)
-                .map(User::getId)
-                .orElseThrow(() -> new RuntimeException("User not found for email: " + email));
-    }
 }
@@ -0,0 +1,29 @@
+package org.bootstmytool.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Ergebnis einer einzelnen Datei aus einem Mehrfach-Upload.
+ * Bei Erfolg sind id und url gesetzt (wie im ImageDTO), bei einem Fehler nur error.
+ */
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class ImageUploadResultDTO {
+
+    private final String fileName;
+    private final Integer id;
+    private final String url;
+    private final String error;
+
+    public ImageUploadResultDTO(String fileName, Integer id, String url, String error) {
+        this.fileName = fileName;
+        this.id = id;
+        this.url = url;
+        this.error = error;
+    }
+}
@@ -0,0 +1,75 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Position innerhalb der Notizliste eines Benutzers (Keyset-Pagination).
+ * Die Liste ist nach (createdAt DESC, id DESC) sortiert; der Cursor merkt sich beide Werte
+ * der zuletzt ausgelieferten Notiz. Nach außen wird er als undurchsichtiger Base64url-String
+ * weitergegeben, damit Clients sich nicht auf den Aufbau verlassen.
+ */
+@Getter
+public final class NoteCursor {
+
+    /** Erstellungszeitpunkt der letzten Notiz (Millisekunden seit Epoch) */
+    private final long createdAt;
+
+    /** ID der letzten Notiz (Tie-Breaker bei gleichem Zeitstempel) */
+    private final int id;
+
+    public NoteCursor(long createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Erzeugt den Cursor, der direkt hinter der angegebenen Notiz fortsetzt.
+     */
+    public static NoteCursor after(NoteRow note) {
+        Date created = note.getCreatedAt();
+        return new NoteCursor(created != null ? created.getTime() : 0L, note.getId());
+    }
+
+    /**
+     * Erstellungszeitpunkt als Date, wie er in der Abfrage verglichen wird.
+     */
+    public Date getCreatedAtDate() {
+        return new Date(createdAt);
+    }
+
+    /**
+     * Kodiert den Cursor als undurchsichtigen String.
+     */
+    public String encode() {
+        String raw = createdAt + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekodiert einen vom Client zurückgegebenen Cursor.
+     *
+     * @param value der Cursor-String aus nextCursor.
+     * @return der Cursor.
+     * @throws IllegalArgumentException wenn der String kein gültiger Cursor ist.
+     */
+    public static NoteCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Ungültiger Cursor");
+            }
+            return new NoteCursor(Long.parseLong(raw.substring(0, sep)), Integer.parseInt(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException e) { // umfasst auch NumberFormatException
+            throw new IllegalArgumentException("Ungültiger Cursor", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.bootstmytool.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.bootstmytool.backend.model.Note;
@@ -42,6 +43,13 @@ public class NoteDTO {
     /** Erstellungszeitpunkt (für UC-5: Zeitraumfilter) */
     private Date createdAt;
 
+    /**
+     * Hervorgehobener Textausschnitt statt content (nur bei /notes/filter?sort=relevance).
+     * Treffer stehen in &lt;mark&gt;, der übrige Text ist HTML-escaped.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet;
+
     /** Bilder als DTO (mit aufgelösten URLs) */
     private List<ImageDTO> images = new ArrayList<>();
 
@@ -0,0 +1,24 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * ID und Dateiname eines Bildes samt zugehöriger Notiz – ohne die Binärdaten.
+ */
+@Getter
+public final class NoteImageRow {
+
+    private final int noteId;
+    private final int id;
+    private final String url;
+
+    public NoteImageRow(int noteId, int id, String url) {
+        this.noteId = noteId;
+        this.id = id;
+        this.url = url;
+    }
+}
@@ -0,0 +1,27 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Die durchsuchbaren Felder einer Notiz für den Aufbau des Suchindex (ohne Tags, die seitenweise
+ * über NoteTagRow nachgeladen werden).
+ */
+@Getter
+public final class NoteIndexRow {
+
+    private final int noteId;
+    private final int userId;
+    private final String title;
+    private final String content;
+
+    public NoteIndexRow(int noteId, int userId, String title, String content) {
+        this.noteId = noteId;
+        this.userId = userId;
+        this.title = title;
+        this.content = content;
+    }
+}
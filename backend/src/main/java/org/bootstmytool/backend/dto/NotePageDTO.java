@@ -0,0 +1,28 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Eine Seite der Notizliste. nextCursor ist null, wenn keine weiteren Notizen folgen;
+ * andernfalls wird er unverändert als Parameter cursor an /notes/get übergeben.
+ */
+@Getter
+public final class NotePageDTO {
+
+    /** Notizen dieser Seite, neueste zuerst */
+    private final List<NoteDTO> items;
+
+    /** Cursor für die nächste Seite (oder null) */
+    private final String nextCursor;
+
+    public NotePageDTO(List<NoteDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,36 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+import org.bootstmytool.backend.model.NoteCategory;
+import org.bootstmytool.backend.model.NoteType;
+
+import java.util.Date;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Lesemodell einer Notiz für Listen-Endpunkte (JPQL-Konstruktor-Projektion).
+ * Enthält nur die skalaren Spalten der Notiz; Tags und Bild-URLs werden gesammelt
+ * pro Seite nachgeladen (NoteTagRow, NoteImageRow), Bilddaten nie.
+ */
+@Getter
+public final class NoteRow {
+
+    private final int id;
+    private final String title;
+    private final String content;
+    private final NoteCategory category;
+    private final NoteType type;
+    private final Date createdAt;
+
+    public NoteRow(int id, String title, String content, NoteCategory category, NoteType type, Date createdAt) {
+        this.id = id;
+        this.title = title;
+        this.content = content;
+        this.category = category;
+        this.type = type;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,22 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Ein Tag einer Notiz, wie er beim gesammelten Nachladen für eine Seite geliefert wird.
+ */
+@Getter
+public final class NoteTagRow {
+
+    private final int noteId;
+    private final String tag;
+
+    public NoteTagRow(int noteId, String tag) {
+        this.noteId = noteId;
+        this.tag = tag;
+    }
+}
@@ -0,0 +1,23 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Vorschlag der Tag-Autovervollständigung (GET /notes/tags): Schreibweise des Tags und
+ * Anzahl der Notizen des Benutzers, die ihn tragen.
+ */
+@Getter
+public final class TagSuggestionDTO {
+
+    private final String tag;
+    private final long count;
+
+    public TagSuggestionDTO(String tag, long count) {
+        this.tag = tag;
+        this.count = count;
+    }
+}
@@ -0,0 +1,40 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Data;
+import org.bootstmytool.backend.service.ChunkedUploadService;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Stand eines Uploads in Teilstücken. Beim Anlegen schickt der Client fileName und size,
+ * der Server antwortet mit uploadId und dem Offset, ab dem das nächste Teilstück erwartet wird.
+ */
+@Data
+public class UploadSessionDTO {
+
+    /** ID der Sitzung (nur in Antworten) */
+    private String uploadId;
+
+    /** Ursprünglicher Dateiname */
+    private String fileName;
+
+    /** Gesamtgröße der Datei in Bytes */
+    private long size;
+
+    /** Bisher empfangene Bytes = Offset des nächsten Teilstücks (nur in Antworten) */
+    private long offset;
+
+    /**
+     * Erstellt das DTO aus einer offenen Sitzung.
+     */
+    public static UploadSessionDTO from(ChunkedUploadService.UploadSession session) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setUploadId(session.getUploadId());
+        dto.setFileName(session.getFileName());
+        dto.setSize(session.getSize());
+        dto.setOffset(session.getReceived());
+        return dto;
+    }
+}
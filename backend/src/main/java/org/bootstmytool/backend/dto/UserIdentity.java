@@ -0,0 +1,26 @@
+package org.bootstmytool.backend.dto;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Schlanke, unveränderliche Sicht auf einen Benutzer für die Authentifizierung.
+ * Enthält nur ID, E-Mail und Passwort-Hash – keine JPA-Entität und keine Notizen –
+ * und kann daher gefahrlos im Speicher zwischengespeichert werden.
+ */
+@Getter
+public final class UserIdentity {
+
+    private final long id;              // ID des Benutzers
+    private final String email;         // E-Mail (Benutzername)
+    private final String passwordHash;  // gespeicherter BCrypt-Hash
+
+    public UserIdentity(long id, String email, String passwordHash) {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+    }
+}
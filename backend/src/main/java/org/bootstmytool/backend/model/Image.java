@@ -8,14 +8,19 @@ import lombok.Setter;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.1
  * @Date: 2025-09-24
  *
  * Die Image-Klasse stellt ein Bild dar, das mit einer Notiz verknüpft ist.
- * Das Bild wird in der Datenbank als Blob gespeichert und kann mit einer Notiz in einer "Viele-zu-Eins"-Beziehung verbunden werden.
+ * Die Bilddatei liegt ausschließlich im Dateisystem (url = Dateiname); die Tabelle hält nur
+ * Metadaten (Größe, MIME-Typ, Prüfsumme, Abmessungen). Ein Bild ist mit einer Notiz in einer
+ * "Viele-zu-Eins"-Beziehung verbunden.
  */
 @Entity
-@Table(name = "image")
+@Table(name = "image", indexes = {
+        // Referenzzählung: Bilder mit derselben Datei
+        @Index(name = "idx_image_url", columnList = "url")
+})
 public class Image {
 
     /**
@@ -34,16 +39,36 @@ public class Image {
     @Getter
     @Setter
     private String url; // Die URL des Bildes
-    /**
-     * -- SETTER --
-     * Setzt die Binärdaten des Bildes.     *
-     * -- GETTER --
-     * Gibt die Binärdaten des Bildes zurück.
-     */
+
+    // ── Metadaten der Bilddatei (die Bytes selbst liegen nur im Dateisystem) ──
+
+    /** Größe der Datei in Bytes */
+    @Getter
+    @Setter
+    @Column(name = "size_bytes")
+    private Long size;
+
+    /** MIME-Typ, z.B. image/png */
+    @Getter
+    @Setter
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    /** SHA-256 der Datei (hex) */
+    @Getter
+    @Setter
+    @Column(length = 64)
+    private String checksum;
+
+    /** Breite in Pixeln (null, wenn nicht ermittelbar) */
+    @Getter
+    @Setter
+    private Integer width;
+
+    /** Höhe in Pixeln (null, wenn nicht ermittelbar) */
     @Getter
     @Setter
-    @Lob
-    private byte[] data; // Die Binärdaten des Bildes (in der Regel als Blob gespeichert)
+    private Integer height;
 
     /**
      * -- GETTER --
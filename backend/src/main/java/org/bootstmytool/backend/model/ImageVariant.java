@@ -0,0 +1,40 @@
+package org.bootstmytool.backend.model;
+
+import java.util.Locale;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Verkleinerte Varianten eines Bildes (/image/{name}?variant=thumb|medium).
+ * maxSize ist die maximale Kantenlänge in Pixeln; das Seitenverhältnis bleibt erhalten.
+ */
+public enum ImageVariant {
+    THUMB(320),
+    MEDIUM(1024);
+
+    private final int maxSize;
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** Verzeichnisname der Variante (z.B. "thumb") */
+    public String directoryName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Liest den Request-Parameter (Groß-/Kleinschreibung egal).
+     *
+     * @throws IllegalArgumentException bei unbekannter Variante.
+     */
+    public static ImageVariant fromParam(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
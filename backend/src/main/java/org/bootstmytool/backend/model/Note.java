@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.util.ArrayList;
@@ -23,7 +24,10 @@ import java.util.List;
  */
 @Getter
 @Entity
-@Table(name = "note")
+@Table(name = "note", indexes = {
+        // Keyset-Pagination der Notizliste (user_id, created_at DESC, id DESC)
+        @Index(name = "idx_note_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Note {
 
@@ -48,6 +52,7 @@ public class Note {
      */
     @Setter
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 50) // mehrere Notizen → Tags gesammelt statt einzeln nachladen
     @CollectionTable(name = "note_tags", joinColumns = @JoinColumn(name = "note_id"))
     private List<String> tags = new ArrayList<>();
 
@@ -78,6 +83,7 @@ public class Note {
     /** Zugehörige Bilder (eine Notiz hat mehrere Bilder) */
     @Setter
     @OneToMany(mappedBy = "note", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @JsonManagedReference // verwaltet die Kind-Objekte (Bilder)
     private List<Image> images = new ArrayList<>();
 
@@ -1,14 +1,18 @@
 package org.bootstmytool.backend.repository;
 
+import org.bootstmytool.backend.dto.NoteImageRow;
 import org.bootstmytool.backend.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.1
  * @Date: 2025-09-24
  *
  * Das Repository für die Image-Entität. Diese Schnittstelle erweitert JpaRepository,
@@ -23,4 +27,25 @@ public interface ImageRepository extends JpaRepository<Image, Integer> {
     //Findet ein Bild anhand der Bild-ID
     Optional<Image> findById(int imageId);
 
+    //Welche der Dateinamen noch von mindestens einem Bild referenziert werden (Bereinigung verwaister Dateien)
+    @Query("SELECT DISTINCT i.url FROM Image i WHERE i.url IN :urls")
+    List<String> findReferencedUrls(@Param("urls") Collection<String> urls);
+
+    //Liefert ID und Dateiname der Bilder mehrerer Notizen in einer Abfrage (ohne Binärdaten)
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteImageRow(i.note.id, i.id, i.url)
+           FROM Image i
+           WHERE i.note.id IN :noteIds
+           ORDER BY i.id
+           """)
+    List<NoteImageRow> findUrlsByNoteIds(@Param("noteIds") Collection<Integer> noteIds);
+
+    //Liefert ID und Dateiname der angegebenen Bilder, sofern sie zu Notizen des Benutzers gehören
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteImageRow(n.id, i.id, i.url)
+           FROM Image i JOIN i.note n
+           WHERE i.id IN :ids AND n.user.id = :userId
+           """)
+    List<NoteImageRow> findRowsByIdsAndUser(@Param("ids") Collection<Integer> ids, @Param("userId") int userId);
+
 }
\ No newline at end of file
@@ -1,21 +1,27 @@
 package org.bootstmytool.backend.repository;
 
+import org.bootstmytool.backend.dto.NoteIndexRow;
+import org.bootstmytool.backend.dto.NoteRow;
+import org.bootstmytool.backend.dto.NoteTagRow;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
 import org.bootstmytool.backend.model.Image;
 import org.bootstmytool.backend.model.Note;
 import org.bootstmytool.backend.model.NoteCategory;
 import org.bootstmytool.backend.model.NoteType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.3
  * @Date: 2025-09-24
  *
  * Repository für die Note-Entität. Stellt CRUD-Operationen bereit und
@@ -74,30 +80,109 @@ public interface NoteRepository extends JpaRepository<Note, Integer> {
             int userId, NoteCategory category, NoteType type, Date from, Date to
     );
 
+    // ──────────────────────────
+    // Lesemodell für Listen-Endpunkte
+    // Die Notizen werden als NoteRow projiziert; Tags und Bilder lädt NoteQueryService
+    // anschließend mit je einer Abfrage für die ganze Seite nach.
+    // ──────────────────────────
+
+    /**
+     * Erste Seite der Notizen eines Benutzers, neueste zuerst (Keyset-Pagination).
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteRow(
+                  n.id, n.title, n.content, n.category, n.type, n.createdAt)
+           FROM Note n
+           WHERE n.user.id = :userId
+           ORDER BY n.createdAt DESC, n.id DESC
+           """)
+    List<NoteRow> findFirstPage(@Param("userId") int userId, Limit limit);
+
+    /**
+     * Folgeseite: alle Notizen, die in der Sortierung hinter (createdAt, id) liegen.
+     * Bleibt stabil, auch wenn zwischendurch neue Notizen angelegt werden.
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteRow(
+                  n.id, n.title, n.content, n.category, n.type, n.createdAt)
+           FROM Note n
+           WHERE n.user.id = :userId
+             AND ( n.createdAt < :createdAt
+                   OR (n.createdAt = :createdAt AND n.id < :id) )
+           ORDER BY n.createdAt DESC, n.id DESC
+           """)
+    List<NoteRow> findPageAfter(
+            @Param("userId") int userId,
+            @Param("createdAt") Date createdAt,
+            @Param("id") int id,
+            Limit limit
+    );
+
+    /**
+     * Tags aller angegebenen Notizen in einer Abfrage.
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteTagRow(n.id, t)
+           FROM Note n
+           JOIN n.tags t
+           WHERE n.id IN :noteIds
+           """)
+    List<NoteTagRow> findTagsByNoteIds(@Param("noteIds") Collection<Integer> noteIds);
+
+    /**
+     * Durchsuchbare Felder aller Notizen ab einer ID, aufsteigend (Aufbau des Suchindex).
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteIndexRow(n.id, n.user.id, n.title, n.content)
+           FROM Note n
+           WHERE n.id > :afterId
+           ORDER BY n.id
+           """)
+    List<NoteIndexRow> findIndexRowsAfter(@Param("afterId") int afterId, Limit limit);
+
+    /**
+     * Tags eines Benutzers mit Nutzungszählern, deren Kleinschreibung auf das LIKE-Muster passt
+     * (meistgenutzte zuerst). Nur solange der Suchindex nicht bereit ist.
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.TagSuggestionDTO(MIN(TRIM(t)), COUNT(DISTINCT n.id))
+           FROM Note n
+           JOIN n.tags t
+           WHERE n.user.id = :userId
+             AND LOWER(TRIM(t)) LIKE :pattern ESCAPE '\\'
+           GROUP BY LOWER(TRIM(t))
+           ORDER BY COUNT(DISTINCT n.id) DESC, LOWER(TRIM(t))
+           """)
+    List<TagSuggestionDTO> findTagSuggestions(@Param("userId") int userId, @Param("pattern") String pattern,
+                                              Limit limit);
+
     // ──────────────────────────
     // UC-5/UC-6: Flexible kombinierte Filter & Freitextsuche
     // ──────────────────────────
 
     /**
-     * Kombinierte Filterabfrage
+     * Kombinierte Filterabfrage.
+     * Die Tag-Suche läuft über EXISTS, damit jede Notiz genau einmal geliefert wird.
      */
     @Query("""
-           SELECT n FROM Note n
-           LEFT JOIN n.tags t
+           SELECT new org.bootstmytool.backend.dto.NoteRow(
+                  n.id, n.title, n.content, n.category, n.type, n.createdAt)
+           FROM Note n
            WHERE n.user.id = :userId
              AND ( :q IS NULL
                    OR LOWER(n.title)   LIKE LOWER(CONCAT('%', :q, '%'))
                    OR LOWER(n.content) LIKE LOWER(CONCAT('%', :q, '%'))
-                   OR (t IS NOT NULL AND LOWER(t) LIKE LOWER(CONCAT('%', :q, '%')))
+                   OR EXISTS ( SELECT 1 FROM Note tn JOIN tn.tags t
+                               WHERE tn.id = n.id
+                                 AND LOWER(t) LIKE LOWER(CONCAT('%', :q, '%')) )
                  )
              AND ( :category IS NULL OR n.category = :category )
              AND ( :type IS NULL     OR n.type = :type )
              AND ( :from IS NULL     OR n.createdAt >= :from )
              AND ( :to IS NULL       OR n.createdAt <= :to )
-           GROUP BY n
-           ORDER BY n.createdAt DESC
+           ORDER BY n.createdAt DESC, n.id DESC
            """)
-    List<Note> searchAndFilter(
+    List<NoteRow> searchAndFilter(
             @Param("userId") int userId,
             @Param("q") String q,
             @Param("category") NoteCategory category,
@@ -105,4 +190,29 @@ public interface NoteRepository extends JpaRepository<Note, Integer> {
             @Param("from") Date from,
             @Param("to") Date to
     );
-}
\ No newline at end of file
+
+    /**
+     * Filterabfrage für die Treffer des Suchindex: dieselben Filter wie searchAndFilter,
+     * der Freitext ist aber bereits über die Notiz-IDs aufgelöst.
+     */
+    @Query("""
+           SELECT new org.bootstmytool.backend.dto.NoteRow(
+                  n.id, n.title, n.content, n.category, n.type, n.createdAt)
+           FROM Note n
+           WHERE n.user.id = :userId
+             AND n.id IN :noteIds
+             AND ( :category IS NULL OR n.category = :category )
+             AND ( :type IS NULL     OR n.type = :type )
+             AND ( :from IS NULL     OR n.createdAt >= :from )
+             AND ( :to IS NULL       OR n.createdAt <= :to )
+           ORDER BY n.createdAt DESC, n.id DESC
+           """)
+    List<NoteRow> filterByIds(
+            @Param("userId") int userId,
+            @Param("noteIds") Collection<Integer> noteIds,
+            @Param("category") NoteCategory category,
+            @Param("type") NoteType type,
+            @Param("from") Date from,
+            @Param("to") Date to
+    );
+}
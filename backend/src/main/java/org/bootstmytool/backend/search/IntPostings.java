@@ -0,0 +1,186 @@
+package org.bootstmytool.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.3
+ * @Date: 2025-09-24
+ *
+ * Aufsteigend sortierte Liste von Notiz-IDs (Postings-Liste) auf einem wachsenden int-Array,
+ * bei Begriffen dazu parallel die (gewichtete) Häufigkeit in der Notiz für das Ranking.
+ * Kein Boxing: ein Eintrag kostet 8 Bytes (ohne Häufigkeit 4 Bytes) statt Objekten samt Verweisen.
+ * Neue Notizen haben die höchste ID und werden daher fast immer nur angehängt.
+ *
+ * Nicht threadsicher; der Zugriff wird von {@link NoteSearchIndex} synchronisiert.
+ */
+final class IntPostings {
+
+    static final int[] EMPTY = new int[0];
+
+    private int[] ids = new int[2];
+    /** null, wenn keine Häufigkeiten gespeichert werden (Trigramme) */
+    private int[] frequencies;
+    private int size;
+
+    IntPostings() {
+        this(true);
+    }
+
+    IntPostings(boolean withFrequencies) {
+        this.frequencies = withFrequencies ? new int[2] : null;
+    }
+
+    /**
+     * Fügt eine ID ein bzw. setzt ihre Häufigkeit, falls sie schon enthalten ist.
+     */
+    void add(int id, int frequency) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            if (frequencies != null) {
+                frequencies[size] = frequency;
+            }
+            ids[size++] = id;
+            return;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            if (frequencies != null) {
+                frequencies[pos] = frequency;
+            }
+            return;
+        }
+        int insert = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+        ids[insert] = id;
+        if (frequencies != null) {
+            System.arraycopy(frequencies, insert, frequencies, insert + 1, size - insert);
+            frequencies[insert] = frequency;
+        }
+        size++;
+    }
+
+    /**
+     * Entfernt eine ID, falls vorhanden.
+     */
+    void remove(int id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        if (frequencies != null) {
+            System.arraycopy(frequencies, pos + 1, frequencies, pos, size - pos - 1);
+        }
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return Position der ID, oder ein negativer Wert, wenn sie nicht enthalten ist
+     */
+    int indexOf(int id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    int frequencyAt(int index) {
+        return frequencies != null ? frequencies[index] : 1;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Kopiert die IDs in ein Array (aufsteigend).
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Hängt die IDs an ein Puffer-Array an (unsortierte Sammlung mehrerer Listen).
+     *
+     * @return das ggf. vergrößerte Puffer-Array
+     */
+    int[] appendTo(int[] buffer, int offset) {
+        if (buffer.length < offset + size) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, offset + size));
+        }
+        System.arraycopy(ids, 0, buffer, offset, size);
+        return buffer;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            if (frequencies != null) {
+                frequencies = Arrays.copyOf(frequencies, ids.length);
+            }
+        }
+    }
+
+    /**
+     * Schnittmenge zweier aufsteigend sortierter Arrays (Merge-Verfahren).
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Sortiert die ersten length Einträge und entfernt Duplikate.
+     */
+    static int[] sortedDistinct(int[] values, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(values, 0, length);
+        int n = 1;
+        for (int i = 1; i < length; i++) {
+            if (values[i] != values[n - 1]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+
+    /**
+     * Sortiert die ersten length Einträge und liefert die Werte, die mindestens minCount-mal vorkommen.
+     */
+    static int[] occurringAtLeast(int[] values, int length, int minCount) {
+        Arrays.sort(values, 0, length);
+        int n = 0;
+        for (int i = 0; i < length; ) {
+            int j = i;
+            while (j < length && values[j] == values[i]) {
+                j++;
+            }
+            if (j - i >= minCount) {
+                values[n++] = values[i];
+            }
+            i = j;
+        }
+        return Arrays.copyOf(values, n);
+    }
+}
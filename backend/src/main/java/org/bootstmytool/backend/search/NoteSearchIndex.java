@@ -0,0 +1,604 @@
+package org.bootstmytool.backend.search;
+
+import lombok.Getter;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+import org.bootstmytool.backend.model.Note;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.4
+ * @Date: 2025-09-24
+ *
+ * Invertierter Index über Titel, Inhalt und Tags der Notizen, getrennt pro Benutzer.
+ * Jeder Begriff verweist auf eine sortierte int-Liste der Notiz-IDs ({@link IntPostings});
+ * die Begriffe liegen sortiert vor, damit auch Präfixe ("wel" → "welt", "welten") schnell
+ * gefunden werden. Eine Suche mit mehreren Begriffen liefert die Notizen, die alle enthalten.
+ *
+ * Für die Sortierung nach Relevanz ({@link #score}) speichert jede Postings-Liste die Häufigkeit
+ * des Begriffs, gewichtet nach Feld (Titel {@value #TITLE_WEIGHT}, Tag {@value #TAG_WEIGHT},
+ * Inhalt {@value #CONTENT_WEIGHT}), und jede Notiz ihre gewichtete Länge. Bewertet wird nach
+ * BM25 mit diesen gewichteten Häufigkeiten (BM25F).
+ *
+ * Für die Teilstringsuche ({@link #substringCandidates}, Semantik wie LIKE '%q%') führt jeder
+ * Benutzerindex zusätzlich Postings pro Trigramm ({@link Trigrams}). Kandidaten sind die Notizen,
+ * die alle Trigramme des Suchtexts enthalten – bzw. bei k erlaubten Tippfehlern alle bis auf 3k
+ * (jeder Tippfehler zerstört höchstens drei Trigramme). Ob der Text wirklich passt, prüft danach
+ * {@link SubstringMatcher}.
+ *
+ * Außerdem hält jeder Benutzerindex ein {@link TagDictionary} mit Nutzungszählern für die
+ * Tag-Autovervollständigung ({@link #suggestTags}).
+ *
+ * Der Index wird von NoteService bei jedem Anlegen, Ändern und Löschen nachgeführt und beim
+ * Start von {@link NoteSearchIndexLoader} aus der Datenbank aufgebaut. Bis dahin (oder wenn
+ * notes.search.index.enabled=false) ist er nicht bereit und die Suche läuft über die Datenbank.
+ *
+ * Der Index liefert nur Kandidaten: NoteQueryService lädt die Notizen anschließend per ID und
+ * Benutzer aus der Datenbank, eine zwischenzeitlich gelöschte Notiz fällt dort heraus.
+ */
+@Component
+public class NoteSearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int TAG_WEIGHT = 2;
+    static final int CONTENT_WEIGHT = 1;
+
+    /** BM25: Sättigung der Häufigkeit */
+    private static final double K1 = 1.2;
+    /** BM25: Einfluss der Notizlänge */
+    private static final double B = 0.75;
+
+    /** Höchstens erlaubte Tippfehler der Teilstringsuche */
+    public static final int MAX_TYPOS = 2;
+
+    /** Mindestanzahl gemeinsamer Trigramme bei Tippfehlertoleranz */
+    private static final int MIN_SHARED_TRIGRAMS = 2;
+
+    private final boolean enabled;
+
+    /** Benutzer-ID → Index des Benutzers */
+    private final Map<Integer, UserIndex> users = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    private volatile boolean loading;
+
+    /** Während des Ladens geänderte oder gelöschte Notizen – der Ladevorgang überspringt sie */
+    private final Set<Integer> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    public NoteSearchIndex(@Value("${notes.search.index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true, wenn der Index eingeschaltet ist
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return true, wenn der Index vollständig geladen ist und Suchen beantworten kann
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Nimmt eine Notiz auf bzw. ersetzt ihre bisherigen Begriffe.
+     */
+    public void index(Note note) {
+        if (note.getUser() != null) {
+            index(note.getId(), (int) note.getUser().getId(), note.getTitle(), note.getContent(), note.getTags());
+        }
+    }
+
+    /**
+     * Nimmt eine Notiz auf bzw. ersetzt ihre bisherigen Begriffe.
+     */
+    public void index(int noteId, int userId, String title, String content, Collection<String> tags) {
+        if (!enabled) {
+            return;
+        }
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        index.lock.writeLock().lock();
+        try {
+            if (loading) {
+                changedWhileLoading.add(noteId);
+            }
+            index.put(noteId, termFrequencies(title, content, tags), trigrams(title, content, tags), tags);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Entfernt eine Notiz aus dem Index.
+     */
+    public void remove(int userId, int noteId) {
+        if (!enabled) {
+            return;
+        }
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        index.lock.writeLock().lock();
+        try {
+            if (loading) {
+                changedWhileLoading.add(noteId);
+            }
+            index.remove(noteId);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sucht die Notizen eines Benutzers, die jeden Begriff der Anfrage (auch als Wortanfang) enthalten.
+     *
+     * @param q Suchtext
+     * @return aufsteigend sortierte Notiz-IDs, oder null, wenn der Index nicht bereit ist
+     *         oder der Suchtext keine Begriffe enthält (dann muss die Datenbank suchen)
+     */
+    public int[] search(int userId, String q) {
+        if (!ready) {
+            return null;
+        }
+        List<String> terms = TextTokenizer.tokenize(q);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return IntPostings.EMPTY;
+        }
+        index.lock.readLock().lock();
+        try {
+            return index.matchAll(terms);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bewertet bereits gefundene Notizen (z.B. die geprüften Treffer der Teilstringsuche) nach BM25
+     * und sortiert sie absteigend (bei gleicher Bewertung die neuere Notiz zuerst). Jeder Begriff
+     * des Suchtexts zählt mit dem am besten bewerteten Begriff der Notiz, der ihn enthält – so wird
+     * auch ein Treffer mitten im Wort ("uhr" in "Quarzuhr") bewertet.
+     *
+     * @param noteIds die zu bewertenden Notiz-IDs
+     * @return die sortierten Treffer, oder null, wenn der Index nicht bereit ist
+     */
+    public RankedHits score(int userId, String q, int[] noteIds) {
+        if (!ready) {
+            return null;
+        }
+        double[] scores = new double[noteIds.length];
+        UserIndex index = users.get(userId);
+        List<String> terms = TextTokenizer.tokenize(q);
+        if (index == null || terms.isEmpty() || noteIds.length == 0) {
+            return RankedHits.sorted(noteIds, scores);
+        }
+
+        index.lock.readLock().lock();
+        try {
+            for (String term : terms.stream().distinct().toList()) {
+                index.addScores(term, noteIds, scores);
+            }
+            return RankedHits.sorted(noteIds, scores);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Kandidaten der Teilstringsuche: Notizen, deren Titel, Inhalt oder Tags die Trigramme
+     * des Suchtexts enthalten (bei Tippfehlertoleranz bis auf 3 pro Tippfehler).
+     * Die Kandidaten müssen mit {@link SubstringMatcher} und {@link #effectiveTypos} geprüft werden.
+     *
+     * @param typos gewünschte Tippfehlertoleranz (wird für kurze Suchtexte verringert)
+     * @return aufsteigend sortierte Notiz-IDs, oder null, wenn der Index nicht bereit ist
+     *         oder der Suchtext kürzer als drei Zeichen ist (dann muss die Datenbank suchen)
+     */
+    public int[] substringCandidates(int userId, String q, int typos) {
+        if (!ready || q == null) {
+            return null;
+        }
+        int[] grams = Trigrams.of(q);
+        if (grams.length == 0) {
+            return null;
+        }
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return IntPostings.EMPTY;
+        }
+        int minShared = grams.length - 3 * effectiveTypos(grams.length, typos);
+
+        index.lock.readLock().lock();
+        try {
+            return index.trigramCandidates(grams, minShared);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tatsächlich angewandte Tippfehlertoleranz für einen Suchtext: Jeder Tippfehler kostet drei
+     * Trigramme, mindestens {@value #MIN_SHARED_TRIGRAMS} müssen übrig bleiben (also ab 7 Zeichen 1,
+     * ab 10 Zeichen 2). Mit nur einem gemeinsamen Trigramm wäre fast jede Notiz ein Kandidat.
+     */
+    public static int effectiveTypos(String q, int typos) {
+        return effectiveTypos(Trigrams.of(q).length, typos);
+    }
+
+    private static int effectiveTypos(int distinctTrigrams, int typos) {
+        return Math.max(0, Math.min(Math.min(typos, MAX_TYPOS), (distinctTrigrams - MIN_SHARED_TRIGRAMS) / 3));
+    }
+
+    /**
+     * Trigramme aller durchsuchbaren Felder einer Notiz.
+     */
+    static int[] trigrams(String title, String content, Collection<String> tags) {
+        String[] fields = new String[2 + (tags != null ? tags.size() : 0)];
+        fields[0] = title;
+        fields[1] = content;
+        if (tags != null) {
+            int i = 2;
+            for (String tag : tags) {
+                fields[i++] = tag;
+            }
+        }
+        return Trigrams.of(fields);
+    }
+
+    /**
+     * Autovervollständigung: die meistgenutzten Tags des Benutzers, die mit prefix beginnen
+     * (ohne Groß-/Kleinschreibung; leeres Präfix = alle Tags).
+     *
+     * @return die Vorschläge, oder null, wenn der Index nicht bereit ist
+     */
+    public List<TagSuggestionDTO> suggestTags(int userId, String prefix, int limit) {
+        if (!ready) {
+            return null;
+        }
+        UserIndex index = users.get(userId);
+        if (index == null) {
+            return List.of();
+        }
+        String key = prefix == null || prefix.isBlank() ? "" : TagDictionary.key(prefix);
+        index.lock.readLock().lock();
+        try {
+            return index.tags.suggest(key, limit);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gewichtete Häufigkeit jedes Begriffs einer Notiz.
+     */
+    static Map<String, Integer> termFrequencies(String title, String content, Collection<String> tags) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextTokenizer.tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                for (String term : TextTokenizer.tokenize(tag)) {
+                    frequencies.merge(term, TAG_WEIGHT, Integer::sum);
+                }
+            }
+        }
+        for (String term : TextTokenizer.tokenize(content)) {
+            frequencies.merge(term, CONTENT_WEIGHT, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    // ──────────────────────────
+    // Aufbau beim Start (NoteSearchIndexLoader)
+    // ──────────────────────────
+
+    /**
+     * Beginnt den Aufbau: verwirft den alten Stand; Änderungen ab jetzt haben Vorrang vor geladenen Daten.
+     */
+    public void beginLoad() {
+        ready = false;
+        users.clear();
+        changedWhileLoading.clear();
+        loading = true;
+    }
+
+    /**
+     * Nimmt eine aus der Datenbank gelesene Notiz auf, sofern sie seit Beginn des Aufbaus nicht
+     * über {@link #index} oder {@link #remove} geändert wurde (deren Stand ist aktueller).
+     */
+    public void load(int noteId, int userId, String title, String content, Collection<String> tags) {
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        index.lock.writeLock().lock();
+        try {
+            if (!changedWhileLoading.contains(noteId)) {
+                index.put(noteId, termFrequencies(title, content, tags), trigrams(title, content, tags), tags);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Schließt den Aufbau ab; ab jetzt beantwortet der Index Suchen.
+     */
+    public void finishLoad() {
+        loading = false;
+        changedWhileLoading.clear();
+        ready = true;
+    }
+
+    /**
+     * Bricht den Aufbau ab; die Suche bleibt bei der Datenbank.
+     */
+    public void abortLoad() {
+        loading = false;
+        changedWhileLoading.clear();
+    }
+
+    /**
+     * @return Anzahl indizierter Notizen (alle Benutzer)
+     */
+    public int documentCount() {
+        int count = 0;
+        for (UserIndex index : users.values()) {
+            index.lock.readLock().lock();
+            try {
+                count += index.notes.size();
+            } finally {
+                index.lock.readLock().unlock();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Treffer einer Relevanzsuche: Notiz-IDs und ihre Bewertung, beste zuerst.
+     */
+    @Getter
+    public static final class RankedHits {
+        private final int[] noteIds;
+        private final double[] scores;
+
+        RankedHits(int[] noteIds, double[] scores) {
+            this.noteIds = noteIds;
+            this.scores = scores;
+        }
+
+        /**
+         * Sortiert nach Bewertung absteigend, bei Gleichstand nach ID absteigend (neuere zuerst).
+         */
+        static RankedHits sorted(int[] ids, double[] scores) {
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b]
+                    ? Double.compare(scores[b], scores[a])
+                    : Integer.compare(ids[b], ids[a]));
+            int[] sortedIds = new int[ids.length];
+            double[] sortedScores = new double[ids.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedScores[i] = scores[order[i]];
+            }
+            return new RankedHits(sortedIds, sortedScores);
+        }
+    }
+
+    /**
+     * Index eines Benutzers. Alle Zugriffe laufen unter {@link #lock}.
+     */
+    private static final class UserIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /** Begriff → Notiz-IDs samt Häufigkeit, sortiert für Präfixsuche */
+        private final TreeMap<String, IntPostings> terms = new TreeMap<>();
+
+        /** Trigramm → Notiz-IDs (ohne Häufigkeiten) */
+        private final Map<Integer, IntPostings> trigrams = new HashMap<>();
+
+        /** Tags des Benutzers mit Nutzungszählern */
+        private final TagDictionary tags = new TagDictionary();
+
+        /** Notiz-ID → ihre Begriffe, Trigramme und Tags (zum Entfernen bei Änderung/Löschen) und gewichtete Länge */
+        private final Map<Integer, NoteEntry> notes = new HashMap<>();
+
+        /** Summe der gewichteten Längen aller Notizen (für die mittlere Länge in BM25) */
+        private long totalLength;
+
+        void put(int noteId, Map<String, Integer> frequencies, int[] grams, Collection<String> noteTags) {
+            remove(noteId);
+            // jeder Tag zählt pro Notiz einmal, auch wenn er in anderer Schreibweise doppelt vorkommt
+            Map<String, String> tagLabels = new LinkedHashMap<>();
+            if (noteTags != null) {
+                for (String tag : noteTags) {
+                    String key = TagDictionary.key(tag);
+                    if (key != null) {
+                        tagLabels.putIfAbsent(key, tag);
+                    }
+                }
+            }
+            tagLabels.forEach(tags::add);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), t -> new IntPostings()).add(noteId, entry.getValue());
+                length += entry.getValue();
+            }
+            for (int gram : grams) {
+                trigrams.computeIfAbsent(gram, g -> new IntPostings(false)).add(noteId, 0);
+            }
+            notes.put(noteId, new NoteEntry(frequencies.keySet().toArray(new String[0]), grams,
+                    tagLabels.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        }
+
+        void remove(int noteId) {
+            NoteEntry old = notes.remove(noteId);
+            if (old == null) {
+                return;
+            }
+            totalLength -= old.length;
+            for (String term : old.terms) {
+                IntPostings postings = terms.get(term);
+                if (postings != null) {
+                    postings.remove(noteId);
+                    if (postings.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            for (String tag : old.tagKeys) {
+                tags.remove(tag);
+            }
+            for (int gram : old.grams) {
+                IntPostings postings = trigrams.get(gram);
+                if (postings != null) {
+                    postings.remove(noteId);
+                    if (postings.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Notizen, die mindestens minShared der Trigramme enthalten.
+         */
+        int[] trigramCandidates(int[] grams, int minShared) {
+            IntPostings[] lists = new IntPostings[grams.length];
+            int present = 0;
+            long total = 0;
+            for (int gram : grams) {
+                IntPostings postings = trigrams.get(gram);
+                if (postings != null) {
+                    lists[present++] = postings;
+                    total += postings.size();
+                }
+            }
+            if (present < minShared) {
+                return IntPostings.EMPTY;
+            }
+            if (minShared == grams.length) {
+                // alle Trigramme nötig: Schnittmenge, beginnend mit der kürzesten Liste
+                Arrays.sort(lists, Comparator.comparingInt(IntPostings::size));
+                int[] result = lists[0].toArray();
+                for (int i = 1; i < lists.length && result.length > 0; i++) {
+                    result = IntPostings.intersect(result, lists[i].toArray());
+                }
+                return result;
+            }
+            int[] buffer = new int[(int) Math.min(total, Integer.MAX_VALUE - 8)];
+            int length = 0;
+            for (int i = 0; i < present; i++) {
+                buffer = lists[i].appendTo(buffer, length);
+                length += lists[i].size();
+            }
+            return IntPostings.occurringAtLeast(buffer, length, minShared);
+        }
+
+        /**
+         * Notizen, die jeden Begriff (als Wortanfang) enthalten.
+         */
+        int[] matchAll(List<String> queryTerms) {
+            // längere Begriffe sind meist seltener → Schnittmenge schrumpft früh
+            List<String> ordered = queryTerms.stream().distinct()
+                    .sorted(Comparator.comparingInt(String::length).reversed()).toList();
+            int[] result = null;
+            for (String term : ordered) {
+                int[] matches = prefixMatches(term);
+                result = result == null ? matches : IntPostings.intersect(result, matches);
+                if (result.length == 0) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Addiert den BM25-Beitrag eines Suchbegriffs zu den Bewertungen der Kandidaten.
+         * Pro Notiz zählt der am besten bewertete ihrer Begriffe, der den Suchbegriff enthält.
+         */
+        void addScores(String queryTerm, int[] candidates, double[] scores) {
+            double n = notes.size();
+            double averageLength = Math.max(1.0, (double) totalLength / notes.size());
+            for (int i = 0; i < candidates.length; i++) {
+                NoteEntry entry = notes.get(candidates[i]);
+                if (entry == null) {
+                    continue;
+                }
+                double best = 0;
+                for (String term : entry.terms) {
+                    if (!term.contains(queryTerm)) {
+                        continue;
+                    }
+                    IntPostings postings = terms.get(term);
+                    int pos = postings.indexOf(candidates[i]);
+                    double idf = Math.log(1 + (n - postings.size() + 0.5) / (postings.size() + 0.5));
+                    double tf = postings.frequencyAt(pos);
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * entry.length / averageLength));
+                    best = Math.max(best, score);
+                }
+                scores[i] += best;
+            }
+        }
+
+        /**
+         * Vereinigung der Postings aller Begriffe, die mit prefix beginnen.
+         */
+        int[] prefixMatches(String prefix) {
+            NavigableMap<String, IntPostings> range = range(prefix);
+            if (range.isEmpty()) {
+                return IntPostings.EMPTY;
+            }
+            if (range.size() == 1) {
+                return range.firstEntry().getValue().toArray();
+            }
+            int[] buffer = new int[64];
+            int length = 0;
+            for (IntPostings postings : range.values()) {
+                buffer = postings.appendTo(buffer, length);
+                length += postings.size();
+            }
+            return IntPostings.sortedDistinct(buffer, length);
+        }
+
+        private NavigableMap<String, IntPostings> range(String prefix) {
+            return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+    }
+
+    /**
+     * Begriffe, Trigramme, Tags und gewichtete Länge einer indizierten Notiz.
+     */
+    private static final class NoteEntry {
+        private final String[] terms;
+        private final int[] grams;
+        private final String[] tagKeys;
+        private final int length;
+
+        NoteEntry(String[] terms, int[] grams, String[] tagKeys, int length) {
+            this.terms = terms;
+            this.grams = grams;
+            this.tagKeys = tagKeys;
+            this.length = length;
+        }
+    }
+}
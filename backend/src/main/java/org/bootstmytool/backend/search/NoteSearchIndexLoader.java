@@ -0,0 +1,92 @@
+package org.bootstmytool.backend.search;
+
+import org.bootstmytool.backend.dto.NoteIndexRow;
+import org.bootstmytool.backend.dto.NoteTagRow;
+import org.bootstmytool.backend.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Baut den {@link NoteSearchIndex} beim Start aus der Datenbank auf. Die Notizen werden in
+ * Seiten zu notes.search.index.load-batch-size nach ID gelesen (Keyset), pro Seite zwei Abfragen:
+ * Titel/Inhalt und Tags. Der Aufbau läuft in einem Hintergrund-Thread; bis er fertig ist,
+ * beantwortet die Datenbank die Suchanfragen.
+ */
+@Component
+public class NoteSearchIndexLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteSearchIndexLoader.class);
+
+    private final NoteSearchIndex noteSearchIndex;
+    private final NoteRepository noteRepository;
+    private final int batchSize;
+
+    public NoteSearchIndexLoader(NoteSearchIndex noteSearchIndex, NoteRepository noteRepository,
+                                 @Value("${notes.search.index.load-batch-size:1000}") int batchSize) {
+        this.noteSearchIndex = noteSearchIndex;
+        this.noteRepository = noteRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!noteSearchIndex.isEnabled()) {
+            return;
+        }
+        noteSearchIndex.beginLoad();
+        Thread thread = new Thread(this::load, "note-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Liest alle Notizen seitenweise ein und gibt den Index anschließend frei.
+     */
+    void load() {
+        long start = System.nanoTime();
+        try {
+            int lastId = 0;
+            int total = 0;
+            List<NoteIndexRow> rows;
+            do {
+                rows = noteRepository.findIndexRowsAfter(lastId, Limit.of(batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                Map<Integer, List<String>> tags = new HashMap<>(rows.size() * 2);
+                for (NoteIndexRow row : rows) {
+                    tags.put(row.getNoteId(), new ArrayList<>());
+                }
+                for (NoteTagRow tag : noteRepository.findTagsByNoteIds(tags.keySet())) {
+                    tags.get(tag.getNoteId()).add(tag.getTag());
+                }
+                for (NoteIndexRow row : rows) {
+                    noteSearchIndex.load(row.getNoteId(), row.getUserId(), row.getTitle(), row.getContent(),
+                            tags.get(row.getNoteId()));
+                }
+                lastId = rows.get(rows.size() - 1).getNoteId();
+                total += rows.size();
+            } while (rows.size() == batchSize);
+
+            noteSearchIndex.finishLoad();
+            log.info("Suchindex aufgebaut: {} Notizen in {} ms", total, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            noteSearchIndex.abortLoad();
+            log.warn("Aufbau des Suchindex fehlgeschlagen, Suche läuft über die Datenbank: {}", e.getMessage());
+        }
+    }
+}
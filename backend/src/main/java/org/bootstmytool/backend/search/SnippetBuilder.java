@@ -0,0 +1,132 @@
+package org.bootstmytool.backend.search;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.2
+ * @Date: 2025-09-24
+ *
+ * Erzeugt für Suchtreffer einen kurzen Textausschnitt statt des vollständigen Inhalts.
+ * Gewählt wird der Ausschnitt mit den meisten Treffern; Begriffe, die einen Suchbegriff
+ * enthalten (wie bei der Teilstringsuche), werden mit &lt;mark&gt; hervorgehoben. Der übrige Text wird HTML-escaped, der
+ * Ausschnitt kann also direkt als HTML dargestellt werden. Gekürzte Enden erhalten "…".
+ */
+public final class SnippetBuilder {
+
+    public static final String MARK_OPEN = "<mark>";
+    public static final String MARK_CLOSE = "</mark>";
+    private static final String ELLIPSIS = "…";
+
+    private SnippetBuilder() {
+    }
+
+    /**
+     * @param content    der Inhalt der Notiz
+     * @param queryTerms die Suchbegriffe (normalisiert, siehe {@link TextTokenizer})
+     * @param maxLength  maximale Länge des Ausschnitts (ohne Markierungen)
+     * @return der Ausschnitt, leer bei leerem Inhalt
+     */
+    public static String build(String content, List<String> queryTerms, int maxLength) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        int[] spans = TextTokenizer.spans(content);
+        int tokens = spans.length / 2;
+        boolean[] hit = new boolean[tokens];
+        for (int t = 0; t < tokens; t++) {
+            String token = TextTokenizer.normalize(content.substring(spans[2 * t], spans[2 * t + 1]));
+            for (String term : queryTerms) {
+                if (token.contains(term)) {
+                    hit[t] = true;
+                    break;
+                }
+            }
+        }
+
+        int start = 0;
+        if (content.length() > maxLength) {
+            start = bestWindowStart(content, spans, hit, maxLength);
+        }
+        int end = Math.min(content.length(), start + maxLength);
+        if (end < content.length()) {
+            // nicht mitten im Wort abschneiden, sofern ein Wortende im Fenster liegt
+            for (int t = tokens - 1; t >= 0; t--) {
+                if (spans[2 * t + 1] <= end && spans[2 * t + 1] > start) {
+                    end = spans[2 * t + 1];
+                    break;
+                }
+            }
+        }
+
+        StringBuilder out = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            out.append(ELLIPSIS);
+        }
+        int pos = start;
+        for (int t = 0; t < tokens; t++) {
+            int s = spans[2 * t], e = spans[2 * t + 1];
+            if (!hit[t] || s < start || s >= end) {
+                continue;
+            }
+            e = Math.min(e, end); // ein Treffer länger als das Fenster wird gekürzt
+            out.append(escape(content.substring(pos, s)))
+                    .append(MARK_OPEN).append(escape(content.substring(s, e))).append(MARK_CLOSE);
+            pos = e;
+        }
+        out.append(escape(content.substring(pos, end)));
+        if (end < content.length()) {
+            out.append(ELLIPSIS);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Escaped nur die HTML-Sonderzeichen; Umlaute bleiben lesbar.
+     */
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text, "UTF-8");
+    }
+
+    /**
+     * Anfang des Fensters mit den meisten Treffern (gleitendes Fenster über die Treffer);
+     * der erste Treffer steht mit etwas Kontext davor. Ein einzelner Treffer, der länger als das
+     * Fenster ist (z.B. Hash oder Base64), bildet ein Fenster für sich. Ohne Treffer: Textanfang.
+     */
+    private static int bestWindowStart(String content, int[] spans, boolean[] hit, int maxLength) {
+        int bestFirst = -1, bestCount = 0;
+        int first = 0, count = 0;
+        for (int t = 0; t < hit.length; t++) {
+            if (!hit[t]) {
+                continue;
+            }
+            count++;
+            while (first < t && (spans[2 * t + 1] - spans[2 * first] > maxLength || !hit[first])) {
+                if (hit[first]) {
+                    count--;
+                }
+                first++;
+            }
+            if (count > bestCount) {
+                bestCount = count;
+                bestFirst = first;
+            }
+        }
+        if (bestFirst < 0) {
+            return 0;
+        }
+        // der Kontext darf den ersten Treffer nicht aus dem Fenster schieben
+        int hitLength = spans[2 * bestFirst + 1] - spans[2 * bestFirst];
+        int context = Math.min(Math.min(maxLength / 4, spans[2 * bestFirst]), Math.max(0, maxLength - hitLength));
+        int start = spans[2 * bestFirst] - context;
+        // am Anfang eines Wortes beginnen
+        for (int t = 0; t <= bestFirst; t++) {
+            if (spans[2 * t] >= start) {
+                return spans[2 * t];
+            }
+        }
+        return start;
+    }
+}
@@ -0,0 +1,73 @@
+package org.bootstmytool.backend.search;
+
+import java.util.Collection;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Kandidaten der Trigramm-Suche gegen den Text: ohne Toleranz als Teilstring
+ * (wie LIKE '%q%', ohne Groß-/Kleinschreibung), mit Toleranz k als Teilstring mit höchstens
+ * k Tippfehlern (Einfügen, Löschen, Ersetzen eines Zeichens; Verfahren nach Sellers).
+ */
+public final class SubstringMatcher {
+
+    private SubstringMatcher() {
+    }
+
+    /**
+     * @param pattern Suchtext, normalisiert ({@link TextTokenizer#normalize})
+     * @param typos   erlaubte Tippfehler
+     * @return true, wenn Titel, Inhalt oder ein Tag passt
+     */
+    public static boolean matchesAny(String pattern, int typos, String title, String content, Collection<String> tags) {
+        if (matches(title, pattern, typos) || matches(content, pattern, typos)) {
+            return true;
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                if (matches(tag, pattern, typos)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true, wenn text einen Teilstring mit höchstens typos Abweichungen von pattern enthält
+     */
+    public static boolean matches(String text, String pattern, int typos) {
+        if (text == null) {
+            return false;
+        }
+        String lower = TextTokenizer.normalize(text);
+        if (typos <= 0) {
+            return lower.contains(pattern);
+        }
+        int m = pattern.length();
+        if (m <= typos) {
+            return true;
+        }
+        // cost[j]: kleinste Distanz von pattern[0..j) zu einem Teilstring, der an der aktuellen Position endet
+        int[] cost = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            cost[j] = j;
+        }
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            int diagonal = 0; // cost[0] der Vorspalte: Teilstring darf überall beginnen
+            for (int j = 1; j <= m; j++) {
+                int above = cost[j];
+                int substitute = diagonal + (pattern.charAt(j - 1) == c ? 0 : 1);
+                cost[j] = Math.min(substitute, Math.min(above + 1, cost[j - 1] + 1));
+                diagonal = above;
+            }
+            if (cost[m] <= typos) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
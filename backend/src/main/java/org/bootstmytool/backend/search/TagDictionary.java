@@ -0,0 +1,117 @@
+package org.bootstmytool.backend.search;
+
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Tag-Verzeichnis eines Benutzers für die Autovervollständigung: sortiertes Array der
+ * normalisierten Tags ({@link #key}) mit parallelen Arrays für Schreibweise und Nutzungszähler.
+ * Alle Tags mit einem Präfix liegen darin zusammenhängend; die Suche ist eine Binärsuche plus
+ * Durchlauf über die Treffer. Tags, die sich nur in Groß-/Kleinschreibung oder Leerzeichen
+ * unterscheiden, teilen sich einen Eintrag (Schreibweise der ersten Verwendung).
+ *
+ * Nicht threadsicher; der Zugriff wird von {@link NoteSearchIndex} synchronisiert.
+ */
+final class TagDictionary {
+
+    private String[] keys = new String[8];
+    private String[] labels = new String[8];
+    private int[] counts = new int[8];
+    private int size;
+
+    /**
+     * Normalisierte Form eines Tags: getrimmt, Leerraum zusammengefasst, klein geschrieben.
+     *
+     * @return der Schlüssel oder null für einen leeren Tag
+     */
+    static String key(String tag) {
+        if (tag == null || tag.isBlank()) {
+            return null;
+        }
+        return TextTokenizer.normalize(tag.trim().replaceAll("\\s+", " "));
+    }
+
+    /**
+     * Zählt eine Verwendung des Tags (eine Notiz).
+     */
+    void add(String key, String label) {
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos >= 0) {
+            counts[pos]++;
+            return;
+        }
+        int insert = -pos - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            labels = Arrays.copyOf(labels, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+        System.arraycopy(labels, insert, labels, insert + 1, size - insert);
+        System.arraycopy(counts, insert, counts, insert + 1, size - insert);
+        keys[insert] = key;
+        labels[insert] = label.trim().replaceAll("\\s+", " ");
+        counts[insert] = 1;
+        size++;
+    }
+
+    /**
+     * Nimmt eine Verwendung zurück; unbenutzte Tags verschwinden aus dem Verzeichnis.
+     */
+    void remove(String key) {
+        int pos = Arrays.binarySearch(keys, 0, size, key);
+        if (pos < 0) {
+            return;
+        }
+        if (--counts[pos] > 0) {
+            return;
+        }
+        System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+        System.arraycopy(labels, pos + 1, labels, pos, size - pos - 1);
+        System.arraycopy(counts, pos + 1, counts, pos, size - pos - 1);
+        size--;
+        keys[size] = null;
+        labels[size] = null;
+    }
+
+    /**
+     * Die meistgenutzten Tags, die mit prefix beginnen (bei Gleichstand alphabetisch).
+     *
+     * @param prefix normalisiertes Präfix ("" = alle Tags)
+     */
+    List<TagSuggestionDTO> suggest(String prefix, int limit) {
+        int from = Arrays.binarySearch(keys, 0, size, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < size && keys[to].startsWith(prefix)) {
+            to++;
+        }
+
+        Integer[] order = new Integer[to - from];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = from + i;
+        }
+        // Indizes sind alphabetisch → stabile Sortierung nach Zähler hält Gleichstände alphabetisch
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> counts[i]).reversed());
+
+        List<TagSuggestionDTO> result = new ArrayList<>(Math.min(limit, order.length));
+        for (int i = 0; i < order.length && i < limit; i++) {
+            result.add(new TagSuggestionDTO(labels[order[i]], counts[order[i]]));
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package org.bootstmytool.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Zerlegt Titel, Inhalt und Tags in Suchbegriffe: Folgen von Buchstaben und Ziffern,
+ * klein geschrieben (Umlaute bleiben erhalten). Alles andere trennt Begriffe.
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Liefert die Begriffe eines Textes in Reihenfolge (mit Wiederholungen).
+     */
+    public static List<String> tokenize(String text) {
+        int[] spans = spans(text);
+        List<String> tokens = new ArrayList<>(spans.length / 2);
+        for (int i = 0; i < spans.length; i += 2) {
+            tokens.add(normalize(text.substring(spans[i], spans[i + 1])));
+        }
+        return tokens;
+    }
+
+    /**
+     * Positionen der Begriffe im Text als Paare [Anfang, Ende) hintereinander.
+     */
+    public static int[] spans(String text) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] spans = new int[16];
+        int n = 0;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (n + 2 > spans.length) {
+                    spans = Arrays.copyOf(spans, spans.length * 2);
+                }
+                spans[n++] = start;
+                spans[n++] = i;
+                start = -1;
+            }
+        }
+        return Arrays.copyOf(spans, n);
+    }
+
+    /**
+     * Schreibweise eines Begriffs im Index.
+     */
+    public static String normalize(String token) {
+        return token.toLowerCase(Locale.ROOT);
+    }
+}
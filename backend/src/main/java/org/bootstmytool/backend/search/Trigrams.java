@@ -0,0 +1,51 @@
+package org.bootstmytool.backend.search;
+
+import java.util.Arrays;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Zerlegt Texte in Trigramme (je drei aufeinanderfolgende Zeichen, klein geschrieben, inklusive
+ * Leer- und Satzzeichen) für die Teilstringsuche. Ein Trigramm wird als int kodiert: Bestehen alle
+ * drei Zeichen aus den ersten 1024 Unicode-Zeichen (lateinische Schriften samt Umlauten), ist die
+ * Kodierung eindeutig; sonst wird gehasht. Kollisionen liefern höchstens zusätzliche Kandidaten,
+ * die bei der Prüfung des Textes herausfallen.
+ */
+public final class Trigrams {
+
+    private static final int HASHED = 0x4000_0000;
+
+    private Trigrams() {
+    }
+
+    /**
+     * Alle unterschiedlichen Trigramme der Felder, aufsteigend sortiert.
+     * Trigramme reichen nicht über Feldgrenzen hinweg; Felder unter drei Zeichen liefern keine.
+     */
+    public static int[] of(String... fields) {
+        int[] grams = new int[16];
+        int n = 0;
+        for (String field : fields) {
+            if (field == null || field.length() < 3) {
+                continue;
+            }
+            String text = TextTokenizer.normalize(field);
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                if (n == grams.length) {
+                    grams = Arrays.copyOf(grams, n * 2);
+                }
+                grams[n++] = encode(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+            }
+        }
+        return IntPostings.sortedDistinct(grams, n);
+    }
+
+    static int encode(char a, char b, char c) {
+        if (a < 1024 && b < 1024 && c < 1024) {
+            return a << 20 | b << 10 | c;
+        }
+        return HASHED | (((a * 31 + b) * 31 + c) & (HASHED - 1));
+    }
+}
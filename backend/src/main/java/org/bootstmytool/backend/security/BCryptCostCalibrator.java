@@ -0,0 +1,140 @@
+package org.bootstmytool.backend.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Bestimmt beim Start den BCrypt-Kostenfaktor, der auf der aktuellen Hardware die
+ * konfigurierte Ziel-Latenz einhält. Gemessen wird aufsteigend ab minCost; gewählt wird
+ * der höchste Faktor, dessen Hash-Dauer noch unter dem Ziel liegt (mindestens minCost).
+ *
+ * Der gewählte Faktor und die Messwerte erscheinen unter /actuator/metrics
+ * (auth.bcrypt.cost, auth.bcrypt.calibration.time).
+ */
+public class BCryptCostCalibrator implements MeterBinder {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private final Duration targetLatency;
+    private final int minCost;
+    private final int maxCost;
+
+    private final Map<Integer, Double> measuredMillis = new LinkedHashMap<>();
+    private int cost;
+
+    /**
+     * @param targetLatency gewünschte Dauer eines Hashes
+     * @param minCost       Untergrenze (Sicherheitsminimum)
+     * @param maxCost       Obergrenze
+     */
+    public BCryptCostCalibrator(Duration targetLatency, int minCost, int maxCost) {
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("Ungültiger BCrypt-Kostenbereich: " + minCost + ".." + maxCost);
+        }
+        this.targetLatency = targetLatency;
+        this.minCost = minCost;
+        this.maxCost = maxCost;
+        this.cost = minCost;
+    }
+
+    /**
+     * Setzt einen festen Kostenfaktor ohne Messung (z.B. für Tests oder homogene Hardware).
+     */
+    public static BCryptCostCalibrator fixed(int cost) {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(Duration.ZERO, cost, cost);
+        calibrator.cost = cost;
+        return calibrator;
+    }
+
+    /**
+     * Misst die Hash-Dauer je Kostenfaktor und wählt den passenden Faktor.
+     * Da jede Stufe die Dauer verdoppelt, wird abgebrochen, sobald das Ziel überschritten ist.
+     *
+     * @return der gewählte Kostenfaktor
+     */
+    public int calibrate() {
+        // Aufwärmen, damit JIT-Effekte nicht die erste Messung verfälschen
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(4));
+
+        double targetMillis = targetLatency.toNanos() / 1_000_000.0;
+        int chosen = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(candidate));
+            double millis = (System.nanoTime() - start) / 1_000_000.0;
+            measuredMillis.put(candidate, millis);
+
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        this.cost = chosen;
+        return chosen;
+    }
+
+    /**
+     * Der aktuell gewählte Kostenfaktor.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Gemessene Dauer (ms) je Kostenfaktor.
+     */
+    public Map<Integer, Double> getMeasuredMillis() {
+        return Collections.unmodifiableMap(measuredMillis);
+    }
+
+    /**
+     * Prüft, ob ein gespeicherter Hash mit einem anderen als dem aktuellen Kostenfaktor erzeugt wurde.
+     * Hashes, die kein BCrypt-Format haben, werden nicht angefasst.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int storedCost = costOf(encodedPassword);
+        return storedCost > 0 && storedCost != cost;
+    }
+
+    /**
+     * Liest den Kostenfaktor aus einem BCrypt-Hash ("$2a$10$..."), -1 wenn das Format nicht passt.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = encodedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > encodedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.bcrypt.cost", this, BCryptCostCalibrator::getCost)
+                .description("Gewählter BCrypt-Kostenfaktor")
+                .register(registry);
+        measuredMillis.forEach((candidate, millis) ->
+                Gauge.builder("auth.bcrypt.calibration.time", () -> millis)
+                        .description("Gemessene Hash-Dauer beim Start (ms)")
+                        .baseUnit("milliseconds")
+                        .tag("cost", String.valueOf(candidate))
+                        .register(registry));
+    }
+}
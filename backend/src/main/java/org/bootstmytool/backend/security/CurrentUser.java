@@ -0,0 +1,24 @@
+package org.bootstmytool.backend.security;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Der aktuell angemeldete Benutzer, wie ihn Controller-Methoden als Parameter erhalten.
+ * Enthält nur ID und E-Mail – keine JPA-Entität, keine (lazy) Notizen-Collection.
+ * Wird vom CurrentUserArgumentResolver aus dem bereits verifizierten JWT befüllt.
+ */
+@Getter
+public final class CurrentUser {
+
+    private final long id;       // ID des Benutzers
+    private final String email;  // E-Mail (Subject des Tokens)
+
+    public CurrentUser(long id, String email) {
+        this.id = id;
+        this.email = email;
+    }
+}
@@ -0,0 +1,40 @@
+package org.bootstmytool.backend.security;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Löst Controller-Parameter vom Typ {@link CurrentUser} auf.
+ * Die Daten stammen aus der JwtAuthentication, die der JwtAuthenticationFilter einmal pro Anfrage
+ * hinterlegt hat – es gibt weder erneutes Token-Parsing noch einen Datenbankzugriff.
+ * Ohne Authentifizierung wird einheitlich mit 401 geantwortet.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CurrentUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public CurrentUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                       NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthentication jwtAuthentication) {
+            JwtPrincipal principal = jwtAuthentication.getPrincipal();
+            return new CurrentUser(principal.getUserId(), principal.getSubject());
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Nicht authentifiziert");
+    }
+}
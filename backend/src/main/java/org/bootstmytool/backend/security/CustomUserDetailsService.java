@@ -1,7 +1,7 @@
 package org.bootstmytool.backend.security;
 
-import org.bootstmytool.backend.model.User;
-import org.bootstmytool.backend.repository.UserRepository;
+import org.bootstmytool.backend.dto.UserIdentity;
+import org.bootstmytool.backend.service.UserService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -22,15 +22,15 @@ import java.util.Collections;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
 
     /**
-     * Konstruktor für die Initialisierung des Service mit dem UserRepository.
+     * Konstruktor für die Initialisierung des Service mit dem UserService.
      *
-     * @param userRepository Das Repository, um Benutzerdaten aus der Datenbank zu holen
+     * @param userService Der Service, der die (gecachten) Benutzeridentitäten liefert
      */
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserService userService) {
+        this.userService = userService;
     }
 
     /**
@@ -43,11 +43,11 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        // Versucht, den Benutzer aus der Datenbank zu laden
-        User user = userRepository.findByEmail(email)
+        // Versucht, den Benutzer aus dem Identitäts-Cache bzw. der Datenbank zu laden
+        UserIdentity user = userService.findIdentityByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Benutzer mit dem Benutzernamen " + email + " nicht gefunden"));
 
 
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), Collections.emptyList());
+        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPasswordHash(), Collections.emptyList());
     }
 }
@@ -0,0 +1,34 @@
+package org.bootstmytool.backend.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.util.Collections;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Authentication-Objekt für bereits verifizierte JWTs.
+ * Trägt den JwtPrincipal (Subject, Ablauf, User-ID) im SecurityContext; Credentials werden nicht gehalten.
+ */
+public class JwtAuthentication extends AbstractAuthenticationToken {
+
+    private final JwtPrincipal principal;
+
+    public JwtAuthentication(JwtPrincipal principal) {
+        super(Collections.emptyList());
+        this.principal = principal;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public JwtPrincipal getPrincipal() {
+        return principal;
+    }
+}
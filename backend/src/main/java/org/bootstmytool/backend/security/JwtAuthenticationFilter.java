@@ -5,16 +5,19 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.bootstmytool.backend.dto.UserIdentity;
 import org.bootstmytool.backend.service.JwtService;
+import org.bootstmytool.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 
 /**
@@ -25,23 +28,25 @@ import java.io.IOException;
  * Filter, der jede Anfrage überprüft und sicherstellt, dass der Benutzer authentifiziert ist,
  * indem ein gültiger JWT-Token im Authorization-Header der Anfrage übermittelt wird.
  * Wird nur einmal pro Anfrage ausgeführt (OncePerRequestFilter).
+ * Der Token wird dabei genau einmal verifiziert; das Ergebnis liegt als JwtAuthentication
+ * im SecurityContext und steht Controllern über @AuthenticationPrincipal zur Verfügung.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtTokenUtil;
-    private final CustomUserDetailsService customUserDetailsService;
+    private final UserService userService;
 
     /**
      * Konstruktor für den JwtAuthenticationFilter.
      *
-     * @param jwtTokenUtil             Das Service-Objekt, das für die Verarbeitung von JWT-Tokens verantwortlich ist
-     * @param customUserDetailsService Das Service-Objekt für die Benutzerinformationen
+     * @param jwtTokenUtil Das Service-Objekt, das für die Verarbeitung von JWT-Tokens verantwortlich ist
+     * @param userService  Das Service-Objekt für die Benutzerinformationen
      */
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtTokenUtil, CustomUserDetailsService customUserDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtTokenUtil, UserService userService) {
         this.jwtTokenUtil = jwtTokenUtil;
-        this.customUserDetailsService = customUserDetailsService;
+        this.userService = userService;
     }
 
     /**
@@ -59,21 +64,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtTokenUtil.extractUsername(jwt);
-
-                // Ueberprueft, ob der Token abgelaufen ist
-                if (jwtTokenUtil.isTokenExpired(jwt)) {
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.getWriter().write("Token ist abgelaufen");
-                    return;
-                }
-
+                // Signatur und Ablauf werden hier ein einziges Mal geprueft
+                claims = jwtTokenUtil.parseToken(jwt);
+            } catch (ExpiredJwtException e) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("Token ist abgelaufen");
+                return;
             } catch (Exception e) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("Ungültiger Token");
@@ -81,15 +82,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.customUserDetailsService.loadUserByUsername(username);
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Identität kommt im Normalfall aus dem Cache des UserService (keine DB-Abfrage)
+            Optional<UserIdentity> user = userService.findIdentityByEmail(claims.getSubject());
 
-            if (jwtTokenUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+            if (user.isPresent()) {
+                JwtPrincipal principal = new JwtPrincipal(
+                        claims.getSubject(), claims.getExpiration(), user.get().getId());
+                JwtAuthentication authentication = new JwtAuthentication(principal);
 
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
 
@@ -0,0 +1,37 @@
+package org.bootstmytool.backend.security;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.Date;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Verifizierte Angaben aus einem JWT, die der JwtAuthenticationFilter genau einmal pro Anfrage
+ * ermittelt. Controller erhalten dieses Objekt über @AuthenticationPrincipal und müssen
+ * den Authorization-Header nicht erneut parsen.
+ */
+@Getter
+public final class JwtPrincipal implements AuthenticatedPrincipal {
+
+    private final String subject;  // Subject des Tokens (E-Mail des Benutzers)
+    private final Date expiresAt;  // Ablaufzeitpunkt des Tokens
+    private final long userId;     // ID des zugehörigen Benutzers
+
+    public JwtPrincipal(String subject, Date expiresAt, long userId) {
+        this.subject = subject;
+        this.expiresAt = expiresAt;
+        this.userId = userId;
+    }
+
+    /**
+     * Liefert das Subject, damit Authentication#getName() weiterhin die E-Mail zurückgibt.
+     */
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
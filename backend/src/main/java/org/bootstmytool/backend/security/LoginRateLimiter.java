@@ -0,0 +1,153 @@
+package org.bootstmytool.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * In-Memory-Ratenbegrenzung (Token-Bucket) für die öffentlichen Auth-Endpunkte.
+ * Es gibt je einen Bucket pro Client-IP und pro E-Mail. Jeder Bucket synchronisiert nur auf sich
+ * selbst, sodass sich verschiedene Schlüssel nicht gegenseitig blockieren. Ungenutzte Buckets
+ * verfallen automatisch, die Gesamtzahl ist nach oben begrenzt.
+ *
+ * Abgewiesene Versuche berühren weder die Datenbank noch den Passwort-Encoder.
+ */
+@Component
+public class LoginRateLimiter implements MeterBinder {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Ticker ticker;
+
+    private final int ipCapacity;
+    private final double ipTokensPerNano;
+    private final int emailCapacity;
+    private final double emailTokensPerNano;
+
+    private Counter rejectedByIp;
+    private Counter rejectedByEmail;
+
+    /**
+     * @param ipCapacity       maximale Anzahl Versuche pro IP am Stück
+     * @param ipRefillPeriod   Zeit, in der sich ein IP-Bucket vollständig auffüllt
+     * @param emailCapacity    maximale Anzahl Versuche pro E-Mail am Stück
+     * @param emailRefillPeriod Zeit, in der sich ein E-Mail-Bucket vollständig auffüllt
+     * @param maxBuckets       Obergrenze der gleichzeitig gehaltenen Buckets
+     */
+    @Autowired
+    public LoginRateLimiter(@Value("${auth.ratelimit.ip.capacity:20}") int ipCapacity,
+                            @Value("${auth.ratelimit.ip.refill-period:PT1M}") Duration ipRefillPeriod,
+                            @Value("${auth.ratelimit.email.capacity:5}") int emailCapacity,
+                            @Value("${auth.ratelimit.email.refill-period:PT1M}") Duration emailRefillPeriod,
+                            @Value("${auth.ratelimit.max-buckets:100000}") long maxBuckets) {
+        this(ipCapacity, ipRefillPeriod, emailCapacity, emailRefillPeriod, maxBuckets, Ticker.systemTicker());
+    }
+
+    LoginRateLimiter(int ipCapacity, Duration ipRefillPeriod,
+                     int emailCapacity, Duration emailRefillPeriod,
+                     long maxBuckets, Ticker ticker) {
+        this.ticker = ticker;
+        this.ipCapacity = ipCapacity;
+        this.ipTokensPerNano = (double) ipCapacity / ipRefillPeriod.toNanos();
+        this.emailCapacity = emailCapacity;
+        this.emailTokensPerNano = (double) emailCapacity / emailRefillPeriod.toNanos();
+
+        // Ein Bucket ist nach einer vollen Auffüllperiode ohne Zugriff wieder voll und kann entfallen
+        Duration idleTimeout = ipRefillPeriod.compareTo(emailRefillPeriod) > 0 ? ipRefillPeriod : emailRefillPeriod;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Versucht, für IP und (optional) E-Mail je einen Token zu verbrauchen.
+     *
+     * @param clientIp Adresse des Clients
+     * @param email    E-Mail aus der Anfrage oder null
+     * @return 0, wenn der Versuch erlaubt ist, sonst die Wartezeit in Sekunden (für Retry-After)
+     */
+    public long tryAcquire(String clientIp, String email) {
+        long now = ticker.read();
+
+        long waitNanos = bucket("ip:" + clientIp, ipCapacity, ipTokensPerNano).tryConsume(now);
+        if (waitNanos > 0) {
+            if (rejectedByIp != null) rejectedByIp.increment();
+            return toRetryAfterSeconds(waitNanos);
+        }
+
+        if (email != null && !email.isBlank()) {
+            String key = "email:" + email.trim().toLowerCase(Locale.ROOT);
+            waitNanos = bucket(key, emailCapacity, emailTokensPerNano).tryConsume(now);
+            if (waitNanos > 0) {
+                if (rejectedByEmail != null) rejectedByEmail.increment();
+                return toRetryAfterSeconds(waitNanos);
+            }
+        }
+        return 0;
+    }
+
+    private TokenBucket bucket(String key, int capacity, double tokensPerNano) {
+        return buckets.get(key, k -> new TokenBucket(capacity, tokensPerNano, ticker.read()));
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rejectedByIp = Counter.builder("auth.ratelimit.rejected").tag("scope", "ip").register(registry);
+        rejectedByEmail = Counter.builder("auth.ratelimit.rejected").tag("scope", "email").register(registry);
+        Gauge.builder("auth.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Aktuell gehaltene Rate-Limit-Buckets")
+                .register(registry);
+    }
+
+    /**
+     * Einfacher Token-Bucket; jeder Bucket ist sein eigener Lock.
+     */
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, double tokensPerNano, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerNano;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * @return 0 bei Erfolg, sonst Nanosekunden bis zum nächsten verfügbaren Token
+         */
+        private synchronized long tryConsume(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+                lastRefill = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
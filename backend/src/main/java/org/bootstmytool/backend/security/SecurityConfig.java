@@ -21,17 +21,19 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 /**
  * @Author Mohamed Elslakawy
- * @Version 1.0
+ * @Version 1.1
  * @Date: 2025-09-24
  *
  * Sicherheitskonfiguration:
  * - JWT-basierte Authentifizierung (stateless)
  * - CORS/CSRF Einstellungen
  * - Zugriffregeln pro Endpoint/HTTP-Methode
+ * - BCrypt mit beim Start kalibriertem Kostenfaktor
  */
 @Configuration
 @EnableWebSecurity
@@ -55,10 +57,28 @@ public class SecurityConfig {
         this.jwtSecret = JwtSecretGenerator.getSecretKey();
     }
 
-    /** Passwort-Encoder (BCrypt) */
+    /**
+     * Kalibriert den BCrypt-Kostenfaktor auf die Ziel-Latenz dieses Knotens.
+     * Mit security.bcrypt.cost > 0 wird stattdessen ein fester Faktor verwendet.
+     */
+    @Bean
+    public BCryptCostCalibrator bcryptCostCalibrator(
+            @Value("${security.bcrypt.cost:0}") int fixedCost,
+            @Value("${security.bcrypt.target-latency:PT0.25S}") Duration targetLatency,
+            @Value("${security.bcrypt.min-cost:10}") int minCost,
+            @Value("${security.bcrypt.max-cost:14}") int maxCost) {
+        if (fixedCost > 0) {
+            return BCryptCostCalibrator.fixed(fixedCost);
+        }
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(targetLatency, minCost, maxCost);
+        calibrator.calibrate();
+        return calibrator;
+    }
+
+    /** Passwort-Encoder (BCrypt) mit dem kalibrierten Kostenfaktor */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BCryptCostCalibrator bcryptCostCalibrator) {
+        return new BCryptPasswordEncoder(bcryptCostCalibrator.getCost());
     }
 
     /** AuthenticationManager für Login/Authentifizierung */
@@ -73,10 +93,12 @@ public class SecurityConfig {
      * - CORS an
      * - Pfadregeln:
      *   * /api/auth/**: öffentlich (Login/Registrierung/Reset)
+     *   * /actuator/health: öffentlich (ohne Details), übrige Actuator-Endpunkte geschützt
      *   * /share/** (GET): öffentlich (Weiterleitungsseite/Resolver ohne Auth-Header)
      *   * /api/share/**: geschützt (Erstellen/Verwalten von Share-Links)
      *   * /image/**:
-     *       GET  -> permitAll (damit <img> ohne Authorization geladen werden kann)
+     *       GET  -> permitAll (damit <img> ohne Authorization geladen werden kann),
+     *               außer /image/uploads/** (Stand eines eigenen Uploads)
      *       POST/PUT/DELETE -> authenticated (Upload/Änderung/Löschen nur mit Token)
      *   * sonst: authenticated
      */
@@ -96,8 +118,10 @@ public class SecurityConfig {
                         // Auth-Endpoints (Login/Register/Verify/Reset) sind öffentlich
                         .requestMatchers("/api/auth/**").permitAll()
 
-                        // Actuator (falls benötigt)
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Actuator: nur der Gesundheitsstatus ist öffentlich (Details nur mit Auth),
+                        // Metriken u.a. verraten Interna und erfordern ein Token
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").authenticated()
 
                         // Share-Resolver per GET (z.B. /share/{token}) ist öffentlich
                         .requestMatchers(HttpMethod.GET, "/share/**").permitAll()
@@ -105,7 +129,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/share/**").authenticated()
 
                         //  Bild-Endpunkte:
-                        //  GET → öffentlich (img-Tags senden keinen Authorization-Header)
+                        //  GET → öffentlich (img-Tags senden keinen Authorization-Header),
+                        //  der Stand eines Uploads in Teilstücken nur für den Besitzer
+                        .requestMatchers(HttpMethod.GET, "/image/uploads/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/image/**").permitAll()
                         //    POST/PUT/DELETE → nur authentifiziert
                         .requestMatchers(HttpMethod.POST,   "/image/**").authenticated()
@@ -1,9 +1,12 @@
 package org.bootstmytool.backend.security;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * @Author: Mohamed Elslakawy
  * @Version: 1.0
@@ -12,7 +15,8 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * Konfigurationsklasse für die Webanwendung.
  *
  * Diese Klasse konfiguriert die Ressourcen-Handler für die Anwendung.
- * Sie definiert, wie Ressourcen wie Bilder oder CSS-Dateien geladen werden.
+ * Sie definiert, wie Ressourcen wie Bilder oder CSS-Dateien geladen werden,
+ * und registriert den Resolver für CurrentUser-Parameter in Controllern.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -26,5 +30,11 @@ public class WebConfig implements WebMvcConfigurer {
 
     }
 
+    // stellt den angemeldeten Benutzer (CurrentUser) als Controller-Parameter bereit
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+
 
 }
@@ -1,8 +1,8 @@
 package org.bootstmytool.backend.service;
 
+import org.bootstmytool.backend.dto.UserIdentity;
 import org.bootstmytool.backend.model.User;
 import org.bootstmytool.backend.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -18,46 +18,73 @@ import java.util.Optional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserService userService;
 
     /**
      * Konstruktor zur Initialisierung des AuthService mit den erforderlichen Abhängigkeiten.
      *
      * @param userRepository  Repository zum Interagieren mit den Benutzerdaten.
-     * @param passwordEncoder Encoder zum sicheren Hashen von Passwörtern.
+     * @param passwordHashingService Hashen von Passwörtern auf einem eigenen, begrenzten Thread-Pool.
+     * @param userService     Service mit dem Cache der Benutzeridentitäten.
      */
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService, UserService userService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userService = userService;
     }
 
     /**
      * Authentifiziert einen Benutzer, indem die angegebenen Anmeldeinformationen mit der Datenbank verglichen werden.
+     * Nach erfolgreicher Anmeldung wird ein Hash mit veraltetem Kostenfaktor transparent neu erstellt.
      *
      * @param username der Benutzername des Benutzers, der sich anmelden möchte.
      * @param password das Passwort des Benutzers, der sich anmelden möchte.
      * @return true, wenn die Anmeldeinformationen korrekt sind, andernfalls false.
+     * @throws PasswordHashingService.BusyException wenn der Hash-Pool ausgelastet ist.
      */
     public boolean authenticate(String username, String password) {
 
-        // Benutzer aus der Datenbank basierend auf dem Benutzernamen abrufen
-        User user = userRepository.findByEmail(username).orElse(null);
+        // Benutzer (ID, E-Mail, Hash) aus dem Identitäts-Cache bzw. der Datenbank abrufen
+        UserIdentity user = userService.findIdentityByEmail(username).orElse(null);
 
         if (user != null) {
             // Überprüfen, ob das angegebene Passwort mit dem gespeicherten gehashten Passwort übereinstimmt
-            return passwordEncoder.matches(password, user.getPassword());
+            boolean matches = passwordHashingService.matches(password, user.getPasswordHash());
+            if (matches && passwordHashingService.needsRehash(user.getPasswordHash())) {
+                rehashPassword(username, password);
+            }
+            return matches;
         }
 
         // Gibt false zurück, wenn der Benutzer nicht existiert oder das Passwort nicht übereinstimmt
         return false;
     }
 
+    /**
+     * Speichert das Passwort mit dem aktuellen Kostenfaktor neu (Up- oder Downgrade).
+     * Ist der Hash-Pool ausgelastet, wird der Rehash auf den nächsten Login verschoben.
+     */
+    private void rehashPassword(String username, String password) {
+        try {
+            String newHash = passwordHashingService.encode(password);
+            userRepository.findByEmail(username).ifPresent(user -> {
+                user.setPassword(newHash);
+                userRepository.save(user);
+                userService.evictIdentity(username);
+            });
+        } catch (PasswordHashingService.BusyException e) {
+            // Login trotzdem erfolgreich; der Rehash folgt beim nächsten Mal
+        }
+    }
+
     /**
      * Registriert einen neuen Benutzer, indem dessen Anmeldeinformationen in der Datenbank gespeichert werden.
      *
      * @param username der Benutzername des neuen Benutzers.
      * @param password das Passwort des neuen Benutzers.
      * @return true, wenn der Benutzer erfolgreich registriert wurde, andernfalls false.
+     * @throws PasswordHashingService.BusyException wenn der Hash-Pool ausgelastet ist.
      */
     public boolean registerUser(String username, String password) {
 
@@ -70,13 +97,14 @@ public class AuthService {
         // Erstellen eines neuen User-Objekts mit dem angegebenen Benutzernamen und dem gehashten Passwort
         User newUser = new User();
         newUser.setEmail(username);
-        newUser.setPassword(passwordEncoder.encode(password));  // Passwort vor dem Speichern hashen
+        newUser.setPassword(passwordHashingService.encode(password));  // Passwort vor dem Speichern hashen
 
         // Versuchen, den neuen Benutzer in der Datenbank zu speichern
         try {
             int nameLength = newUser.getEmail().split("@")[0].length(); // Länge des Namens berechnen
             newUser.setNameLength(nameLength);
             userRepository.save(newUser);
+            userService.evictIdentity(username); // evtl. veralteten Cache-Eintrag verwerfen
             return true; // Registrierung war erfolgreich
         } catch (Exception e) {
             // Ausnahme protokollieren und false zurückgeben, wenn ein Fehler auftritt
@@ -0,0 +1,292 @@
+package org.bootstmytool.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import lombok.Getter;
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.utils.ProcessImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Fortsetzbarer Upload großer Bilder in Teilstücken:
+ * 1. initiate: legt eine Sitzung mit angekündigter Gesamtgröße und einer leeren Temp-Datei an,
+ * 2. append: schreibt ein Teilstück per FileChannel direkt an seinen Offset in die Temp-Datei,
+ * 3. commit: übernimmt die vollständige Datei inhaltsadressiert in den Bildspeicher und legt
+ *    die Image-Zeile zur Notiz an.
+ *
+ * Bricht die Verbindung mitten in einem Teilstück ab, zählen die bereits geschriebenen Bytes –
+ * der Client fragt den Offset ab und setzt dort fort, statt die ganze Datei erneut zu senden.
+ * Pro Anfrage wird nur ein kleiner Kopierpuffer belegt, unabhängig von Teilstück- und Dateigröße.
+ *
+ * Sitzungen liegen im Speicher und verfallen nach image.upload.chunked.session-ttl ohne Zugriff;
+ * dabei wird die Temp-Datei gelöscht. Nach einem Neustart sind offene Sitzungen verloren.
+ * Die Anzahl offener Sitzungen ist pro Benutzer und insgesamt begrenzt; eine neue Sitzung über
+ * dem Limit wird abgewiesen, statt die Sitzung eines anderen Benutzers zu verdrängen.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private final ImageStorage imageStorage;
+    private final ImageRepository imageRepository;
+    private final ImageVariantService imageVariantService;
+    private final long maxSize;
+    private final long maxSessions;
+    private final int maxSessionsPerUser;
+
+    /** Offene Sitzungen: uploadId → Sitzung */
+    private final Cache<String, UploadSession> sessions;
+
+    /** Anzahl offener Sitzungen pro Benutzer (Einträge ohne Sitzung werden entfernt) */
+    private final ConcurrentHashMap<Long, Integer> openSessionsPerUser = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize            maximale Gesamtgröße einer Datei
+     * @param sessionTtl         Lebensdauer einer Sitzung ohne Zugriff
+     * @param maxSessions        maximale Anzahl gleichzeitig offener Sitzungen insgesamt
+     * @param maxSessionsPerUser maximale Anzahl gleichzeitig offener Sitzungen eines Benutzers
+     */
+    @Autowired
+    public ChunkedUploadService(ImageStorage imageStorage, ImageRepository imageRepository,
+                                ImageVariantService imageVariantService,
+                                @Value("${image.upload.chunked.max-size:100MB}") DataSize maxSize,
+                                @Value("${image.upload.chunked.session-ttl:PT24H}") Duration sessionTtl,
+                                @Value("${image.upload.chunked.max-sessions:1000}") long maxSessions,
+                                @Value("${image.upload.chunked.max-sessions-per-user:5}") int maxSessionsPerUser) {
+        this.imageStorage = imageStorage;
+        this.imageRepository = imageRepository;
+        this.imageVariantService = imageVariantService;
+        this.maxSize = maxSize.toBytes();
+        this.maxSessions = maxSessions;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(sessionTtl)
+                .scheduler(Scheduler.systemScheduler())
+                // im aufrufenden Thread, damit der Zähler nach commit/abort sofort stimmt
+                .executor(Runnable::run)
+                // abgelaufen oder beendet → Temp-Datei entfernen (nach commit ist sie schon weg)
+                .<String, UploadSession>removalListener((id, session, cause) -> {
+                    if (session != null) {
+                        session.deleteTempFile();
+                        release(session.getUserId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Legt eine neue Upload-Sitzung an.
+     *
+     * @param noteId   Notiz, zu der das Bild gehören wird
+     * @param userId   Benutzer, dem die Sitzung gehört
+     * @param fileName ursprünglicher Dateiname
+     * @param size     angekündigte Gesamtgröße in Bytes
+     * @throws IllegalArgumentException wenn die Größe ungültig ist oder das Limit überschreitet
+     * @throws TooManySessionsException  wenn der Benutzer oder der Server keine weitere Sitzung öffnen darf
+     */
+    public UploadSession initiate(int noteId, long userId, String fileName, long size) throws IOException {
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("Ungültige Dateigröße: " + size + " (maximal " + maxSize + " Bytes)");
+        }
+        if (sessions.estimatedSize() >= maxSessions) {
+            throw new TooManySessionsException("Zu viele offene Uploads, bitte später erneut versuchen");
+        }
+        openSessionsPerUser.compute(userId, (id, open) -> {
+            int count = open != null ? open : 0;
+            if (count >= maxSessionsPerUser) {
+                throw new TooManySessionsException("Maximal " + maxSessionsPerUser
+                        + " offene Uploads – bitte zuerst abschließen oder abbrechen");
+            }
+            return count + 1;
+        });
+
+        Path tempFile;
+        try {
+            tempFile = imageStorage.createTempFile();
+        } catch (IOException | RuntimeException e) {
+            release(userId);
+            throw e;
+        }
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), noteId, userId, fileName, size, tempFile);
+        sessions.put(session.getUploadId(), session);
+        return session;
+    }
+
+    /**
+     * Gibt einen Platz im Sitzungslimit des Benutzers wieder frei.
+     */
+    private void release(long userId) {
+        openSessionsPerUser.computeIfPresent(userId, (id, open) -> open > 1 ? open - 1 : null);
+    }
+
+    /**
+     * Liefert eine offene Sitzung des Benutzers (fremde Sitzungen gelten als nicht vorhanden).
+     */
+    public Optional<UploadSession> find(String uploadId, long userId) {
+        UploadSession session = uploadId != null ? sessions.getIfPresent(uploadId) : null;
+        return session != null && session.getUserId() == userId ? Optional.of(session) : Optional.empty();
+    }
+
+    /**
+     * Schreibt ein Teilstück ab dem angegebenen Offset in die Temp-Datei.
+     * Der Offset darf höchstens dem bisher empfangenen Stand entsprechen; ein kleinerer Offset
+     * überschreibt (Wiederholung eines Teilstücks). Bricht der Body ab, bleibt alles bis dahin
+     * Geschriebene erhalten.
+     *
+     * @param body der Request-Body (wird nur gestreamt)
+     * @return der neue Offset (empfangene Bytes)
+     * @throws OffsetConflictException wenn der Offset hinter dem empfangenen Stand liegt
+     * @throws UploadTooLargeException wenn das Teilstück über die angekündigte Größe hinausgeht
+     */
+    public long append(UploadSession session, long offset, InputStream body) throws IOException {
+        synchronized (session) {
+            if (offset < 0 || offset > session.received) {
+                throw new OffsetConflictException(session.received);
+            }
+            long position = offset;
+            try (FileChannel channel = FileChannel.open(session.tempFile, StandardOpenOption.WRITE)) {
+                ReadableByteChannel in = Channels.newChannel(body);
+                try {
+                    long transferred;
+                    while (position < session.size
+                            && (transferred = channel.transferFrom(in, position, session.size - position)) > 0) {
+                        position += transferred;
+                    }
+                    if (position == session.size && body.read() != -1) {
+                        position = offset; // Teilstück verwerfen
+                        throw new UploadTooLargeException(session.size);
+                    }
+                } finally {
+                    // Auch bei abgebrochenem Body gilt: Datei = empfangene Bytes
+                    channel.truncate(position);
+                    session.received = position;
+                }
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Schließt den Upload ab: übernimmt die Datei in den Bildspeicher und legt die Image-Zeile an.
+     *
+     * @param note die Notiz der Sitzung
+     * @return das gespeicherte Bild
+     * @throws OffsetConflictException wenn noch nicht alle Bytes empfangen wurden
+     * @throws ProcessImage.UnsupportedImageTypeException wenn die Datei kein unterstütztes Bildformat ist
+     */
+    public Image commit(UploadSession session, Note note) throws IOException {
+        Image image;
+        synchronized (session) {
+            if (session.received != session.size) {
+                throw new OffsetConflictException(session.received);
+            }
+            try {
+                image = ProcessImage.storeFile(session.tempFile, imageStorage);
+            } finally {
+                // Die Temp-Datei ist übernommen oder verworfen – die Sitzung ist in jedem Fall beendet
+                sessions.invalidate(session.getUploadId());
+            }
+        }
+        image.setNote(note);
+        imageRepository.save(image);
+
+        // Vorschaubilder im Hintergrund erzeugen
+        imageVariantService.enqueue(image.getUrl());
+        return image;
+    }
+
+    /**
+     * Bricht eine Sitzung ab und löscht die Temp-Datei.
+     */
+    public void abort(UploadSession session) {
+        sessions.invalidate(session.getUploadId());
+    }
+
+    /**
+     * Eine offene Upload-Sitzung.
+     */
+    @Getter
+    public static final class UploadSession {
+        private final String uploadId;
+        private final int noteId;
+        private final long userId;
+        private final String fileName;
+        /** angekündigte Gesamtgröße */
+        private final long size;
+        private final Path tempFile;
+        /** bisher empfangene Bytes (= Länge der Temp-Datei) */
+        private volatile long received;
+
+        UploadSession(String uploadId, int noteId, long userId, String fileName, long size, Path tempFile) {
+            this.uploadId = uploadId;
+            this.noteId = noteId;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.size = size;
+            this.tempFile = tempFile;
+        }
+
+        private void deleteTempFile() {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                // bleibt als .upload-*.tmp liegen
+            }
+        }
+    }
+
+    /**
+     * Der angegebene Offset passt nicht zum Stand der Sitzung.
+     */
+    @Getter
+    public static class OffsetConflictException extends RuntimeException {
+        /** bisher empfangene Bytes – hier setzt der Client fort */
+        private final long received;
+
+        public OffsetConflictException(long received) {
+            super("Erwarteter Offset: " + received);
+            this.received = received;
+        }
+    }
+
+    /**
+     * Das Limit offener Sitzungen (pro Benutzer oder insgesamt) ist erreicht.
+     */
+    public static class TooManySessionsException extends RuntimeException {
+        public TooManySessionsException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Ein Teilstück geht über die angekündigte Gesamtgröße hinaus.
+     */
+    public static class UploadTooLargeException extends RuntimeException {
+        public UploadTooLargeException(long size) {
+            super("Teilstück überschreitet die angekündigte Größe von " + size + " Bytes");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.bootstmytool.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Hält kleine, häufig abgerufene Bilder (z.B. gemeinsam genutzte Hintergründe) im Speicher,
+ * damit /image/{name} für sie nicht bei jeder Anfrage das Dateisystem berührt.
+ *
+ * Der Cache ist nach Bytes begrenzt (image.cache.max-bytes); Dateien über image.cache.max-entry-bytes
+ * werden nie aufgenommen. Caffeine entscheidet per W-TinyLFU anhand der Zugriffshäufigkeit, ob ein
+ * neuer Eintrag einen vorhandenen verdrängen darf – einmalig abgerufene Bilder verdrängen also
+ * keine Dauerbrenner. Schlüssel ist Darstellung + Dateiname ("original/abc.png", "thumb/abc.png").
+ *
+ * Vorgeschaltet ist ein Türsteher (doorkeeper): Beim ersten Fehlschlag wird nur der Schlüssel
+ * vermerkt und die Datei direkt vom Bildspeicher (sendfile) ausgeliefert. Erst ab der zweiten
+ * Anfrage wird sie in ein byte[] gelesen und dem Cache angeboten. Einmalige Abrufe kosten so
+ * weder Heap noch eine zusätzliche Kopie.
+ *
+ * Metriken: cache=images.hot unter /actuator/metrics sowie image.cache.hit.ratio und
+ * image.cache.resident.bytes.
+ */
+@Service
+public class HotImageCache implements MeterBinder {
+
+    /** Zuschlag pro Eintrag für Schlüssel und Objekt-Header */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /** Darstellung für das Originalbild (Varianten verwenden ihren Verzeichnisnamen) */
+    public static final String ORIGINAL = "original";
+
+    /** Anzahl der Schlüssel, die sich der Türsteher merkt (nur Schlüssel, keine Inhalte) */
+    static final int DOORKEEPER_SIZE = 10_000;
+
+    private final long maxEntryBytes;
+
+    /** Cache: Darstellung/Dateiname → Inhalt (null, wenn deaktiviert) */
+    private final Cache<String, CachedImage> cache;
+
+    /** Schlüssel, die einmal verfehlt und noch nicht aufgenommen wurden (null, wenn deaktiviert) */
+    private final Cache<String, Boolean> doorkeeper;
+
+    public HotImageCache(@Value("${image.cache.enabled:false}") boolean enabled,
+                         @Value("${image.cache.max-bytes:64MB}") DataSize maxBytes,
+                         @Value("${image.cache.max-entry-bytes:512KB}") DataSize maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes.toBytes();
+        this.cache = enabled
+                ? Caffeine.newBuilder()
+                    .maximumWeight(maxBytes.toBytes())
+                    .<String, CachedImage>weigher((key, image) -> image.getData().length + ENTRY_OVERHEAD)
+                    .recordStats()
+                    .build()
+                : null;
+        this.doorkeeper = enabled
+                ? Caffeine.newBuilder().maximumSize(DOORKEEPER_SIZE).<String, Boolean>build()
+                : null;
+    }
+
+    /**
+     * Registriert die Cache-Metriken bei Actuator/Micrometer (nur wenn der Cache aktiv ist).
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, cache, "images.hot");
+        Gauge.builder("image.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Anteil der aus dem Speicher beantworteten Bildanfragen")
+                .register(registry);
+        Gauge.builder("image.cache.resident.bytes", this, HotImageCache::residentBytes)
+                .description("Aktuell im Speicher gehaltene Bildbytes")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * @return true, wenn der Cache eingeschaltet ist
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Liefert ein bereits gecachtes Bild, ohne das Dateisystem zu berühren.
+     *
+     * @param representation {@link #ORIGINAL} oder der Verzeichnisname einer Variante
+     * @param name           Dateiname des Bildes
+     * @return der Eintrag oder null bei einem Fehlschlag bzw. deaktiviertem Cache
+     */
+    public CachedImage getIfPresent(String representation, String name) {
+        return cache == null ? null : cache.getIfPresent(key(representation, name));
+    }
+
+    /**
+     * Liest den Eintrag ein und bietet ihn dem Cache an, sofern er klein genug ist und schon
+     * einmal angefragt wurde. Ob er dauerhaft bleibt, entscheidet die Häufigkeitsstatistik des Caches.
+     *
+     * @param stored der Eintrag im Bildspeicher (Original oder Variante)
+     * @return der Cache-Eintrag oder null, wenn die Datei (noch) nicht gecacht wird – dann liefert
+     * der Aufrufer sie direkt aus dem Bildspeicher aus
+     */
+    public CachedImage load(String representation, String name, ImageStorage storage, StoredImage stored)
+            throws IOException {
+        if (cache == null || stored.getSize() > maxEntryBytes) {
+            return null;
+        }
+        String key = key(representation, name);
+        // Erster Fehlschlag: nur vormerken
+        if (doorkeeper.asMap().putIfAbsent(key, Boolean.TRUE) == null) {
+            return null;
+        }
+        doorkeeper.invalidate(key);
+        byte[] data;
+        try (InputStream in = storage.open(stored.getKey())) {
+            data = in.readAllBytes();
+        }
+        CachedImage image = new CachedImage(data, stored.getLastModified());
+        cache.put(key, image);
+        return image;
+    }
+
+    /**
+     * Entfernt das Original und alle Varianten eines Bildes aus dem Cache.
+     *
+     * @param name Dateiname des Bildes
+     */
+    public void invalidate(String name) {
+        if (cache == null || name == null) {
+            return;
+        }
+        cache.invalidate(key(ORIGINAL, name));
+        doorkeeper.invalidate(key(ORIGINAL, name));
+        for (ImageVariant variant : ImageVariant.values()) {
+            cache.invalidate(key(variant.directoryName(), name));
+            doorkeeper.invalidate(key(variant.directoryName(), name));
+        }
+    }
+
+    /**
+     * @return aktuell belegte Bytes (inklusive Verwaltungszuschlag), 0 bei deaktiviertem Cache
+     */
+    public long residentBytes() {
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp(); // ausstehende Gewichtsänderungen (asynchron verarbeitet) einrechnen
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static String key(String representation, String name) {
+        return representation + "/" + name;
+    }
+
+    /**
+     * Inhalt und Änderungszeitpunkt eines gecachten Bildes.
+     */
+    @Getter
+    public static final class CachedImage {
+        private final byte[] data;
+        private final long lastModified;
+
+        public CachedImage(byte[] data, long lastModified) {
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+    }
+}
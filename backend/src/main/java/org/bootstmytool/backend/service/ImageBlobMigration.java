@@ -0,0 +1,174 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.utils.ImageMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Einmalige Migration beim Start: Bilder wurden früher zusätzlich als Blob (Spalte image.data)
+ * gespeichert. Für jede Zeile mit Blob wird die Datei – falls sie im Bildspeicher fehlt –
+ * aus dem Blob wiederhergestellt, die Metadaten werden ergänzt und der Blob wird geleert.
+ * Zeilen ohne Metadaten (checksum IS NULL) werden aus der vorhandenen Datei nachgetragen.
+ *
+ * Der Blob wird zeilenweise gestreamt, nie komplett in den Speicher geladen. Existiert die
+ * Spalte nicht (neue Installation), werden nur fehlende Metadaten ergänzt.
+ */
+@Component
+public class ImageBlobMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageBlobMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStorage imageStorage;
+
+    @Value("${image.migration.enabled:true}")
+    private boolean enabled = true;
+
+    @Autowired
+    public ImageBlobMigration(JdbcTemplate jdbcTemplate, ImageStorage imageStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStorage = imageStorage;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    /**
+     * Führt die Migration aus.
+     *
+     * @return Anzahl der migrierten Zeilen.
+     */
+    public int migrate() {
+        boolean hasBlobColumn = blobColumnExists();
+        List<Integer> ids = jdbcTemplate.queryForList(hasBlobColumn
+                ? "SELECT id FROM image WHERE data IS NOT NULL OR checksum IS NULL"
+                : "SELECT id FROM image WHERE checksum IS NULL", Integer.class);
+
+        int migrated = 0;
+        for (Integer id : ids) {
+            try {
+                if (migrateRow(id, hasBlobColumn)) {
+                    migrated++;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Bild {} konnte nicht migriert werden: {}", id, e.getMessage());
+            }
+        }
+        if (migrated > 0) {
+            log.info("{} Bilder migriert (Blob → Dateisystem/Metadaten)", migrated);
+        }
+        return migrated;
+    }
+
+    private boolean migrateRow(int id, boolean hasBlobColumn) throws IOException {
+        String url = jdbcTemplate.queryForObject("SELECT url FROM image WHERE id = ?", String.class, id);
+        if (url == null || url.isBlank()) {
+            url = "migrated_" + id;
+            jdbcTemplate.update("UPDATE image SET url = ? WHERE id = ?", url, id);
+        }
+
+        if (!ImageStorage.isValidName(url)) {
+            throw new IOException("Ungültiger Dateiname: " + url);
+        }
+        if (imageStorage.stat(url).isEmpty()) {
+            if (!hasBlobColumn || !restoreFromBlob(id, url)) {
+                log.warn("Bild {}: Datei {} fehlt und es gibt keinen Blob", id, url);
+                return false;
+            }
+        }
+
+        Image metadata = readMetadata(url);
+        jdbcTemplate.update(
+                "UPDATE image SET size_bytes = ?, content_type = ?, checksum = ?, width = ?, height = ? WHERE id = ?",
+                metadata.getSize(), metadata.getContentType(), metadata.getChecksum(),
+                metadata.getWidth(), metadata.getHeight(), id);
+        if (hasBlobColumn) {
+            jdbcTemplate.update("UPDATE image SET data = NULL WHERE id = ?", id);
+        }
+        return true;
+    }
+
+    /**
+     * Streamt den Blob in eine temporäre Datei und übergibt sie danach dem Bildspeicher.
+     */
+    private boolean restoreFromBlob(int id, String url) throws IOException {
+        Path tmp = imageStorage.createTempFile();
+        try {
+            Boolean written = jdbcTemplate.query("SELECT data FROM image WHERE id = ?", rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try (InputStream in = rs.getBinaryStream(1)) {
+                    if (in == null) {
+                        return false;
+                    }
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    return true;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, id);
+            if (!Boolean.TRUE.equals(written)) {
+                return false;
+            }
+            imageStorage.put(url, tmp);
+            return true;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Liest die Metadaten aus der gespeicherten Datei; liegt sie nicht lokal, über eine temporäre Kopie.
+     */
+    private Image readMetadata(String url) throws IOException {
+        Image metadata = new Image();
+        Optional<Path> local = imageStorage.localPath(url);
+        if (local.isPresent()) {
+            ImageMetadata.apply(metadata, local.get(), null);
+            return metadata;
+        }
+        Path tmp = imageStorage.createTempFile();
+        try {
+            try (InputStream in = imageStorage.open(url)) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            ImageMetadata.apply(metadata, tmp, null);
+            return metadata;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private boolean blobColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                        + "WHERE UPPER(TABLE_NAME) = 'IMAGE' AND UPPER(COLUMN_NAME) = 'DATA'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
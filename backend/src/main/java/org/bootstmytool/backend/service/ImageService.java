@@ -1,25 +1,47 @@
 package org.bootstmytool.backend.service;
 
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.bootstmytool.backend.dto.NoteImageRow;
 import org.bootstmytool.backend.model.Image;
 import org.bootstmytool.backend.model.Note;
 import org.bootstmytool.backend.repository.ImageRepository;
 import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.storage.ImageStorage;
 import org.bootstmytool.backend.utils.ProcessImage;
+import org.bootstmytool.backend.utils.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.5
  * @Date: 2025-09-24
  *
  * ImageService ist verantwortlich für die Verarbeitung von Bildern, die mit Notizen verknüpft sind.
+ * Mehrere Bilder einer Anfrage werden parallel auf einem begrenzten Pool in den Bildspeicher
+ * geschrieben (image.upload.threads, image.upload.queue-capacity). Gelöscht wird mengenbasiert:
+ * ein DELETE ... WHERE id IN (...) für alle Zeilen, eine Abfrage für die verbleibenden Referenzen,
+ * die Dateien selbst werden nach dem Commit im Hintergrund auf einem eigenen Thread entfernt.
+ * Ist dessen Warteschlange voll, bleibt die Datei liegen und wird vom OrphanImageSweeper entfernt –
+ * Uploads und Lösch-Anfragen warten so nie auf das Löschen von Dateien.
  */
 
 @Service
@@ -28,13 +50,58 @@ public class ImageService {
     //fuegt die NoteRepository und ImageRepository Instanzen hinzu
     private final NoteRepository noteRepository;
     private final ImageRepository imageRepository;
+    private final ImageVariantService imageVariantService;
+    private final HotImageCache hotImageCache;
+    private final ImageStorage imageStorage;
+
+    /** Maximal wartende Löschaufträge für freigegebene Dateien */
+    private static final int RELEASE_QUEUE_CAPACITY = 1024;
+
+    /** Pool für das Schreiben beim Mehrfach-Upload */
+    private final ThreadPoolExecutor ioExecutor;
+
+    /** Eigener Thread für das Löschen freigegebener Dateien nach dem Commit */
+    private final ThreadPoolExecutor releaseExecutor;
 
 
     //fuegt die ImageRepository und NoteRepository Instanzen hinzu
     @Autowired
-    public ImageService(NoteRepository noteRepository, ImageRepository imageRepository) {
+    public ImageService(NoteRepository noteRepository, ImageRepository imageRepository,
+                        ImageVariantService imageVariantService, HotImageCache hotImageCache,
+                        ImageStorage imageStorage,
+                        @Value("${image.upload.threads:4}") int uploadThreads,
+                        @Value("${image.upload.queue-capacity:64}") int uploadQueueCapacity) {
         this.noteRepository = noteRepository;
         this.imageRepository = imageRepository;
+        this.imageVariantService = imageVariantService;
+        this.hotImageCache = hotImageCache;
+        this.imageStorage = imageStorage;
+
+        int poolSize = Math.max(1, uploadThreads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.ioExecutor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, uploadQueueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-io-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Pool ausgelastet → der anfragende Thread schreibt selbst (Gegendruck statt Ablehnung)
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.releaseExecutor = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(RELEASE_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-release");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                // Warteschlange voll → Auftrag verwerfen; die Datei entfernt später der OrphanImageSweeper
+                new ThreadPoolExecutor.DiscardPolicy());
     }
 
 
@@ -46,43 +113,112 @@ public class ImageService {
 
     /**
      * @param imgId
-     * @return Diese Methode loescht ein Bild aus der Datenbank und vom Server.
+     * @return Diese Methode loescht ein Bild aus der Datenbank und – wenn es die letzte
+     * Referenz auf die Datei war – vom Server.
      */
     @Transactional
     public boolean deleteImageById(int imgId) {
         Optional<Image> imageOpt = imageRepository.findById(imgId);
+        if (imageOpt.isEmpty()) {
+            return false;
+        }
+        deleteAndRelease(List.of(imgId), Set.of(imageOpt.get().getUrl()));
+        return true;
+    }
 
-        if (imageOpt.isPresent()) {
-            Image image = imageOpt.get();
-            String imagePath = "backend/src/main/resources/static/images/" + image.getUrl(); // Update path
-
-            // Delete file from server
-            File file = new File(imagePath);
-            if (file.exists()) {
-                if (file.delete()) {
-                } else {
-                    throw new RuntimeException("Failed to delete image file");
-                }
-            } else {
-
-            }
-
+    /**
+     * Löscht mehrere Bilder eines Benutzers auf einmal. Bilder, die nicht existieren oder zu
+     * Notizen anderer Benutzer gehören, werden übergangen.
+     *
+     * @param imageIds die zu löschenden Bild-IDs
+     * @param userId   der angemeldete Benutzer
+     * @return die tatsächlich gelöschten IDs
+     */
+    @Transactional
+    public List<Integer> deleteImagesForUser(Collection<Integer> imageIds, int userId) {
+        if (imageIds.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>();
+        Set<String> urls = new HashSet<>();
+        for (NoteImageRow row : imageRepository.findRowsByIdsAndUser(imageIds, userId)) {
+            ids.add(row.getId());
+            urls.add(row.getUrl());
+        }
+        deleteAndRelease(ids, urls);
+        return ids;
+    }
 
-            // Loesche das Image Objekt aus der Liste der Images in der Note
-            List<Note> notes = noteRepository.findByImagesContaining((image));
-            for (Note note : notes) {
-                note.getImages().remove(image);
-                noteRepository.save(note);  // Save the updated Note entity
+    /**
+     * Löscht Bilder einer bereits geladenen Notiz (z.B. imagesToDelete beim Bearbeiten).
+     * Die Bilder werden aus der geladenen Liste der Notiz genommen; IDs, die nicht zur
+     * Notiz gehören, werden übergangen.
+     *
+     * @return die tatsächlich gelöschten IDs
+     */
+    @Transactional
+    public List<Integer> deleteImagesOfNote(Note note, Collection<Integer> imageIds) {
+        if (imageIds.isEmpty() || note.getImages() == null) {
+            return List.of();
+        }
+        Set<Integer> requested = new HashSet<>(imageIds);
+        List<Integer> ids = new ArrayList<>();
+        Set<String> urls = new HashSet<>();
+        Iterator<Image> images = note.getImages().iterator();
+        while (images.hasNext()) {
+            Image image = images.next();
+            if (requested.contains(image.getId())) {
+                ids.add(image.getId());
+                urls.add(image.getUrl());
+                images.remove(); // sonst würde ein späteres Speichern der Notiz sie wieder anlegen
             }
+        }
+        deleteAndRelease(ids, urls);
+        return ids;
+    }
 
-            // loesche das Image Objekt aus der Datenbank
-            imageRepository.deleteById(imgId);
-
-            return true;
-        } else {
-            return false;
+    /**
+     * Löscht die Zeilen mit einer Anweisung in der laufenden Transaktion und gibt nach deren
+     * Commit die Dateien frei, auf die keine Zeile mehr verweist. Das Löschen der Dateien läuft
+     * im Hintergrund; bei einem Rollback bleiben Zeilen und Dateien erhalten.
+     */
+    private void deleteAndRelease(List<Integer> ids, Set<String> urls) {
+        if (ids.isEmpty()) {
+            return;
         }
+        imageRepository.deleteAllByIdInBatch(ids);
+        releaseUnreferenced(urls);
+    }
 
+    /**
+     * Gibt nach dem Commit die Dateien frei, auf die keine Image-Zeile mehr verweist
+     * (eine Abfrage für alle Namen, Löschen im Hintergrund, Fehler bleiben für den OrphanImageSweeper).
+     * Die Zeilen müssen in der laufenden Transaktion bereits gelöscht sein, z.B. per Kaskade
+     * einer gelöschten Notiz.
+     *
+     * @param urls die Dateinamen der gelöschten Bilder
+     */
+    @Transactional
+    public void releaseUnreferenced(Set<String> urls) {
+        if (urls.isEmpty()) {
+            return;
+        }
+        // Datei nur löschen, wenn kein anderes Bild mehr denselben Inhalt referenziert;
+        // ohne Referenz darf das Bild auch nicht mehr aus dem Speicher ausgeliefert werden
+        Set<String> unreferenced = new HashSet<>(urls);
+        imageRepository.findReferencedUrls(urls).forEach(unreferenced::remove);
+        TransactionCallbacks.afterCommit(() -> {
+            for (String url : unreferenced) {
+                hotImageCache.invalidate(url);
+                releaseExecutor.execute(() -> {
+                    try {
+                        ProcessImage.releaseFile(imageStorage, url, 0);
+                    } catch (RuntimeException e) {
+                        // bleibt liegen und wird von der Bereinigung (OrphanImageSweeper) entfernt
+                    }
+                });
+            }
+        });
     }
 
 
@@ -108,13 +244,114 @@ public class ImageService {
     public Image uploadImage(int noteId, MultipartFile file) {
         // Finde Note
         Note note = noteRepository.findById(noteId).orElseThrow(() -> new RuntimeException("Note not found"));
-        Image image = ProcessImage.processImage(file);//.processImage(file);
+        Image image = ProcessImage.processImage(file, imageStorage);
         // Speichere Image in Datenbank
         note.getImages().add(image);
         image.setNote(note);
         noteRepository.save(note);
 
+        // Vorschaubilder im Hintergrund erzeugen
+        imageVariantService.enqueue(image.getUrl());
         return image;
     }
 
+
+    /**
+     * Lädt mehrere Bilder zu einer bereits geladenen Notiz hoch.
+     * Die Dateien werden parallel in den Bildspeicher geschrieben; danach werden alle Image-Zeilen
+     * mit einem saveAll in einer einzigen Transaktion angelegt. Die Notiz wird dabei weder erneut
+     * geladen noch gespeichert. Schlägt eine Datei fehl, werden die übrigen trotzdem übernommen.
+     *
+     * @param note  die Notiz, zu der die Bilder gehören
+     * @param files die hochgeladenen Dateien
+     * @return ein Ergebnis pro Datei, in der Reihenfolge der Eingabe
+     */
+    public List<UploadResult> uploadImages(Note note, List<MultipartFile> files) {
+        List<Future<Image>> pending = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            pending.add(ioExecutor.submit(() -> ProcessImage.processImage(file, imageStorage)));
+        }
+
+        List<UploadResult> results = new ArrayList<>(files.size());
+        List<Image> stored = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String fileName = files.get(i).getOriginalFilename();
+            try {
+                Image image = pending.get(i).get();
+                image.setNote(note);
+                stored.add(image);
+                results.add(new UploadResult(fileName, image, null));
+            } catch (ExecutionException e) {
+                results.add(new UploadResult(fileName, null, e.getCause().getMessage(),
+                        e.getCause() instanceof ProcessImage.UnsupportedImageTypeException));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.forEach(f -> f.cancel(true));
+                results.add(new UploadResult(fileName, null, "Upload abgebrochen"));
+            }
+        }
+        if (stored.isEmpty()) {
+            return results;
+        }
+
+        try {
+            // Eine Transaktion für alle Zeilen (saveAll ist selbst transaktional)
+            imageRepository.saveAll(stored);
+        } catch (RuntimeException e) {
+            // Nichts wurde angelegt → auch die geschriebenen Dateien gelten als fehlgeschlagen
+            List<UploadResult> failed = new ArrayList<>(results.size());
+            for (UploadResult result : results) {
+                failed.add(result.isSuccess()
+                        ? new UploadResult(result.getFileName(), null, "Fehler beim Speichern: " + e.getMessage())
+                        : result);
+            }
+            return failed;
+        }
+
+        // Vorschaubilder im Hintergrund erzeugen
+        for (Image image : stored) {
+            imageVariantService.enqueue(image.getUrl());
+        }
+        return results;
+    }
+
+    /**
+     * Fährt die Pools beim Herunterfahren der Anwendung herunter.
+     */
+    @PreDestroy
+    public void shutdown() {
+        ioExecutor.shutdownNow();
+        releaseExecutor.shutdownNow();
+    }
+
+    /**
+     * Ergebnis eines einzelnen Bildes aus einem Mehrfach-Upload.
+     */
+    @Getter
+    public static final class UploadResult {
+        /** Ursprünglicher Dateiname des Uploads */
+        private final String fileName;
+        /** Das gespeicherte Bild (null bei einem Fehler) */
+        private final Image image;
+        /** Fehlermeldung (null bei Erfolg) */
+        private final String error;
+        /** true, wenn die Datei wegen ihres Formats abgelehnt wurde */
+        private final boolean unsupportedType;
+
+        public UploadResult(String fileName, Image image, String error) {
+            this(fileName, image, error, false);
+        }
+
+        public UploadResult(String fileName, Image image, String error, boolean unsupportedType) {
+            this.fileName = fileName;
+            this.image = image;
+            this.error = error;
+            this.unsupportedType = unsupportedType;
+        }
+
+        public boolean isSuccess() {
+            return image != null;
+        }
+    }
+
 }
@@ -0,0 +1,308 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.2
+ * @Date: 2025-09-24
+ *
+ * Erzeugt verkleinerte Varianten (thumb, medium) der hochgeladenen Bilder mit javax.imageio.
+ * Nach einem Upload wird das Bild in eine begrenzte Warteschlange gestellt und im Hintergrund
+ * verarbeitet; ist die Warteschlange voll, wird der Auftrag verworfen. Fehlt eine Variante beim
+ * Abruf (Altbestand, verworfener Auftrag), wird sie einmalig synchron erzeugt. Pro Variante läuft
+ * dabei höchstens eine Erzeugung gleichzeitig; weitere Anfragen (und der Hintergrund-Auftrag)
+ * warten auf deren Ergebnis, statt dasselbe Bild noch einmal zu dekodieren.
+ *
+ * Ablage im {@link ImageStorage} unter variants/{thumb|medium}/{Dateiname}. Da die Dateinamen
+ * inhaltsadressiert sind, passt eine vorhandene Variante immer zum Original.
+ *
+ * Metriken: image.variants.queue.depth, image.variants.processing.time, image.variants.rejected.
+ */
+@Service
+public class ImageVariantService {
+
+    /** Schreibbare Formate je Dateiendung; andere Formate werden nicht verkleinert */
+    private static final Map<String, String> FORMATS = Map.of(
+            "png", "png",
+            "jpg", "jpg",
+            "jpeg", "jpg",
+            "gif", "gif",
+            "bmp", "bmp"
+    );
+
+    private final ImageStorage imageStorage;
+    private final ThreadPoolExecutor executor;
+    private final Timer asyncTimer;
+    private final Timer lazyTimer;
+    private final Counter rejectedCounter;
+
+    /** Laufende Erzeugungen: Schlüssel der Variante → Ergebnis (true, wenn sie danach vorhanden ist) */
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param imageStorage  Ablage der Originale und Varianten
+     * @param meterRegistry Registry für die Metriken
+     * @param threads       Anzahl Hintergrund-Threads
+     * @param queueCapacity maximale Anzahl wartender Bilder
+     */
+    @Autowired
+    public ImageVariantService(ImageStorage imageStorage, MeterRegistry meterRegistry,
+                               @Value("${image.variants.threads:1}") int threads,
+                               @Value("${image.variants.queue-capacity:256}") int queueCapacity) {
+        this.imageStorage = imageStorage;
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.asyncTimer = Timer.builder("image.variants.processing.time")
+                .description("Dauer für das Erzeugen der Varianten eines Bildes")
+                .tag("mode", "async")
+                .register(meterRegistry);
+        this.lazyTimer = Timer.builder("image.variants.processing.time")
+                .description("Dauer für das Erzeugen der Varianten eines Bildes")
+                .tag("mode", "lazy")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("image.variants.rejected")
+                .description("Verworfene Aufträge (Warteschlange voll)")
+                .register(meterRegistry);
+        Gauge.builder("image.variants.queue.depth", executor, e -> e.getQueue().size())
+                .description("Aktuell wartende Bilder")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stellt ein Bild zur Verarbeitung im Hintergrund ein. Blockiert nie; bei voller
+     * Warteschlange wird der Auftrag verworfen und die Variante später bei Bedarf erzeugt.
+     *
+     * @param imageName Dateiname des Originals (Image.url).
+     */
+    public void enqueue(String imageName) {
+        if (imageName == null || formatOf(imageName) == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> asyncTimer.record(() -> {
+                for (ImageVariant variant : ImageVariant.values()) {
+                    try {
+                        generateOnce(imageName, variant);
+                    } catch (IOException | RuntimeException e) {
+                        // Fehler beim Erzeugen → Abruf liefert das Original bzw. versucht es erneut
+                    }
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+        }
+    }
+
+    /**
+     * Liefert den Eintrag der Variante und erzeugt sie bei Bedarf synchron (bzw. wartet auf eine
+     * bereits laufende Erzeugung).
+     *
+     * @return die Variante oder Optional.empty(), wenn keine Variante erzeugt werden kann
+     * (Original fehlt, Format nicht unterstützt) – dann wird das Original ausgeliefert.
+     */
+    public Optional<StoredImage> resolve(String imageName, ImageVariant variant) {
+        String target = variantKey(imageName, variant);
+        if (target == null) {
+            return Optional.empty();
+        }
+        try {
+            Optional<StoredImage> existing = imageStorage.stat(target);
+            if (existing.isPresent()) {
+                return existing;
+            }
+            long start = System.nanoTime();
+            boolean generated = generateOnce(imageName, variant);
+            lazyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return generated ? imageStorage.stat(target) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Wie {@link #generate}, aber höchstens einmal gleichzeitig pro Variante: Läuft die Erzeugung
+     * bereits (Abruf oder Hintergrund-Auftrag), wird auf deren Ergebnis gewartet.
+     *
+     * @return true, wenn die Variante danach vorhanden ist.
+     */
+    boolean generateOnce(String imageName, ImageVariant variant) throws IOException {
+        String target = variantKey(imageName, variant);
+        if (target == null) {
+            return false;
+        }
+        CompletableFuture<Boolean> own = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(target, own);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                return false; // Fehler des anderen Aufrufs → Original ausliefern
+            }
+        }
+        try {
+            boolean generated = generate(imageName, variant);
+            own.complete(generated);
+            return generated;
+        } catch (IOException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(target, own);
+        }
+    }
+
+    /**
+     * Erzeugt eine Variante, falls sie noch nicht existiert.
+     *
+     * @return true, wenn die Variante danach vorhanden ist.
+     */
+    boolean generate(String imageName, ImageVariant variant) throws IOException {
+        String target = variantKey(imageName, variant);
+        if (target == null || imageStorage.stat(imageName).isEmpty()) {
+            return false;
+        }
+        if (imageStorage.stat(target).isPresent()) {
+            return true;
+        }
+
+        Path temp = imageStorage.createTempFile();
+        try {
+            if (!writeScaled(imageName, temp, variant.getMaxSize(), formatOf(imageName))) {
+                return false;
+            }
+            imageStorage.put(target, temp);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Schreibt das auf maxSize verkleinerte Bild nach target. Ist das Original bereits klein genug,
+     * wird es nur kopiert. Über Subsampling dekodiert der Reader große Bilder gleich in reduzierter
+     * Auflösung, statt das volle Bild in den Speicher zu holen.
+     *
+     * @return false, wenn das Bild nicht gelesen oder geschrieben werden kann.
+     */
+    private boolean writeScaled(String imageName, Path target, int maxSize, String format) throws IOException {
+        BufferedImage decoded;
+        try (InputStream source = imageStorage.open(imageName);
+             ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return false;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                if (longest <= maxSize) {
+                    // Original ist klein genug → unverändert übernehmen
+                    try (InputStream copy = imageStorage.open(imageName)) {
+                        Files.copy(copy, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return true;
+                }
+
+                // Nur jede n-te Zeile/Spalte dekodieren, aber mindestens doppelt so groß wie das Ziel
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, longest / (maxSize * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        double scale = (double) maxSize / Math.max(decoded.getWidth(), decoded.getHeight());
+        int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+        boolean alpha = decoded.getColorModel().hasAlpha() && !"jpg".equals(format) && !"bmp".equals(format);
+
+        BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(decoded, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return ImageIO.write(scaled, format, target.toFile());
+    }
+
+    /**
+     * Schlüssel der Variante oder null, wenn Name oder Format ungeeignet sind.
+     */
+    private static String variantKey(String imageName, ImageVariant variant) {
+        if (!ImageStorage.isValidName(imageName) || formatOf(imageName) == null) {
+            return null;
+        }
+        return ImageStorage.variantKey(variant, imageName);
+    }
+
+    private static String formatOf(String imageName) {
+        int dot = imageName.lastIndexOf('.');
+        return dot < 0 ? null : FORMATS.get(imageName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Fährt den Pool beim Herunterfahren der Anwendung herunter.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
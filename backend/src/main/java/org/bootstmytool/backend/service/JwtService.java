@@ -1,9 +1,17 @@
 package org.bootstmytool.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -11,19 +19,30 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.2
  * @Date: 2025-09-24
  *
  * Service-Klasse, die Methoden zum Erstellen und Überprüfen von JWT-Token bereitstellt.
+ * Schlüssel und Parser werden einmalig beim Start erzeugt und nur bei einem Wechsel
+ * des Secrets (reloadSecret) neu aufgebaut.
+ *
+ * Optional werden bereits verifizierte Tokens (Schlüssel: SHA-256 des Tokens) bis zu ihrem
+ * eigenen Ablaufzeitpunkt zwischengespeichert, sodass die Signatur pro Token nur einmal
+ * geprüft wird. Treffer/Fehlschläge/Verdrängungen erscheinen unter /actuator/metrics (cache=jwt.tokens).
  */
 
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
 
     @Value("${jwt.secret}")
     private String secret;
@@ -31,14 +50,71 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long JWT_EXPIRATION_TIME;
 
+    @Value("${jwt.cache.enabled:false}")
+    private boolean tokenCacheEnabled;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long tokenCacheMaxSize;
+
+    /** Cache verifizierter Tokens (null, wenn deaktiviert). */
+    private Cache<String, VerifiedToken> tokenCache;
+
+    /**
+     * Aktueller Schlüssel samt Parser. Wird atomar ausgetauscht, damit laufende Anfragen
+     * immer ein zusammenpassendes Paar aus Secret, Schlüssel und Parser sehen.
+     */
+    private final AtomicReference<SigningMaterial> signingMaterial = new AtomicReference<>();
+
+    /**
+     * Baut Schlüssel und Parser beim Start einmalig auf.
+     */
+    @PostConstruct
+    public void init() {
+        reloadSecret(secret);
+        if (tokenCacheEnabled) {
+            tokenCache = Caffeine.newBuilder()
+                    .maximumSize(tokenCacheMaxSize)
+                    .expireAfter(new TokenExpiry())
+                    .recordStats()
+                    .build();
+        }
+    }
+
+    /**
+     * Registriert die Cache-Metriken bei Actuator/Micrometer (nur wenn der Cache aktiv ist).
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (tokenCache != null) {
+            CaffeineCacheMetrics.monitor(registry, tokenCache, "jwt.tokens");
+        }
+    }
+
+    /**
+     * Tauscht das Secret zur Laufzeit aus (Hot-Reload).
+     * Ist das Secret unverändert, passiert nichts. Tokens, die mit dem alten Secret
+     * signiert wurden, sind danach ungültig.
+     *
+     * @param newSecret das neue Secret (mindestens 32 Zeichen)
+     */
+    public void reloadSecret(String newSecret) {
+        SigningMaterial current = signingMaterial.get();
+        if (current != null && current.secret.equals(newSecret)) {
+            return;
+        }
+        signingMaterial.set(SigningMaterial.of(newSecret));
+        this.secret = newSecret;
+        if (tokenCache != null) {
+            // Mit dem alten Secret verifizierte Tokens dürfen nicht weiter gelten
+            tokenCache.invalidateAll();
+        }
+    }
+
     /**
      * Gibt den geheimen Schlüssel für die Signatur des JWT zurück.
      */
     private Key getSigningKey() {
-        if (secret.length() < 32) {
-            throw new IllegalArgumentException("JWT Secret muss mindestens 32 Zeichen lang sein.");
-        }
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return signingMaterial.get().key;
     }
 
     /**
@@ -56,15 +132,47 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifiziert Signatur und Ablauf des Tokens genau einmal und liefert alle Ansprüche.
+     * Wirft eine ExpiredJwtException bei abgelaufenen und eine JwtException bei ungültigen Tokens.
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
     /**
      * Abstrakt alle Ansprüche aus dem JWT-Token.
+     * Der Parser ist unveränderlich und thread-sicher und wird daher wiederverwendet.
+     * Bei aktivem Cache wird die Signatur eines Tokens nur beim ersten Aufruf geprüft.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        SigningMaterial material = signingMaterial.get();
+        if (tokenCache == null) {
+            return material.parser.parseClaimsJws(token).getBody();
+        }
+
+        VerifiedToken verified = tokenCache.get(digest(token),
+                key -> new VerifiedToken(material.parser.parseClaimsJws(token).getBody(), material));
+
+        // Eintrag stammt noch von einem alten Secret (Reload während des Parsens) → neu prüfen
+        if (verified.material != material) {
+            Claims claims = material.parser.parseClaimsJws(token).getBody();
+            tokenCache.put(digest(token), new VerifiedToken(claims, material));
+            return claims;
+        }
+        return verified.claims;
+    }
+
+    /**
+     * SHA-256 des Tokens als Cache-Schlüssel, damit keine Tokens im Klartext im Speicher gehalten werden.
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
     }
 
     /**
@@ -87,10 +195,11 @@ public class JwtService {
      * Generates a JWT token for the given username with an expiration time.
      */
     public String generateToken(String email) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_TIME))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + JWT_EXPIRATION_TIME))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -99,7 +208,71 @@ public class JwtService {
      * Validiert das JWT-Token für den gegebenen Benutzer.
      */
     public boolean validateToken(String jwt, UserDetails userDetails) {
-        final String username = extractUsername(jwt);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(jwt));
+        final Claims claims = extractAllClaims(jwt);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
+    }
+
+    /**
+     * Verifizierte Ansprüche samt dem Schlüsselmaterial, mit dem sie geprüft wurden.
+     */
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final SigningMaterial material;
+
+        private VerifiedToken(Claims claims, SigningMaterial material) {
+            this.claims = claims;
+            this.material = material;
+        }
+    }
+
+    /**
+     * Lässt jeden Cache-Eintrag genau zum Ablaufzeitpunkt (exp) seines Tokens verfallen.
+     * Tokens ohne exp werden höchstens für die konfigurierte Token-Laufzeit gehalten.
+     */
+    private final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Date expiration = value.claims.getExpiration();
+            long millis = expiration != null
+                    ? expiration.getTime() - System.currentTimeMillis()
+                    : JWT_EXPIRATION_TIME;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Unveränderliches Bündel aus Secret, HMAC-Schlüssel und dem dazugehörigen Parser.
+     */
+    private static final class SigningMaterial {
+        private final String secret;
+        private final Key key;
+        private final JwtParser parser;
+
+        private SigningMaterial(String secret, Key key, JwtParser parser) {
+            this.secret = secret;
+            this.key = key;
+            this.parser = parser;
+        }
+
+        private static SigningMaterial of(String secret) {
+            if (secret == null || secret.length() < 32) {
+                throw new IllegalArgumentException("JWT Secret muss mindestens 32 Zeichen lang sein.");
+            }
+            Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            JwtParser parser = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build();
+            return new SigningMaterial(secret, key, parser);
+        }
     }
 }
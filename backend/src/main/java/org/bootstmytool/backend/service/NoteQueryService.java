@@ -0,0 +1,275 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.dto.ImageDTO;
+import org.bootstmytool.backend.dto.NoteCursor;
+import org.bootstmytool.backend.dto.NoteDTO;
+import org.bootstmytool.backend.dto.NoteImageRow;
+import org.bootstmytool.backend.dto.NotePageDTO;
+import org.bootstmytool.backend.dto.NoteRow;
+import org.bootstmytool.backend.dto.NoteTagRow;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+import org.bootstmytool.backend.model.NoteCategory;
+import org.bootstmytool.backend.model.NoteType;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.bootstmytool.backend.search.SnippetBuilder;
+import org.bootstmytool.backend.search.SubstringMatcher;
+import org.bootstmytool.backend.search.TextTokenizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.4
+ * @Date: 2025-09-24
+ *
+ * Lesemodell für die Listen-Endpunkte (/notes/get, /notes/filter).
+ * Statt Note-Entitäten samt EAGER-Collections zu laden, werden pro Seite genau drei
+ * Abfragen gestellt: die Notizen als Projektion, danach alle Tags und alle Bild-URLs
+ * der Seite gesammelt per IN-Liste. Bilddaten werden dabei nie gelesen.
+ *
+ * Freitextsuchen (Teilstring wie LIKE '%q%', optional mit Tippfehlertoleranz) beantwortet der
+ * Trigramm-Teil des {@link NoteSearchIndex} im Speicher; die Datenbank filtert nur noch dessen
+ * Kandidaten per ID (in Abschnitten zu ID_CHUNK), danach prüft SubstringMatcher den Text, bevor
+ * Tags und Bilder der Treffer geladen werden. Solange der Index nicht bereit ist
+ * oder der Suchtext kürzer als drei Zeichen ist, sucht die Datenbank selbst (LIKE über Titel,
+ * Inhalt und Tags).
+ *
+ * Die Relevanzsuche (searchRanked) findet dieselben Treffer, sortiert sie nach der BM25-Bewertung
+ * des Index und liefert statt des Inhalts einen hervorgehobenen Ausschnitt (SnippetBuilder).
+ *
+ * Tag-Vorschläge (suggestTags) kommen aus dem Tag-Verzeichnis des Index, bis dahin per GROUP BY.
+ */
+@Service
+@Transactional(readOnly = true)
+public class NoteQueryService {
+
+    /** Maximale Länge einer IN-Liste beim Nachladen der Index-Treffer */
+    private static final int ID_CHUNK = 1000;
+
+    /** Länge des Textausschnitts der Relevanzsuche */
+    static final int SNIPPET_LENGTH = 200;
+
+    private static final Comparator<NoteRow> NEWEST_FIRST = Comparator
+            .comparing(NoteRow::getCreatedAt, Comparator.nullsLast(Comparator.<Date>naturalOrder()))
+            .thenComparingInt(NoteRow::getId)
+            .reversed();
+
+    private final NoteRepository noteRepository;
+    private final ImageRepository imageRepository;
+    private final NoteSearchIndex noteSearchIndex;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Autowired
+    public NoteQueryService(NoteRepository noteRepository, ImageRepository imageRepository,
+                            NoteSearchIndex noteSearchIndex) {
+        this.noteRepository = noteRepository;
+        this.imageRepository = imageRepository;
+        this.noteSearchIndex = noteSearchIndex;
+    }
+
+    /**
+     * Holt eine Seite der Notizen eines Benutzers (neueste zuerst).
+     * Es wird eine Notiz mehr geladen als angefordert, um festzustellen, ob eine weitere Seite existiert.
+     *
+     * @param userId die ID des Benutzers.
+     * @param after  Position hinter der fortgesetzt wird, oder null für die erste Seite.
+     * @param limit  maximale Anzahl Notizen dieser Seite.
+     * @return die Seite samt nextCursor (null, wenn keine weiteren Notizen folgen).
+     */
+    public NotePageDTO getNotePage(int userId, NoteCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        List<NoteRow> rows = after == null
+                ? noteRepository.findFirstPage(userId, fetch)
+                : noteRepository.findPageAfter(userId, after.getCreatedAtDate(), after.getId(), fetch);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            nextCursor = NoteCursor.after(rows.get(rows.size() - 1)).encode();
+        }
+        return new NotePageDTO(toDtos(rows), nextCursor);
+    }
+
+    /**
+     * Kombinierte Filterabfrage (UC-5) über das Lesemodell.
+     * Mit Suchtext liefert der Suchindex die Kandidaten, sofern er bereit ist.
+     *
+     * @param typos erlaubte Tippfehler im Suchtext (nur über den Index, sonst exakte Suche)
+     */
+    public List<NoteDTO> searchAndFilter(int userId, String q, NoteCategory category, NoteType type,
+                                         Date from, Date to, int typos) {
+        int[] noteIds = q != null ? noteSearchIndex.substringCandidates(userId, q, typos) : null;
+        if (noteIds == null) {
+            return toDtos(noteRepository.searchAndFilter(userId, q, category, type, from, to));
+        }
+        return toDtos(verifyCandidates(filterByIds(userId, noteIds, category, type, from, to), q, typos));
+    }
+
+    /**
+     * Kandidaten teilen nur die Trigramme – ob der Text passt, entscheidet erst die Prüfung.
+     * Titel und Inhalt liegen mit der Projektion schon vor; Tags werden nur für die Kandidaten
+     * nachgeladen, die dort nicht passen. Bilder werden erst für die echten Treffer geladen.
+     */
+    private List<NoteRow> verifyCandidates(List<NoteRow> rows, String q, int typos) {
+        String pattern = TextTokenizer.normalize(q);
+        int effectiveTypos = NoteSearchIndex.effectiveTypos(q, typos);
+        List<NoteRow> verified = new ArrayList<>(rows.size());
+        List<NoteRow> unresolved = new ArrayList<>();
+        for (NoteRow row : rows) {
+            if (SubstringMatcher.matchesAny(pattern, effectiveTypos, row.getTitle(), row.getContent(), null)) {
+                verified.add(row);
+            } else {
+                unresolved.add(row);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return verified;
+        }
+
+        Map<Integer, List<String>> tags = new HashMap<>();
+        for (List<Integer> chunk : chunks(unresolved.stream().map(NoteRow::getId).toList())) {
+            for (NoteTagRow tag : noteRepository.findTagsByNoteIds(chunk)) {
+                tags.computeIfAbsent(tag.getNoteId(), id -> new ArrayList<>()).add(tag.getTag());
+            }
+        }
+        for (NoteRow row : unresolved) {
+            if (SubstringMatcher.matchesAny(pattern, effectiveTypos, null, null, tags.get(row.getId()))) {
+                verified.add(row);
+            }
+        }
+        verified.sort(NEWEST_FIRST);
+        return verified;
+    }
+
+    /**
+     * Freitextsuche nach Relevanz: dieselben Treffer wie {@link #searchAndFilter} (Teilstring),
+     * die besten limit nach BM25, jeweils mit hervorgehobenem Ausschnitt statt des vollständigen
+     * Inhalts. Ohne bereiten Index werden die Treffer der Datenbanksuche (neueste zuerst) geliefert.
+     *
+     * @param q     Suchtext (nicht leer)
+     * @param limit maximale Anzahl Treffer
+     */
+    public List<NoteDTO> searchRanked(int userId, String q, NoteCategory category, NoteType type,
+                                      Date from, Date to, int limit) {
+        int[] candidates = noteSearchIndex.substringCandidates(userId, q, 0);
+        List<NoteRow> rows;
+        if (candidates == null) {
+            rows = noteRepository.searchAndFilter(userId, q, category, type, from, to);
+        } else {
+            rows = verifyCandidates(filterByIds(userId, candidates, category, type, from, to), q, 0);
+            NoteSearchIndex.RankedHits hits = noteSearchIndex.score(userId, q,
+                    rows.stream().mapToInt(NoteRow::getId).toArray());
+            if (hits != null) {
+                Map<Integer, Integer> rank = new HashMap<>(rows.size() * 2);
+                int[] ranked = hits.getNoteIds();
+                for (int i = 0; i < ranked.length; i++) {
+                    rank.put(ranked[i], i);
+                }
+                rows.sort(Comparator.comparingInt(row -> rank.get(row.getId())));
+            }
+        }
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<String> terms = TextTokenizer.tokenize(q);
+        List<NoteDTO> dtos = toDtos(rows);
+        for (NoteDTO dto : dtos) {
+            dto.setSnippet(SnippetBuilder.build(dto.getContent(), terms, SNIPPET_LENGTH));
+            dto.setContent(null);
+        }
+        return dtos;
+    }
+
+    /**
+     * Autovervollständigung für Tags: die meistgenutzten Tags des Benutzers, die mit prefix beginnen.
+     *
+     * @param prefix Anfang des Tags (Groß-/Kleinschreibung egal, leer = alle Tags)
+     * @param limit  maximale Anzahl Vorschläge
+     */
+    public List<TagSuggestionDTO> suggestTags(int userId, String prefix, int limit) {
+        List<TagSuggestionDTO> suggestions = noteSearchIndex.suggestTags(userId, prefix, limit);
+        if (suggestions != null) {
+            return suggestions;
+        }
+        String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        String pattern = normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return noteRepository.findTagSuggestions(userId, pattern, Limit.of(limit));
+    }
+
+    /**
+     * Lädt die Index-Treffer mit den übrigen Filtern; lange ID-Listen in Abschnitten zu {@link #ID_CHUNK}.
+     */
+    private List<NoteRow> filterByIds(int userId, int[] noteIds, NoteCategory category, NoteType type,
+                                      Date from, Date to) {
+        List<NoteRow> rows = new ArrayList<>();
+        for (List<Integer> chunk : chunks(Arrays.stream(noteIds).boxed().toList())) {
+            rows.addAll(noteRepository.filterByIds(userId, chunk, category, type, from, to));
+        }
+        if (noteIds.length > ID_CHUNK) {
+            rows.sort(NEWEST_FIRST); // Abschnitte sind nur jeweils für sich sortiert
+        }
+        return rows;
+    }
+
+    /**
+     * Teilt eine ID-Liste in Abschnitte zu höchstens {@link #ID_CHUNK} IDs (Länge der IN-Liste).
+     */
+    private static List<List<Integer>> chunks(List<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>((ids.size() + ID_CHUNK - 1) / ID_CHUNK);
+        for (int start = 0; start < ids.size(); start += ID_CHUNK) {
+            chunks.add(ids.subList(start, Math.min(start + ID_CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Ergänzt die Projektionen um Tags und Bild-URLs (je eine Abfrage pro {@link #ID_CHUNK} Notizen).
+     */
+    private List<NoteDTO> toDtos(List<NoteRow> rows) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, NoteDTO> byId = new HashMap<>(rows.size() * 2);
+        List<NoteDTO> dtos = new ArrayList<>(rows.size());
+        for (NoteRow row : rows) {
+            NoteDTO dto = new NoteDTO();
+            dto.setId(row.getId());
+            dto.setTitle(row.getTitle());
+            dto.setContent(row.getContent());
+            if (row.getCategory() != null) dto.setCategory(row.getCategory().name());
+            if (row.getType() != null) dto.setType(row.getType().name());
+            dto.setCreatedAt(row.getCreatedAt());
+            byId.put(row.getId(), dto);
+            dtos.add(dto);
+        }
+
+        for (List<Integer> chunk : chunks(new ArrayList<>(byId.keySet()))) {
+            for (NoteTagRow tag : noteRepository.findTagsByNoteIds(chunk)) {
+                byId.get(tag.getNoteId()).getTags().add(tag.getTag());
+            }
+            for (NoteImageRow image : imageRepository.findUrlsByNoteIds(chunk)) {
+                byId.get(image.getNoteId()).getImages()
+                        .add(new ImageDTO(image.getId(), baseUrl + "/image/" + image.getUrl()));
+            }
+        }
+        return dtos;
+    }
+}
@@ -4,18 +4,26 @@ import org.bootstmytool.backend.model.Image;
 import org.bootstmytool.backend.model.Note;
 import org.bootstmytool.backend.repository.ImageRepository;
 import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.bootstmytool.backend.utils.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.3
  * @Date: 2025-09-24
  *
  * Service-Klasse für die Verarbeitung von Notizen.
+ * Jede Änderung wird nach dem Commit in den Suchindex (NoteSearchIndex) übernommen;
+ * Bilder gelöschter Notizen räumt der ImageService ab (Dateien erst nach dem Commit).
  */
 
 @Service
@@ -23,17 +31,28 @@ public class NoteService {
 
     private final NoteRepository noteRepository;
     private final ImageRepository imageRepository;
+    private final ImageVariantService imageVariantService;
+    private final NoteSearchIndex noteSearchIndex;
+    private final ImageService imageService;
 
     /**
      * Erstellt eine neue Instanz von NoteService.
      *
-     * @param noteRepository  das NoteRepository, das verwendet werden soll.
-     * @param imageRepository das ImageRepository, das verwendet werden soll.
+     * @param noteRepository      das NoteRepository, das verwendet werden soll.
+     * @param imageRepository     das ImageRepository, das verwendet werden soll.
+     * @param imageVariantService erzeugt die Vorschaubilder der hochgeladenen Bilder.
+     * @param noteSearchIndex     Volltextindex der Notizen.
+     * @param imageService        löscht Bilder beim Bearbeiten und Löschen einer Notiz.
      */
     @Autowired
-    public NoteService(NoteRepository noteRepository, ImageRepository imageRepository) {
+    public NoteService(NoteRepository noteRepository, ImageRepository imageRepository,
+                       ImageVariantService imageVariantService, NoteSearchIndex noteSearchIndex,
+                       ImageService imageService) {
         this.noteRepository = noteRepository;
         this.imageRepository = imageRepository;
+        this.imageVariantService = imageVariantService;
+        this.noteSearchIndex = noteSearchIndex;
+        this.imageService = imageService;
     }
 
     /**
@@ -52,9 +71,11 @@ public class NoteService {
             for (Image image : note.getImages()) {
                 image.setNote(savedNote);
                 imageRepository.save(image);
+                imageVariantService.enqueue(image.getUrl());
             }
         }
 
+        indexAfterCommit(savedNote);
         return savedNote;
     }
 
@@ -84,10 +105,18 @@ public class NoteService {
      * @param id die ID der Notiz.
      * @return eine Bestätigungsmeldung, dass die Notiz gelöscht wurde, oder eine Meldung, dass die Notiz nicht gefunden wurde.
      */
+    @Transactional
     public String deleteNoteById(int id) {
         Note existingNote = noteRepository.findById(id).orElse(null);
         if (existingNote != null) {
-            noteRepository.delete(existingNote);
+            Set<String> imageNames = existingNote.getImages().stream().map(Image::getUrl).collect(Collectors.toSet());
+            noteRepository.delete(existingNote); // Bilder per Kaskade
+            // Dateien ohne Referenz gibt der ImageService nach dem Commit im Hintergrund frei
+            imageService.releaseUnreferenced(imageNames);
+            if (existingNote.getUser() != null) {
+                int userId = (int) existingNote.getUser().getId();
+                TransactionCallbacks.afterCommit(() -> noteSearchIndex.remove(userId, id));
+            }
             return "Notiz gelöscht!";
         }
         return "Notiz nicht gefunden!";
@@ -105,7 +134,9 @@ public class NoteService {
         if (existingNote != null) {
             existingNote.setTitle(note.getTitle());
             existingNote.setContent(note.getContent());
-            return noteRepository.save(existingNote);
+            Note saved = noteRepository.save(existingNote);
+            indexAfterCommit(saved);
+            return saved;
         }
         return null;
     }
@@ -118,10 +149,43 @@ public class NoteService {
      * @return die aktualisierte Notiz.
      */
     public Note updateNote(Note existingNote) {
-        return noteRepository.save(existingNote);
+        Note saved = noteRepository.save(existingNote);
+        indexAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Speichert die geänderte Notiz und löscht in derselben Transaktion die angegebenen Bilder
+     * (imagesToDelete beim Bearbeiten). Schlägt das Speichern fehl, bleiben auch die Bilder
+     * erhalten; deren Dateien werden erst nach dem Commit freigegeben.
+     *
+     * @param existingNote   die zu aktualisierende Notiz.
+     * @param imagesToDelete IDs der zu entfernenden Bilder dieser Notiz.
+     * @return die aktualisierte Notiz.
+     */
+    @Transactional
+    public Note updateNote(Note existingNote, Collection<Integer> imagesToDelete) {
+        imageService.deleteImagesOfNote(existingNote, imagesToDelete);
+        return updateNote(existingNote);
     }
 
     public void save(Note note) {
-        noteRepository.save(note);
+        indexAfterCommit(noteRepository.save(note));
+    }
+
+    /**
+     * Übernimmt die Notiz nach dem Commit in den Suchindex; bei einem Rollback bleibt der Index
+     * unverändert. Die Felder werden jetzt kopiert, da die Entität danach nicht mehr verwaltet ist.
+     */
+    private void indexAfterCommit(Note note) {
+        if (note.getUser() == null) {
+            return;
+        }
+        int noteId = note.getId();
+        int userId = (int) note.getUser().getId();
+        String title = note.getTitle();
+        String content = note.getContent();
+        List<String> tags = note.getTags() != null ? new ArrayList<>(note.getTags()) : List.of();
+        TransactionCallbacks.afterCommit(() -> noteSearchIndex.index(noteId, userId, title, content, tags));
     }
 }
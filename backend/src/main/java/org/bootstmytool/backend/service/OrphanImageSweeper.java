@@ -0,0 +1,211 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.bootstmytool.backend.storage.StoragePage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.bootstmytool.backend.utils.ProcessImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Entfernt Bilddateien, auf die keine Image-Zeile mehr verweist – z.B. nach einem fehlgeschlagenen
+ * Anlegen einer Notiz, wenn ein Löschen in die Karenzzeit von ProcessImage.releaseFile fiel, oder
+ * Varianten gelöschter Originale. Außerdem liegengebliebene Temp-Dateien abgebrochener Uploads.
+ *
+ * Der Abgleich läuft schrittweise: Jeder geplante Schritt (image.gc.interval) listet höchstens
+ * image.gc.batch-size Einträge ab der Marke des vorigen Schritts, prüft sie mit einer einzigen
+ * Abfrage gegen die image-Tabelle und löscht verwaiste Dateien, die älter als image.gc.grace sind.
+ * Ein vollständiger Durchlauf verteilt sich so über viele kleine Schritte und blockiert weder
+ * Datenbank noch Dateisystem für Anfragen.
+ *
+ * Schutz vor falscher Konfiguration: Ist die image-Tabelle leer (z.B. leere Datenbank mit
+ * vorhandenem Bildverzeichnis), wird nichts gelöscht. Außerdem kommen nur Dateien in Frage, deren
+ * Name von der Anwendung vergeben wurde (ProcessImage.isGeneratedName); fremde Dateien unter
+ * image.upload.dir bleiben unangetastet.
+ *
+ * Metriken: image.gc.reclaimed.bytes, image.gc.deleted.files, image.gc.scanned.files, image.gc.step.time.
+ */
+@Service
+@ConditionalOnProperty(name = "image.gc.enabled", havingValue = "true", matchIfMissing = true)
+public class OrphanImageSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanImageSweeper.class);
+
+    private final ImageStorage imageStorage;
+    private final ImageRepository imageRepository;
+    private final HotImageCache hotImageCache;
+    private final Duration grace;
+    private final Duration tempFileGrace;
+    private final int batchSize;
+
+    private final Counter reclaimedBytes;
+    private final Counter deletedFiles;
+    private final Counter deletedTempFiles;
+    private final Counter scannedFiles;
+    private final Timer stepTimer;
+
+    /** Marke für den nächsten Schritt (null = neuer Durchlauf) */
+    private String cursor;
+
+    /** Summen des laufenden Durchlaufs (für das Log) */
+    private long cycleFiles;
+    private long cycleBytes;
+
+    /**
+     * @param grace         Mindestalter einer verwaisten Datei, bevor sie gelöscht wird
+     * @param tempFileGrace Mindestalter einer Temp-Datei (länger als eine Upload-Sitzung)
+     * @param batchSize     maximale Anzahl geprüfter Einträge pro Schritt
+     */
+    @Autowired
+    public OrphanImageSweeper(ImageStorage imageStorage, ImageRepository imageRepository,
+                              HotImageCache hotImageCache, MeterRegistry meterRegistry,
+                              @Value("${image.gc.grace:PT1H}") Duration grace,
+                              @Value("${image.gc.temp-file-grace:PT48H}") Duration tempFileGrace,
+                              @Value("${image.gc.batch-size:500}") int batchSize) {
+        this.imageStorage = imageStorage;
+        this.imageRepository = imageRepository;
+        this.hotImageCache = hotImageCache;
+        this.grace = grace;
+        this.tempFileGrace = tempFileGrace;
+        this.batchSize = Math.max(1, batchSize);
+
+        this.reclaimedBytes = Counter.builder("image.gc.reclaimed.bytes")
+                .description("Durch das Entfernen verwaister Bilddateien freigegebene Bytes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.deletedFiles = Counter.builder("image.gc.deleted.files")
+                .description("Gelöschte verwaiste Dateien")
+                .tag("kind", "image")
+                .register(meterRegistry);
+        this.deletedTempFiles = Counter.builder("image.gc.deleted.files")
+                .description("Gelöschte verwaiste Dateien")
+                .tag("kind", "temp")
+                .register(meterRegistry);
+        this.scannedFiles = Counter.builder("image.gc.scanned.files")
+                .description("Geprüfte Einträge im Bildspeicher")
+                .register(meterRegistry);
+        this.stepTimer = Timer.builder("image.gc.step.time")
+                .description("Dauer eines Bereinigungsschritts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Geplanter Aufruf; Fehler werden protokolliert, der nächste Schritt versucht es erneut.
+     */
+    @Scheduled(initialDelayString = "${image.gc.initial-delay:PT5M}", fixedDelayString = "${image.gc.interval:PT1M}")
+    public void scheduledStep() {
+        try {
+            sweepStep();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Bereinigung verwaister Bilddateien fehlgeschlagen: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Führt einen Schritt aus: eine Seite des Bildspeichers prüfen und Verwaistes löschen.
+     *
+     * @return in diesem Schritt freigegebene Bytes
+     */
+    public synchronized long sweepStep() throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (imageRepository.count() == 0) {
+                return 0; // leere Tabelle → vermutlich falsche Datenbank, nichts anfassen
+            }
+            long reclaimed = cursor == null ? sweepTempFiles() : 0;
+
+            StoragePage page = imageStorage.list(cursor, batchSize);
+            scannedFiles.increment(page.getEntries().size());
+
+            Set<String> names = new HashSet<>();
+            for (StoredImage entry : page.getEntries()) {
+                if (ProcessImage.isGeneratedName(entry.getName())) {
+                    names.add(entry.getName());
+                }
+            }
+            Set<String> referenced = names.isEmpty()
+                    ? Set.of() : new HashSet<>(imageRepository.findReferencedUrls(names));
+
+            for (StoredImage entry : page.getEntries()) {
+                if (names.contains(entry.getName()) && !referenced.contains(entry.getName())) {
+                    reclaimed += deleteIfStillOld(entry);
+                }
+            }
+
+            cursor = page.getNextCursor();
+            if (cursor == null) {
+                if (cycleFiles > 0) {
+                    log.info("Bereinigung abgeschlossen: {} verwaiste Dateien, {} Bytes freigegeben", cycleFiles, cycleBytes);
+                }
+                cycleFiles = 0;
+                cycleBytes = 0;
+            }
+            return reclaimed;
+        } finally {
+            stepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Löscht einen Eintrag, wenn er weiterhin älter als die Karenzzeit ist. Das erneute Prüfen
+     * unmittelbar vor dem Löschen fängt einen zwischenzeitlichen erneuten Upload desselben
+     * Inhalts ab (der den Zeitstempel auffrischt, bevor seine Image-Zeile existiert).
+     */
+    private long deleteIfStillOld(StoredImage entry) throws IOException {
+        Instant cutoff = Instant.now().minus(grace);
+        if (!Instant.ofEpochMilli(entry.getLastModified()).isBefore(cutoff)) {
+            return 0;
+        }
+        Optional<StoredImage> current = imageStorage.stat(entry.getKey());
+        if (current.isEmpty() || !Instant.ofEpochMilli(current.get().getLastModified()).isBefore(cutoff)) {
+            return 0;
+        }
+        if (!imageStorage.delete(entry.getKey())) {
+            return 0;
+        }
+        hotImageCache.invalidate(entry.getName());
+        long size = current.get().getSize();
+        reclaimedBytes.increment(size);
+        deletedFiles.increment();
+        cycleFiles++;
+        cycleBytes += size;
+        return size;
+    }
+
+    /**
+     * Entfernt zu Beginn eines Durchlaufs alte Temp-Dateien (nur bei lokaler Ablage).
+     */
+    private long sweepTempFiles() throws IOException {
+        if (!(imageStorage instanceof LocalImageStorage local)) {
+            return 0;
+        }
+        long[] deleted = local.deleteStaleTempFiles(Instant.now().minus(tempFileGrace));
+        deletedTempFiles.increment(deleted[0]);
+        reclaimedBytes.increment(deleted[1]);
+        cycleFiles += deleted[0];
+        cycleBytes += deleted[1];
+        return deleted[1];
+    }
+}
@@ -0,0 +1,180 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bootstmytool.backend.security.BCryptCostCalibrator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Führt BCrypt-Hashing und -Vergleiche auf einem eigenen, begrenzten Thread-Pool aus.
+ * So belegt ein Login-Ansturm höchstens so viele CPU-Kerne, wie der Pool Threads hat. Der
+ * aufrufende Tomcat-Worker wartet dabei blockierend auf das Ergebnis (höchstens maxWait).
+ * Ist die Warteschlange voll, wird sofort, nach Ablauf von maxWait verzögert eine
+ * {@link BusyException} geworfen (→ 503 mit Retry-After im AuthController).
+ *
+ * Metriken: auth.password.queue.wait, auth.password.hash.time, auth.password.queue.depth,
+ * auth.password.rejected.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final BCryptCostCalibrator costCalibrator;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    private final Timer queueWaitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param passwordEncoder der eigentliche (BCrypt-)Encoder
+     * @param costCalibrator  liefert den aktuell gültigen Kostenfaktor
+     * @param meterRegistry   Registry für die Metriken
+     * @param threads         Anzahl paralleler Hash-Threads (Standard: Anzahl CPU-Kerne)
+     * @param queueCapacity   maximale Anzahl wartender Hash-Aufträge
+     * @param maxWait         maximale Gesamtwartezeit eines Aufrufers
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  BCryptCostCalibrator costCalibrator,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.max-wait:PT5S}") Duration maxWait) {
+        this.passwordEncoder = passwordEncoder;
+        this.costCalibrator = costCalibrator;
+        this.maxWait = maxWait;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Wartezeit eines Hash-Auftrags in der Warteschlange")
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hash.time")
+                .description("Dauer einer BCrypt-Operation")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash.time")
+                .description("Dauer einer BCrypt-Operation")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Abgewiesene Hash-Aufträge (Pool ausgelastet)")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Aktuell wartende Hash-Aufträge")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hasht ein Passwort auf dem Hash-Pool.
+     *
+     * @param rawPassword das Klartext-Passwort
+     * @return der Hash
+     * @throws BusyException wenn der Pool ausgelastet ist
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Vergleicht ein Passwort mit einem gespeicherten Hash auf dem Hash-Pool.
+     *
+     * @param rawPassword     das Klartext-Passwort
+     * @param encodedPassword der gespeicherte Hash
+     * @return true, wenn das Passwort passt
+     * @throws BusyException wenn der Pool ausgelastet ist
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Prüft, ob ein gespeicherter Hash mit einem anderen als dem aktuellen Kostenfaktor erstellt wurde
+     * und daher beim nächsten erfolgreichen Login neu gehasht werden sollte.
+     *
+     * @param encodedPassword der gespeicherte Hash
+     * @return true, wenn ein Rehash nötig ist
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return costCalibrator.needsRehash(encodedPassword);
+    }
+
+    /**
+     * Reicht die Operation an den Pool weiter und wartet höchstens maxWait auf das Ergebnis.
+     */
+    private <T> T execute(Timer hashTimer, Supplier<T> operation) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new BusyException("Passwort-Hashing ausgelastet", e);
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new BusyException("Zeitüberschreitung beim Passwort-Hashing", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Passwort-Hashing unterbrochen", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Fährt den Hash-Pool beim Herunterfahren der Anwendung herunter.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wird geworfen, wenn der Hash-Pool ausgelastet ist und der Aufruf abgewiesen wird.
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
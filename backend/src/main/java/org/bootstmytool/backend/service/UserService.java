@@ -1,27 +1,68 @@
 package org.bootstmytool.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bootstmytool.backend.dto.UserIdentity;
 import org.bootstmytool.backend.model.User;
 import org.bootstmytool.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Optional;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.1
  * @Date: 2025-09-24
  *
  * Service-Klasse für Benutzer-Operationen.
+ * Hält zusätzlich einen Cache der Benutzeridentitäten (ID, E-Mail, Passwort-Hash), damit
+ * authentifizierte Anfragen im Normalfall keine findByEmail-Abfrage mehr auslösen.
+ * Metriken erscheinen unter /actuator/metrics (cache=users.identity).
  */
 
 @Service
-public class UserService {
+public class UserService implements MeterBinder {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${user.cache.max-size:10000}")
+    private long identityCacheMaxSize;
+
+    @Value("${user.cache.ttl:PT10M}")
+    private Duration identityCacheTtl;
+
+    /** Cache: E-Mail → Benutzeridentität. Nicht vorhandene Benutzer werden nicht gecacht. */
+    private Cache<String, UserIdentity> identityCache;
+
+    /**
+     * Baut den Identitäts-Cache beim Start auf.
+     */
+    @PostConstruct
+    public void init() {
+        identityCache = Caffeine.newBuilder()
+                .maximumSize(identityCacheMaxSize)
+                .expireAfterWrite(identityCacheTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registriert die Cache-Metriken bei Actuator/Micrometer.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, identityCache, "users.identity");
+    }
+
     /**
      * Holt einen Benutzer basierend auf dem Benutzernamen.
      *
@@ -38,4 +79,42 @@ public class UserService {
     public Optional<User> findByUsername(String username) {
         return userRepository.findByEmail(username);
     }
+
+    /**
+     * Liefert die Identität (ID, E-Mail, Passwort-Hash) eines Benutzers.
+     * Nur beim ersten Zugriff bzw. nach einer Invalidierung wird die Datenbank abgefragt.
+     *
+     * @param email die E-Mail des Benutzers.
+     * @return die Identität oder Optional.empty(), wenn kein Benutzer existiert.
+     */
+    public Optional<UserIdentity> findIdentityByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(identityCache.get(email, key -> userRepository.findByEmail(key)
+                .map(user -> new UserIdentity(user.getId(), user.getEmail(), user.getPassword()))
+                .orElse(null)));
+    }
+
+    /**
+     * Entfernt die zwischengespeicherte Identität, z.B. nach Registrierung oder Passwortänderung.
+     *
+     * @param email die E-Mail des geänderten Benutzers.
+     */
+    public void evictIdentity(String email) {
+        if (email != null) {
+            identityCache.invalidate(email);
+        }
+    }
+
+    /**
+     * Liefert eine Referenz (Proxy) auf den Benutzer, ohne ihn aus der Datenbank zu laden.
+     * Ausreichend zum Setzen von Fremdschlüsseln, z.B. beim Erstellen einer Notiz.
+     *
+     * @param id die ID des Benutzers.
+     * @return Referenz auf den Benutzer.
+     */
+    public User getReference(long id) {
+        return userRepository.getReferenceById((int) id);
+    }
 }
@@ -0,0 +1,115 @@
+package org.bootstmytool.backend.storage;
+
+import org.bootstmytool.backend.model.ImageVariant;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Ablage für Bilddateien. Dateien werden über Schlüssel adressiert: Originale über ihren
+ * Dateinamen (Image.url), Varianten über "variants/{thumb|medium}/{Dateiname}".
+ * Wie die Schlüssel physisch abgelegt werden (Verzeichnisstruktur, Objektspeicher), entscheidet
+ * die Implementierung; Standard ist {@link LocalImageStorage} (image.storage.type=local).
+ *
+ * Inhalte unter einem Schlüssel werden nie verändert, nur angelegt, "berührt" oder gelöscht.
+ */
+public interface ImageStorage {
+
+    /** Präfix der Variantenschlüssel */
+    String VARIANTS_PREFIX = "variants";
+
+    /** Erlaubte Dateinamen: keine Pfadtrenner, kein führender Punkt */
+    Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+
+    /**
+     * Legt eine leere temporäre Datei an, die später per {@link #put} übernommen werden kann.
+     * Lokale Implementierungen legen sie so an, dass das Übernehmen ein atomares Verschieben ist.
+     */
+    Path createTempFile() throws IOException;
+
+    /**
+     * Übernimmt eine fertig geschriebene Datei unter dem Schlüssel. Die Quelldatei gehört danach
+     * dem Speicher (wird verschoben oder gelöscht). Ein vorhandener Inhalt wird ersetzt.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Größe und Änderungszeitpunkt oder Optional.empty(), wenn der Schlüssel nicht existiert.
+     */
+    Optional<StoredImage> stat(String key) throws IOException;
+
+    /**
+     * Öffnet den Inhalt zum Lesen.
+     *
+     * @throws java.nio.file.NoSuchFileException wenn der Schlüssel nicht existiert
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Pfad im lokalen Dateisystem, falls der Inhalt dort liegt (ermöglicht sendfile/transferTo).
+     */
+    Optional<Path> localPath(String key) throws IOException;
+
+    /**
+     * Setzt den Änderungszeitpunkt auf jetzt (z.B. wenn ein identischer Inhalt erneut hochgeladen wird).
+     *
+     * @return false, wenn der Schlüssel nicht existiert
+     */
+    boolean touch(String key) throws IOException;
+
+    /**
+     * @return true, wenn etwas gelöscht wurde
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Listet die gespeicherten Originale und Varianten seitenweise in einer stabilen Reihenfolge
+     * (z.B. für die Bereinigung verwaister Dateien). Die Marke ist undurchsichtig; Einträge, die
+     * während des Durchlaufs hinzukommen, können fehlen.
+     *
+     * @param cursor nextCursor der vorigen Seite oder null für den Anfang
+     * @param limit  maximale Anzahl Einträge der Seite
+     */
+    StoragePage list(String cursor, int limit) throws IOException;
+
+    /**
+     * Schlüssel einer Variante.
+     */
+    static String variantKey(ImageVariant variant, String name) {
+        return VARIANTS_PREFIX + "/" + variant.directoryName() + "/" + name;
+    }
+
+    /**
+     * Prüft einen Dateinamen (letztes Segment eines Schlüssels).
+     */
+    static boolean isValidName(String name) {
+        return name != null && VALID_NAME.matcher(name).matches();
+    }
+
+    /**
+     * Prüft einen Schlüssel: ein Dateiname oder ein Variantenschlüssel.
+     *
+     * @throws IllegalArgumentException bei ungültigen Schlüsseln (z.B. Pfadanteile wie "..")
+     */
+    static void checkKey(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Ungültiger Schlüssel: null");
+        }
+        String[] segments = key.split("/", -1);
+        boolean valid = switch (segments.length) {
+            case 1 -> isValidName(segments[0]);
+            case 3 -> VARIANTS_PREFIX.equals(segments[0]) && isValidName(segments[1]) && isValidName(segments[2]);
+            default -> false;
+        };
+        if (!valid) {
+            throw new IllegalArgumentException("Ungültiger Schlüssel: " + key);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.bootstmytool.backend.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Verschiebt beim Start die Dateien der alten flachen Ablage in die verteilte Verzeichnisstruktur
+ * von {@link LocalImageStorage}. Die Migration läuft in einem Hintergrund-Thread, die Anwendung
+ * nimmt währenddessen bereits Anfragen an (Dateien werden an beiden Orten gefunden).
+ * Abschalten mit image.storage.migration.enabled=false.
+ */
+@Component
+public class ImageStorageMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageMigration.class);
+
+    private final ImageStorage imageStorage;
+    private final boolean enabled;
+
+    public ImageStorageMigration(ImageStorage imageStorage,
+                                 @Value("${image.storage.migration.enabled:true}") boolean enabled) {
+        this.imageStorage = imageStorage;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !(imageStorage instanceof LocalImageStorage local)) {
+            return;
+        }
+        Thread thread = new Thread(() -> migrate(local), "image-storage-migration");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    private void migrate(LocalImageStorage local) {
+        try {
+            int moved = local.migrateLegacyLayout();
+            if (moved > 0) {
+                log.info("{} Bilddateien in die verteilte Ablage verschoben", moved);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Migration der Bildablage abgebrochen: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package org.bootstmytool.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.1
+ * @Date: 2025-09-24
+ *
+ * Ablage im lokalen Dateisystem unter image.upload.dir mit zweistufiger Verteilung:
+ * {root}/ab/cd/{Dateiname} bzw. {root}/variants/thumb/ab/cd/{Dateiname}, wobei "abcd" die
+ * ersten vier Hex-Zeichen des SHA-256 des Dateinamens sind. Kein Verzeichnis enthält damit
+ * mehr als 256 Einträge bzw. einen kleinen Bruchteil aller Dateien.
+ *
+ * Dateien aus der früheren flachen Ablage ({root}/{Dateiname}) werden weiterhin gefunden,
+ * bis {@link #migrateLegacyLayout()} sie verschoben hat (siehe ImageStorageMigration).
+ *
+ * {@link #list} durchläuft den Baum in sortierter Reihenfolge; die Marke ist der relative Pfad
+ * der zuletzt gelieferten Datei, fortgesetzt wird ohne die übersprungenen Verzeichnisse zu lesen.
+ */
+@Component
+@ConditionalOnProperty(name = "image.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalImageStorage implements ImageStorage {
+
+    /** Leere Marke: alle Einträge eines Verzeichnisses liefern */
+    private static final String[] NO_CURSOR = new String[0];
+
+    private final Path root;
+
+    public LocalImageStorage(@Value("${image.upload.dir:data/images/}") Path root) {
+        this.root = root.normalize();
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        Files.createDirectories(root);
+        return Files.createTempFile(root, ".upload-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Quelle liegt auf einem anderen Dateisystem
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // Eine ältere flache Kopie desselben Schlüssels ist damit überholt
+        Files.deleteIfExists(legacyPath(key));
+    }
+
+    @Override
+    public Optional<StoredImage> stat(String key) throws IOException {
+        Path file = find(key);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(new StoredImage(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty(); // zwischenzeitlich gelöscht
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path file = find(key);
+        if (file == null) {
+            throw new NoSuchFileException(key);
+        }
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.ofNullable(find(key));
+    }
+
+    @Override
+    public boolean touch(String key) throws IOException {
+        Path file = find(key);
+        if (file == null) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean sharded = Files.deleteIfExists(shardedPath(key));
+        boolean legacy = Files.deleteIfExists(legacyPath(key));
+        return sharded || legacy;
+    }
+
+    @Override
+    public StoragePage list(String cursor, int limit) throws IOException {
+        Listing listing = new Listing(limit);
+        if (limit <= 0 || !Files.isDirectory(root)) {
+            return new StoragePage(listing.entries, null);
+        }
+        String[] after = cursor == null || cursor.isEmpty() ? NO_CURSOR : cursor.split("/");
+        boolean complete = walk(root, after, 0, listing);
+        String next = complete ? null : root.relativize(listing.last).toString().replace('\\', '/');
+        return new StoragePage(listing.entries, next);
+    }
+
+    /**
+     * Löscht liegengebliebene Temp-Dateien (.upload-*.tmp) direkt unter dem Wurzelverzeichnis,
+     * z.B. von abgebrochenen Uploads oder einem Neustart mitten im Schreiben.
+     *
+     * @param olderThan nur Dateien, die vor diesem Zeitpunkt zuletzt geändert wurden
+     * @return Anzahl und Größe der gelöschten Dateien als {Anzahl, Bytes}
+     */
+    public long[] deleteStaleTempFiles(Instant olderThan) throws IOException {
+        long[] deleted = {0, 0};
+        if (!Files.isDirectory(root)) {
+            return deleted;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, ".upload-*.tmp")) {
+            for (Path file : files) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile() && attributes.lastModifiedTime().toInstant().isBefore(olderThan)
+                            && Files.deleteIfExists(file)) {
+                        deleted[0]++;
+                        deleted[1] += attributes.size();
+                    }
+                } catch (NoSuchFileException e) {
+                    // inzwischen übernommen oder gelöscht
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Durchläuft dir sortiert und sammelt Einträge hinter der Marke (after ab Position depth).
+     *
+     * @return false, sobald das Limit der Seite erreicht ist (es kann weitere Einträge geben)
+     */
+    private boolean walk(Path dir, String[] after, int depth, Listing listing) throws IOException {
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir,
+                p -> !p.getFileName().toString().startsWith("."))) {
+            stream.forEach(children::add);
+        } catch (NoSuchFileException e) {
+            return true; // Verzeichnis inzwischen entfernt
+        }
+        children.sort(Comparator.comparing(p -> p.getFileName().toString()));
+
+        for (Path child : children) {
+            String name = child.getFileName().toString();
+            String[] childAfter = NO_CURSOR;
+            if (depth < after.length) {
+                int cmp = name.compareTo(after[depth]);
+                if (cmp < 0) {
+                    continue; // vollständig vor der Marke
+                }
+                if (cmp == 0) {
+                    if (!Files.isDirectory(child)) {
+                        continue; // die zuletzt gelieferte Datei
+                    }
+                    childAfter = after; // innerhalb dieses Verzeichnisses fortsetzen
+                }
+            }
+            if (Files.isDirectory(child)) {
+                if (!walk(child, childAfter, childAfter == NO_CURSOR ? 0 : depth + 1, listing)) {
+                    return false;
+                }
+            } else if (listing.entries.size() < listing.limit) {
+                StoredImage entry = toEntry(child);
+                if (entry != null) {
+                    listing.entries.add(entry);
+                    listing.last = child;
+                }
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Eintrag zu einer Datei, wenn sie an der für ihren Schlüssel vorgesehenen Stelle liegt
+     * (verteilt oder flach); fremde Dateien werden ignoriert.
+     */
+    private StoredImage toEntry(Path file) throws IOException {
+        Path relative = root.relativize(file);
+        String name = file.getFileName().toString();
+        String key = relative.getNameCount() > 2 && VARIANTS_PREFIX.equals(relative.getName(0).toString())
+                ? VARIANTS_PREFIX + "/" + relative.getName(1) + "/" + name
+                : name;
+        try {
+            if (!file.equals(shardedPath(key)) && !file.equals(legacyPath(key))) {
+                return null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new StoredImage(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            return null; // kein gültiger Schlüssel bzw. inzwischen gelöscht
+        }
+    }
+
+    /**
+     * Verschiebt alle Dateien der flachen Ablage (Originale und Varianten) in die verteilte Struktur.
+     * Läuft im laufenden Betrieb: Jede Datei wird einzeln atomar verschoben, Leser finden sie vorher
+     * und nachher. Existiert das Ziel bereits, wird die flache Kopie verworfen (gleicher Name =
+     * gleicher Inhalt).
+     *
+     * @return Anzahl der verschobenen Dateien
+     */
+    public int migrateLegacyLayout() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>(legacyNames(root, ""));
+        Path variantsDir = root.resolve(VARIANTS_PREFIX);
+        if (Files.isDirectory(variantsDir)) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(variantsDir, Files::isDirectory)) {
+                for (Path variantDir : variants) {
+                    keys.addAll(legacyNames(variantDir,
+                            VARIANTS_PREFIX + "/" + variantDir.getFileName() + "/"));
+                }
+            }
+        }
+
+        int moved = 0;
+        for (String key : keys) {
+            Path legacy = legacyPath(key);
+            Path target = shardedPath(key);
+            if (Files.exists(target)) {
+                Files.deleteIfExists(legacy);
+                continue;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(legacy, target, StandardCopyOption.ATOMIC_MOVE);
+                moved++;
+            } catch (NoSuchFileException e) {
+                // inzwischen gelöscht
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Schlüssel aller Dateien direkt in dir, deren Name ein gültiger Bildname ist
+     * (Temp-Dateien beginnen mit einem Punkt und werden übersprungen).
+     */
+    private static List<String> legacyNames(Path dir, String keyPrefix) throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (ImageStorage.isValidName(name)) {
+                    keys.add(keyPrefix + name);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Vorhandene Datei zum Schlüssel (verteilt oder noch flach) oder null.
+     * Die verteilte Ablage wird zweimal geprüft, damit eine gerade laufende Migration
+     * zwischen den beiden Prüfungen nicht zu einem Fehlschlag führt.
+     */
+    private Path find(String key) {
+        Path sharded = shardedPath(key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path legacy = legacyPath(key);
+        if (Files.isRegularFile(legacy)) {
+            return legacy;
+        }
+        return Files.isRegularFile(sharded) ? sharded : null;
+    }
+
+    Path shardedPath(String key) {
+        ImageStorage.checkKey(key);
+        int slash = key.lastIndexOf('/');
+        String name = key.substring(slash + 1);
+        Path parent = slash < 0 ? root : root.resolve(key.substring(0, slash));
+        String hash = HexFormat.of().formatHex(sha256(name));
+        return parent.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+
+    Path legacyPath(String key) {
+        ImageStorage.checkKey(key);
+        return root.resolve(key);
+    }
+
+    private static byte[] sha256(String name) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+
+    /**
+     * Zwischenstand beim Listen einer Seite.
+     */
+    private static final class Listing {
+        private final int limit;
+        private final List<StoredImage> entries = new ArrayList<>();
+        /** zuletzt gelieferte Datei (Grundlage der Marke) */
+        private Path last;
+
+        private Listing(int limit) {
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.bootstmytool.backend.storage;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Eine Seite aus {@link ImageStorage#list(String, int)}: die Einträge und die Marke, mit der
+ * die nächste Seite abgefragt wird (null, wenn alles gelistet wurde).
+ */
+@Getter
+public final class StoragePage {
+
+    private final List<StoredImage> entries;
+    private final String nextCursor;
+
+    public StoragePage(List<StoredImage> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+}
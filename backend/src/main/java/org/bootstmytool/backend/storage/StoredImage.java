@@ -0,0 +1,31 @@
+package org.bootstmytool.backend.storage;
+
+import lombok.Getter;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Größe und Änderungszeitpunkt eines Eintrags im {@link ImageStorage}.
+ */
+@Getter
+public final class StoredImage {
+
+    private final String key;
+    private final long size;
+    private final long lastModified; // Millisekunden seit Epoch
+
+    public StoredImage(String key, long size, long lastModified) {
+        this.key = key;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return der Dateiname (letztes Segment des Schlüssels)
+     */
+    public String getName() {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+}
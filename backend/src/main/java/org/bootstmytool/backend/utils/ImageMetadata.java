@@ -0,0 +1,148 @@
+package org.bootstmytool.backend.utils;
+
+import org.bootstmytool.backend.model.Image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.2
+ * @Date: 2025-09-24
+ *
+ * Ermittelt die Metadaten einer gespeicherten Bilddatei (Größe, MIME-Typ, SHA-256, Abmessungen)
+ * und setzt sie am Image. Die Datei wird dabei nur gestreamt; für die Abmessungen liest der
+ * ImageReader lediglich den Header, das Bild wird nicht dekodiert.
+ */
+public final class ImageMetadata {
+
+    /** Anzahl Bytes, die für die Typerkennung benötigt werden */
+    static final int SNIFF_LENGTH = 12;
+
+    private ImageMetadata() {
+    }
+
+    /**
+     * Liest die Metadaten der Datei und überträgt sie auf das Image.
+     *
+     * @param image        das zu ergänzende Image.
+     * @param file         die gespeicherte Bilddatei.
+     * @param declaredType vom Client angegebener MIME-Typ (Fallback, darf null sein).
+     */
+    public static void apply(Image image, Path file, String declaredType) throws IOException {
+        image.setSize(Files.size(file));
+        image.setChecksum(sha256(file));
+
+        byte[] head = new byte[SNIFF_LENGTH];
+        int headLength;
+        try (InputStream in = Files.newInputStream(file)) {
+            headLength = in.readNBytes(head, 0, head.length);
+        }
+        String contentType = sniffContentType(head, headLength);
+        if (contentType == null) {
+            contentType = Files.probeContentType(file);
+        }
+        if (contentType == null) {
+            contentType = declaredType != null ? declaredType : "application/octet-stream";
+        }
+        image.setContentType(contentType);
+
+        readDimensions(image, file);
+    }
+
+    /**
+     * Setzt Breite und Höhe aus dem Bild-Header (null, wenn kein passender Reader existiert).
+     */
+    public static void readDimensions(Image image, Path file) throws IOException {
+        image.setWidth(null);
+        image.setHeight(null);
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                image.setWidth(reader.getWidth(0));
+                image.setHeight(reader.getHeight(0));
+            } catch (IOException e) {
+                // Header nicht lesbar → Abmessungen bleiben leer
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Erkennt gängige Bildformate anhand ihrer Signatur (Magic Bytes).
+     *
+     * @return der MIME-Typ oder null, wenn das Format unbekannt ist.
+     */
+    public static String sniffContentType(byte[] head, int length) {
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return "image/png";
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(head, length, 'B', 'M')) return "image/bmp";
+        if (length >= 12 && startsWith(head, length, 'R', 'I', 'F', 'F')
+                && new String(head, 8, 4, StandardCharsets.US_ASCII).equals("WEBP")) return "image/webp";
+        return null;
+    }
+
+    /**
+     * Erkennt das Bildformat der Datei anhand ihrer ersten Bytes.
+     *
+     * @return der MIME-Typ oder null, wenn das Format unbekannt ist.
+     */
+    public static String sniffContentType(Path file) throws IOException {
+        byte[] head = new byte[SNIFF_LENGTH];
+        int headLength;
+        try (InputStream in = Files.newInputStream(file)) {
+            headLength = in.readNBytes(head, 0, head.length);
+        }
+        return sniffContentType(head, headLength);
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SHA-256 der Datei als Hex-String (gestreamt).
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 nicht verfügbar", e);
+        }
+    }
+}
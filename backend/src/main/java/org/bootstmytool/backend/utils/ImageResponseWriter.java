@@ -0,0 +1,295 @@
+package org.bootstmytool.backend.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.3
+ * @Date: 2025-09-24
+ *
+ * Schreibt eine Bilddatei direkt in die HTTP-Antwort.
+ * - Content-Type, Content-Length, ETag und Last-Modified werden immer gesetzt
+ * - If-None-Match / If-Modified-Since → 304 ohne Body
+ * - Range (ein Bereich, optional mit If-Range) → 206 bzw. 416
+ * - Der Body wird per sendfile (Tomcat, ab {@link #SENDFILE_MIN_SIZE}) oder per
+ *   FileChannel.transferTo übertragen, ohne die Datei in einen Puffer zu laden;
+ *   Bilder aus dem HotImageCache werden direkt aus dem Speicher geschrieben, Einträge
+ *   nicht-lokaler Bildspeicher aus deren Stream.
+ *
+ * Da Dateinamen inhaltsadressiert sind, ändert sich der Inhalt hinter einer URL nicht;
+ * solche Antworten dürfen daher als "immutable" ein Jahr lang gecacht werden.
+ */
+public final class ImageResponseWriter {
+
+    /** Cache-Control für unveränderliche Dateien */
+    public static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /** Cache-Control für Antworten, die sich später noch ändern können (z.B. Original statt Variante) */
+    public static final String CACHE_SHORT = "public, max-age=300";
+
+    /** Ab dieser Größe wird sendfile genutzt (entspricht Tomcats Standard für statische Dateien) */
+    static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /** Markiert einen syntaktisch gültigen, aber nicht erfüllbaren Bereich (→ 416) */
+    static final long[] UNSATISFIABLE = new long[0];
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private ImageResponseWriter() {
+    }
+
+    /**
+     * Liefert einen Eintrag des Bildspeichers aus. Liegt er lokal, wird die Datei per
+     * sendfile/transferTo übertragen, sonst aus dem Stream des Speichers kopiert.
+     *
+     * @param stored       der Eintrag (aus {@link ImageStorage#stat})
+     * @param etagPrefix   unterscheidet verschiedene Darstellungen desselben Namens (z.B. Varianten)
+     * @param cacheControl Wert für den Cache-Control-Header
+     */
+    public static void write(ImageStorage storage, StoredImage stored, String etagPrefix, String cacheControl,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<Path> local = storage.localPath(stored.getKey());
+        if (local.isPresent()) {
+            write(local.get(), etagPrefix, cacheControl, request, response);
+            return;
+        }
+        long[] range = prepare(stored.getName(), stored.getSize(), stored.getLastModified(),
+                etagPrefix, cacheControl, request, response);
+        if (range == null) {
+            return;
+        }
+        try (InputStream in = storage.open(stored.getKey())) {
+            StreamUtils.copyRange(in, response.getOutputStream(), range[0], range[1]);
+        }
+    }
+
+    /**
+     * Liefert die Datei (oder einen Teil davon) aus bzw. beantwortet bedingte Anfragen.
+     *
+     * @param file         die auszuliefernde Datei (muss existieren)
+     * @param etagPrefix   unterscheidet verschiedene Darstellungen desselben Namens (z.B. Varianten)
+     * @param cacheControl Wert für den Cache-Control-Header
+     */
+    public static void write(Path file, String etagPrefix, String cacheControl,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long[] range = prepare(file.getFileName().toString(), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), etagPrefix, cacheControl, request, response);
+        if (range == null) {
+            return;
+        }
+        long start = range[0];
+        long length = range[1] - range[0] + 1;
+
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat überträgt die Datei nach Rückkehr des Controllers direkt vom Kernel auf den Socket
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break; // Datei wurde zwischenzeitlich gekürzt
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    /**
+     * Wie {@link #write(Path, String, String, HttpServletRequest, HttpServletResponse)}, aber für
+     * bereits im Speicher liegende Bilder (siehe HotImageCache) – ohne Zugriff auf das Dateisystem.
+     *
+     * @param fileName     Dateiname (für Content-Type und ETag)
+     * @param data         kompletter Dateiinhalt
+     * @param lastModified Änderungszeitpunkt der Datei in Millisekunden
+     */
+    public static void write(String fileName, byte[] data, long lastModified, String etagPrefix, String cacheControl,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long[] range = prepare(fileName, data.length, lastModified, etagPrefix, cacheControl, request, response);
+        if (range != null) {
+            response.getOutputStream().write(data, (int) range[0], (int) (range[1] - range[0] + 1));
+        }
+    }
+
+    /**
+     * Setzt Status und Header und wertet bedingte Anfragen sowie Range aus.
+     *
+     * @return der zu sendende Bereich {start, end} (inklusive) oder null, wenn kein Body folgt
+     * (304, 416, HEAD oder leere Datei)
+     */
+    private static long[] prepare(String fileName, long size, long lastModifiedMillis, String etagPrefix,
+                                  String cacheControl, HttpServletRequest request,
+                                  HttpServletResponse response) {
+        long lastModified = lastModifiedMillis / 1000 * 1000;
+        String etag = etag(etagPrefix, fileName, size);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+
+        response.setContentType(contentType(fileName).toString());
+
+        long start = 0;
+        long end = size - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            long[] range = parseRange(rangeHeader, size);
+            if (range == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return null;
+            }
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return null;
+        }
+        return new long[]{start, end};
+    }
+
+    /**
+     * ETag aus Darstellung, Dateiname und Größe. Dateinamen sind inhaltsadressiert
+     * (bzw. bei Altbildern eindeutig), daher reicht das als starker Validator.
+     */
+    static String etag(String prefix, String fileName, long size) {
+        return "\"" + prefix + "-" + fileName + "-" + Long.toHexString(size) + "\"";
+    }
+
+    /**
+     * Medientyp anhand der Dateiendung, sofern es ein angenommenes Bildformat ist; sonst
+     * application/octet-stream (ältere Dateien mit z.B. .html oder .svg werden so nicht interpretiert).
+     */
+    static MediaType contentType(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName)
+                .filter(type -> ProcessImage.isSupportedContentType(type.toString()))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * If-None-Match hat Vorrang; nur ohne diesen Header wird If-Modified-Since ausgewertet.
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * Ein Range gilt nur, wenn If-Range fehlt oder noch zur aktuellen Datei passt.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"")) {
+            return ifRange.trim().equals(etag);
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Wertet einen Range-Header mit genau einem Byte-Bereich aus.
+     *
+     * @return {start, end} (inklusive), {@link #UNSATISFIABLE} oder null, wenn der Header
+     * ignoriert und die ganze Datei geliefert werden soll (ungültig oder mehrere Bereiche)
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix: die letzten n Bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[]{Math.max(0, size - suffix), size - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                return null;
+            }
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,55 +1,237 @@
 package org.bootstmytool.backend.utils;
 
 import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.Objects;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * @Author: Mohamed Elslakawy
- * @Version: 1.0
+ * @Version: 1.5
  * @Date: 2025-09-24
  *
  * Klasse, die die Verarbeitung von Bildern behandelt.
+ * Ein Upload wird in einem einzigen Durchlauf mit festem Puffer in eine temporäre Datei
+ * gestreamt; dabei werden SHA-256 und Größe berechnet und der Typ anhand der ersten Bytes
+ * erkannt. Der Speicherbedarf pro Upload ist damit unabhängig von der Dateigröße.
+ * Angenommen werden nur die Formate aus {@link #EXTENSIONS}; Content-Type und Dateiname des
+ * Clients werden nie übernommen (sonst ließe sich z.B. HTML oder SVG als Bild ablegen).
+ *
+ * Die Ablage ist inhaltsadressiert: Der Dateiname ist der SHA-256 des Inhalts plus Endung.
+ * Identische Uploads landen in derselben Datei; die Image-Zeilen mit dieser url sind die
+ * Referenzen, die Datei wird erst gelöscht, wenn keine mehr übrig ist (releaseFile).
+ * Wo die Datei physisch liegt, entscheidet der {@link ImageStorage}.
  */
 
 public class ProcessImage {
 
+    /** Größe des Kopierpuffers */
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     /**
-     * Processes behandelte das Bild und speichert es im Dateisystem.
+     * Eine Datei, die so kürzlich (erneut) hochgeladen wurde, wird nicht gelöscht – ein
+     * paralleler Upload desselben Inhalts legt seine Image-Zeile evtl. gerade erst an.
      */
-    public static Image processImage(MultipartFile file) {
-        try {
-            // erstelle einen Ordner für die Bilder, wenn er noch nicht existiert
-            Path imagePath = Path.of("backend/src/main/resources/static/images/");
-            if (!Files.exists(imagePath)) {
-                Files.createDirectories(imagePath);
-            }
+    static final Duration RECENT_UPLOAD_GRACE = Duration.ofMinutes(1);
+
+    /**
+     * Dateinamen, die diese Anwendung vergibt: SHA-256 des Inhalts plus Endung, in älteren Versionen
+     * Zeitstempel in Millisekunden plus bereinigter Originalname.
+     */
+    private static final Pattern GENERATED_NAME =
+            Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,5}|[0-9]{10,}_[A-Za-z0-9._-]+");
 
-            //erstelle einen eindeutigen Bildnamen
-            String imageName = System.currentTimeMillis() + "_" + Objects.requireNonNull(file.getOriginalFilename()).replaceAll("[^a-zA-Z0-9._-]", "_");
-            Path targetPath = imagePath.resolve(imageName);
+    /** Dateiendungen für die erkannten MIME-Typen */
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/png", "png",
+            "image/jpeg", "jpg",
+            "image/gif", "gif",
+            "image/bmp", "bmp",
+            "image/webp", "webp"
+    );
+
+    /**
+     * Processes behandelte das Bild und speichert es im Bildspeicher.
+     */
+    public static Image processImage(MultipartFile file, ImageStorage storage) {
+        try {
+            return store(file, storage);
+        } catch (IOException e) {
 
-            // speichere das Bild im Dateisystem
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            throw new RuntimeException("Fehler beim Verarbeiten des Bildes: " + e.getMessage());
+        }
+    }
 
-            // erstelle ein Image-Objekt und setze die Bilddaten
+    /**
+     * Speichert den Upload inhaltsadressiert im Bildspeicher.
+     * Existiert der Inhalt bereits, wird nur dessen Zeitstempel aufgefrischt.
+     *
+     * @throws UnsupportedImageTypeException wenn der Inhalt kein unterstütztes Bildformat ist
+     */
+    static Image store(MultipartFile file, ImageStorage storage) throws IOException {
+        // Temp-Datei vom Speicher, damit das Übernehmen möglichst ein atomares Verschieben ist
+        Path tempPath = storage.createTempFile();
+        try {
             Image image = new Image();
-            image.setData(file.getBytes());
+            streamToFile(file, tempPath, image);
+            String extension = extensionFor(image.getContentType());
+
+            // Abmessungen aus dem Header (kein Dekodieren)
+            ImageMetadata.readDimensions(image, tempPath);
+
+            // Dateiname = SHA-256 des Inhalts → gleiche Bilder werden nur einmal gespeichert
+            String imageName = image.getChecksum() + "." + extension;
+            if (!storage.touch(imageName)) {
+                storage.put(imageName, tempPath);
+            }
             image.setUrl(imageName);  // Store only the image name
             return image;
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Übernimmt eine bereits vollständig vorliegende Datei (z.B. aus einem Upload in Teilstücken)
+     * inhaltsadressiert in den Bildspeicher. Die Quelldatei wird dabei verschoben bzw. gelöscht.
+     *
+     * @param source  die fertige Datei.
+     * @param storage der Bildspeicher.
+     * @return das Image mit Dateiname und Metadaten (noch nicht gespeichert).
+     * @throws UnsupportedImageTypeException wenn der Inhalt kein unterstütztes Bildformat ist
+     */
+    public static Image storeFile(Path source, ImageStorage storage) throws IOException {
+        try {
+            // Typ vor dem Hashen prüfen – abgelehnte Dateien werden nicht weiter gelesen
+            String extension = extensionFor(ImageMetadata.sniffContentType(source));
+            Image image = new Image();
+            ImageMetadata.apply(image, source, null);
+
+            String imageName = image.getChecksum() + "." + extension;
+            if (!storage.touch(imageName)) {
+                storage.put(imageName, source);
+            }
+            image.setUrl(imageName);
+            return image;
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * @return true, wenn name ein von dieser Anwendung vergebener Bildname ist (siehe {@link #GENERATED_NAME});
+     * andere Dateien im Bildverzeichnis gehören nicht der Anwendung und werden nie automatisch gelöscht
+     */
+    public static boolean isGeneratedName(String name) {
+        return name != null && GENERATED_NAME.matcher(name).matches();
+    }
+
+    /**
+     * Löscht die Bilddatei samt Varianten, wenn keine Image-Zeile mehr auf sie verweist.
+     *
+     * @param storage        der Bildspeicher.
+     * @param imageName      Dateiname (Image.url).
+     * @param remainingRefs  Anzahl der Image-Zeilen, die nach dem Löschen noch auf die Datei zeigen.
+     * @return true, wenn die Datei gelöscht wurde.
+     */
+    public static boolean releaseFile(ImageStorage storage, String imageName, long remainingRefs) {
+        if (remainingRefs > 0 || !ImageStorage.isValidName(imageName)) {
+            return false;
+        }
+        try {
+            Optional<StoredImage> stored = storage.stat(imageName);
+            if (stored.isEmpty()) {
+                return false;
+            }
+            // Gerade erst erneut hochgeladen → Referenz entsteht evtl. noch; Datei behalten
+            Instant modified = Instant.ofEpochMilli(stored.get().getLastModified());
+            if (modified.isAfter(Instant.now().minus(RECENT_UPLOAD_GRACE))) {
+                return false;
+            }
+            boolean deleted = storage.delete(imageName);
+            for (ImageVariant variant : ImageVariant.values()) {
+                storage.delete(ImageStorage.variantKey(variant, imageName));
+            }
+            return deleted;
         } catch (IOException e) {
+            throw new RuntimeException("Failed to delete image file");
+        }
+    }
 
-            throw new RuntimeException("Fehler beim Verarbeiten des Bildes: " + e.getMessage());
+    /**
+     * Dateiendung für den erkannten Typ.
+     *
+     * @throws UnsupportedImageTypeException wenn der Typ unbekannt oder nicht erlaubt ist
+     */
+    static String extensionFor(String contentType) {
+        String ext = contentType != null ? EXTENSIONS.get(contentType) : null;
+        if (ext == null) {
+            throw new UnsupportedImageTypeException();
         }
+        return ext;
+    }
+
+    /**
+     * @return true, wenn Bilder dieses MIME-Typs angenommen (und damit auch ausgeliefert) werden
+     */
+    public static boolean isSupportedContentType(String contentType) {
+        return contentType != null && EXTENSIONS.containsKey(contentType);
+    }
 
+    /**
+     * Kopiert den Upload mit festem Puffer in die Zieldatei und setzt dabei Größe,
+     * Prüfsumme und (anhand der ersten Bytes erkannten) MIME-Typ am Image.
+     * Ist die Signatur unbekannt, bleibt der Typ null – die Angabe des Clients zählt nicht.
+     */
+    static void streamToFile(MultipartFile file, Path target, Image image) throws IOException {
+        MessageDigest digest = ImageMetadata.newSha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] head = new byte[ImageMetadata.SNIFF_LENGTH];
+        int headLength = 0;
+        long size = 0;
 
+        try (InputStream in = file.getInputStream();
+             OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (headLength < head.length) {
+                    int n = Math.min(read, head.length - headLength);
+                    System.arraycopy(buffer, 0, head, headLength, n);
+                    headLength += n;
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        }
+
+        String contentType = ImageMetadata.sniffContentType(head, headLength);
+        image.setSize(size);
+        image.setChecksum(HexFormat.of().formatHex(digest.digest()));
+        image.setContentType(contentType);
     }
 
+    /**
+     * Der Inhalt eines Uploads ist kein unterstütztes Bildformat.
+     */
+    public static class UnsupportedImageTypeException extends RuntimeException {
+        public UnsupportedImageTypeException() {
+            super("Nicht unterstütztes Dateiformat (erlaubt: PNG, JPEG, GIF, BMP, WebP)");
+        }
+    }
 
 }
@@ -0,0 +1,35 @@
+package org.bootstmytool.backend.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @Author: Mohamed Elslakawy
+ * @Version: 1.0
+ * @Date: 2025-09-24
+ *
+ * Nebenwirkungen außerhalb der Datenbank (Dateien löschen, Caches und Suchindex nachführen)
+ * erst ausführen, wenn die Transaktion erfolgreich abgeschlossen ist. Bei einem Rollback
+ * entfallen sie, sodass Datenbank, Dateien und Speicherstrukturen übereinstimmen.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Führt action nach dem Commit der laufenden Transaktion aus; ohne Transaktion sofort.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
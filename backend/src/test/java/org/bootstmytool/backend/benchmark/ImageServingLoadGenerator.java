@@ -0,0 +1,140 @@
+package org.bootstmytool.backend.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Lastgenerator für die Bildauslieferung (GET /image/{name}) gegen einen laufenden Server.
+ * Mehrere Clients laden dasselbe Bild wiederholt; ausgegeben werden Statuscodes,
+ * Anfragen pro Sekunde, übertragene MB/s und Latenzen.
+ *
+ * Ausführen (Server läuft, Bild ist hochgeladen):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath -Dload.url=http://localhost:8080/image/<name> \
+ *        org.bootstmytool.backend.benchmark.ImageServingLoadGenerator"
+ *
+ * Optionen: load.concurrency (16), load.requests (4000, insgesamt), load.conditional (false;
+ * true sendet das ETag der ersten Antwort als If-None-Match wie ein Browser mit Cache),
+ * load.range (z.B. "bytes=0-65535").
+ */
+public class ImageServingLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url");
+        if (url == null) {
+            throw new IllegalArgumentException("-Dload.url=<Bild-URL> fehlt");
+        }
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        int requests = Integer.getInteger("load.requests", 4000);
+        boolean conditional = Boolean.getBoolean("load.conditional");
+        String range = System.getProperty("load.range");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpResponse<byte[]> first = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (first.statusCode() != 200) {
+            throw new IllegalStateException("Bild nicht abrufbar: " + first.statusCode());
+        }
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        if (conditional && etag == null) {
+            System.out.println("Server liefert kein ETag – bedingte Anfragen nicht möglich");
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        if (conditional && etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (range != null) {
+            builder.header("Range", range);
+        }
+        HttpRequest request = builder.build();
+
+        // Aufwärmen, damit JIT und Verbindungen nicht in die Messung eingehen
+        runClients(client, request, concurrency, Math.max(concurrency, requests / 10));
+
+        long wallStart = System.nanoTime();
+        List<long[]> results = runClients(client, request, concurrency, requests);
+        long wallNanos = System.nanoTime() - wallStart;
+
+        Map<Long, Integer> statusCounts = new TreeMap<>();
+        List<Long> latencies = new ArrayList<>();
+        long bytes = 0;
+        for (long[] r : results) {
+            statusCounts.merge(r[0], 1, Integer::sum);
+            bytes += r[1];
+            latencies.add(r[2] / 1000);
+        }
+        Collections.sort(latencies);
+        double seconds = wallNanos / 1e9;
+        System.out.printf("Bild: %s (%d Bytes), ETag %s%n", url, first.body().length, etag);
+        System.out.printf("Anfragen: %d mit %d Clients, bedingt=%s, Range=%s%n", requests, concurrency, conditional, range);
+        System.out.printf("Status: %s%n", statusCounts);
+        System.out.printf("Durchsatz: %.0f Anfragen/s, %.1f MB/s%n",
+                requests / seconds, bytes / (1024.0 * 1024.0) / seconds);
+        System.out.printf("Latenz µs: p50=%d p95=%d p99=%d%n",
+                latencies.get(latencies.size() / 2),
+                latencies.get((int) Math.ceil(latencies.size() * 0.95) - 1),
+                latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1));
+    }
+
+    /**
+     * Verteilt die Anfragen auf feste Client-Threads und liefert je Anfrage {Status, Bytes, Dauer in ns}.
+     */
+    private static List<long[]> runClients(HttpClient client, HttpRequest request, int concurrency, int requests)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<long[]>>> futures = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            int share = requests / concurrency + (c < requests % concurrency ? 1 : 0);
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<long[]> own = new ArrayList<>(share);
+                for (int i = 0; i < share; i++) {
+                    long t0 = System.nanoTime();
+                    HttpResponse<InputStream> res = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                    long bytes = drain(res.body());
+                    own.add(new long[]{res.statusCode(), bytes, System.nanoTime() - t0});
+                }
+                return own;
+            }));
+        }
+        start.countDown();
+        List<long[]> all = new ArrayList<>(requests);
+        for (Future<List<long[]>> f : futures) {
+            all.addAll(f.get());
+        }
+        pool.shutdown();
+        return all;
+    }
+
+    private static long drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (in) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                total += n;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,192 @@
+package org.bootstmytool.backend.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Lastgenerator für den Bild-Upload (/image/{noteId}/images) gegen einen laufenden Server.
+ * Meldet sich an, legt eine Notiz an und lädt anschließend gleichzeitig mehrere große Dateien hoch.
+ * Währenddessen wird der Heap des Servers über /actuator/metrics abgefragt; ausgegeben werden
+ * Statuscodes, Latenzen sowie Heap vor dem Lauf und Spitzenwert.
+ *
+ * Ausführen (Server läuft, Benutzer ist registriert):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath -Dload.email=a@b.de -Dload.password=geheim \
+ *        org.bootstmytool.backend.benchmark.ImageUploadLoadGenerator"
+ *
+ * Optionen: load.baseUrl (http://localhost:8080), load.concurrency (50), load.sizeKb (10176,
+ * knapp unter dem 10-MB-Limit inkl. Multipart-Overhead).
+ */
+public class ImageUploadLoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+        String email = System.getProperty("load.email", "a@b.de");
+        String password = System.getProperty("load.password", "pw123456");
+        int concurrency = Integer.getInteger("load.concurrency", 50);
+        long sizeBytes = Long.getLong("load.sizeKb", 10 * 1024 - 64) * 1024;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(client, baseUrl, email, password);
+        int noteId = createNote(client, baseUrl, token);
+
+        Path upload = Files.createTempFile("upload-", ".png");
+        writeUploadFile(upload, sizeBytes);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong peakHeap = new AtomicLong();
+        long baselineHeap = heapUsed(client, baseUrl, token);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                try {
+                    peakHeap.accumulateAndGet(heapUsed(client, baseUrl, token), Math::max);
+                    Thread.sleep(100);
+                } catch (Exception e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                long t0 = System.nanoTime();
+                int status = uploadImage(client, baseUrl, token, noteId, upload);
+                return new long[]{status, System.nanoTime() - t0};
+            }));
+        }
+
+        long wallStart = System.nanoTime();
+        start.countDown();
+        Map<Long, Integer> statusCounts = new TreeMap<>();
+        List<Long> latencies = new ArrayList<>();
+        for (Future<long[]> f : results) {
+            long[] r = f.get();
+            statusCounts.merge(r[0], 1, Integer::sum);
+            latencies.add(r[1] / 1_000_000);
+        }
+        long wallMillis = (System.nanoTime() - wallStart) / 1_000_000;
+        running.set(false);
+        sampler.join();
+        pool.shutdown();
+        Files.deleteIfExists(upload);
+
+        Collections.sort(latencies);
+        System.out.printf("Uploads: %d x %d KB, Notiz %d%n", concurrency, sizeBytes / 1024, noteId);
+        System.out.printf("Status: %s%n", statusCounts);
+        System.out.printf("Latenz ms: p50=%d p95=%d max=%d, Gesamtdauer %d ms (%.1f MB/s)%n",
+                latencies.get(latencies.size() / 2),
+                latencies.get((int) Math.ceil(latencies.size() * 0.95) - 1),
+                latencies.get(latencies.size() - 1),
+                wallMillis,
+                (concurrency * (double) sizeBytes / (1024 * 1024)) / Math.max(1, wallMillis) * 1000);
+        System.out.printf("Server-Heap: vorher %d MB, Spitze %d MB%n", baselineHeap >> 20, peakHeap.get() >> 20);
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        String body = MAPPER.writeValueAsString(Map.of("email", email, "password", password));
+        HttpResponse<String> res = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 200) {
+            throw new IllegalStateException("Login fehlgeschlagen: " + res.statusCode() + " " + res.body());
+        }
+        return MAPPER.readTree(res.body()).get("token").asText();
+    }
+
+    private static int createNote(HttpClient client, String baseUrl, String token) throws Exception {
+        String boundary = UUID.randomUUID().toString();
+        String body = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\nLasttest\r\n"
+                + "--" + boundary + "\r\nContent-Disposition: form-data; name=\"description\"\r\n\r\nUploads\r\n"
+                + "--" + boundary + "--\r\n";
+        HttpResponse<String> res = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/notes/create"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (res.statusCode() != 201) {
+            throw new IllegalStateException("Notiz konnte nicht angelegt werden: " + res.statusCode());
+        }
+        return MAPPER.readTree(res.body()).get("id").asInt();
+    }
+
+    /**
+     * Sendet die Datei als Multipart-Body; der Client streamt sie direkt von der Platte.
+     */
+    private static int uploadImage(HttpClient client, String baseUrl, String token, int noteId, Path file)
+            throws IOException, InterruptedException {
+        String boundary = UUID.randomUUID().toString();
+        String head = "--" + boundary + "\r\nContent-Disposition: form-data; name=\"images\"; filename=\"last.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/image/" + noteId + "/images"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(file),
+                        HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static long heapUsed(HttpClient client, String baseUrl, String token) throws Exception {
+        HttpResponse<String> res = client.send(HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/actuator/metrics/jvm.memory.used?tag=area:heap"))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode measurements = MAPPER.readTree(res.body()).path("measurements");
+        return measurements.isArray() && measurements.size() > 0 ? measurements.get(0).path("value").asLong() : 0;
+    }
+
+    /**
+     * Schreibt eine Datei mit PNG-Signatur und Nullbytes in der gewünschten Größe.
+     */
+    private static void writeUploadFile(Path file, long size) throws IOException {
+        byte[] signature = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+        byte[] chunk = new byte[64 * 1024];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(signature);
+            long remaining = size - signature.length;
+            while (remaining > 0) {
+                int n = (int) Math.min(chunk.length, remaining);
+                out.write(chunk, 0, n);
+                remaining -= n;
+            }
+        }
+    }
+}
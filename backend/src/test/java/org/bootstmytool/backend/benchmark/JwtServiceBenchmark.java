@@ -0,0 +1,103 @@
+package org.bootstmytool.backend.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.bootstmytool.backend.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * JMH-Benchmark für den JwtService.
+ * Vergleicht den bisherigen Weg (Schlüssel und Parser bei jedem Aufruf neu bauen)
+ * mit dem aktuellen JwtService (Schlüssel und Parser einmalig beim Start).
+ *
+ * Ausführen:
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.bootstmytool.backend.benchmark.JwtServiceBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+    private static final long EXPIRATION = 86_400_000L;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "JWT_EXPIRATION_TIME", EXPIRATION);
+        jwtService.init();
+        token = jwtService.generateToken("benchmark@test.de");
+    }
+
+    // ── bisheriger Weg: Schlüssel und Parser pro Aufruf ─────────────────────
+
+    private static Key legacySigningKey() {
+        if (SECRET.length() < 32) {
+            throw new IllegalArgumentException("JWT Secret muss mindestens 32 Zeichen lang sein.");
+        }
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String generateTokenLegacy() {
+        return Jwts.builder()
+                .setSubject("benchmark@test.de")
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION))
+                .signWith(legacySigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String extractUsernameLegacy() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(legacySigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return claims.getSubject();
+    }
+
+    // ── aktueller JwtService: vorberechneter Schlüssel, wiederverwendeter Parser ──
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("benchmark@test.de");
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
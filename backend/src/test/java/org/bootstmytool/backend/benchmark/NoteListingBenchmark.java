@@ -0,0 +1,132 @@
+package org.bootstmytool.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * JMH-Benchmark für die Bildspalten beim Laden der Notizliste (/notes/get).
+ * Vergleicht auf einer H2-In-Memory-Datenbank den bisherigen Weg (Bildzeilen inkl. Blob,
+ * wie beim EAGER-Laden der Entitäten) mit dem aktuellen Weg (nur ID, Dateiname und Metadaten).
+ * Der GC-Profiler zeigt die pro Aufruf allokierten Bytes (gc.alloc.rate.norm).
+ *
+ * Ausführen:
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.bootstmytool.backend.benchmark.NoteListingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteListingBenchmark {
+
+    /** Anzahl Notizen auf einer Seite */
+    @Param({"50"})
+    private int notes;
+
+    /** Größe eines Bildes in KB */
+    @Param({"256"})
+    private int imageKb;
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            st.execute("CREATE TABLE note (id INT PRIMARY KEY, title VARCHAR(255))");
+            st.execute("CREATE TABLE image (id INT AUTO_INCREMENT PRIMARY KEY, note_id INT, url VARCHAR(255), "
+                    + "data BLOB, size_bytes BIGINT, content_type VARCHAR(100), checksum VARCHAR(64), "
+                    + "width INT, height INT)");
+        }
+
+        byte[] bytes = new byte[imageKb * 1024];
+        new Random(42).nextBytes(bytes);
+        try (PreparedStatement note = connection.prepareStatement("INSERT INTO note VALUES (?, ?)");
+             PreparedStatement image = connection.prepareStatement(
+                     "INSERT INTO image (note_id, url, data, size_bytes, content_type, checksum, width, height) "
+                             + "VALUES (?, ?, ?, ?, 'image/png', ?, 800, 600)")) {
+            for (int i = 0; i < notes; i++) {
+                note.setInt(1, i);
+                note.setString(2, "Notiz " + i);
+                note.executeUpdate();
+                for (int j = 0; j < 2; j++) {
+                    image.setInt(1, i);
+                    image.setString(2, i + "_" + j + ".png");
+                    image.setBytes(3, bytes);
+                    image.setLong(4, bytes.length);
+                    image.setString(5, "0".repeat(64));
+                    image.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    // ── bisheriger Weg: Bildzeilen samt Blob ───────────────────────────────
+
+    @Benchmark
+    public void listWithBlobs(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT i.id, i.url, i.data FROM image i WHERE i.note_id < ?")) {
+            ps.setInt(1, notes);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getInt(1));
+                    bh.consume(rs.getString(2));
+                    bh.consume(rs.getBytes(3));
+                }
+            }
+        }
+    }
+
+    // ── aktueller Weg: nur Metadaten, Bytes bleiben im Dateisystem ─────────
+
+    @Benchmark
+    public void listMetadataOnly(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT i.id, i.url, i.size_bytes, i.content_type FROM image i WHERE i.note_id < ?")) {
+            ps.setInt(1, notes);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bh.consume(rs.getInt(1));
+                    bh.consume(rs.getString(2));
+                    bh.consume(rs.getLong(3));
+                    bh.consume(rs.getString(4));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NoteListingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
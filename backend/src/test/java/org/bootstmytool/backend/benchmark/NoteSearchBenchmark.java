@@ -0,0 +1,239 @@
+package org.bootstmytool.backend.benchmark;
+
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.bootstmytool.backend.search.SubstringMatcher;
+import org.bootstmytool.backend.search.TextTokenizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * JMH-Benchmark für die Freitextsuche von /notes/filter bei 100.000 Notizen eines Benutzers.
+ * Vergleicht auf einer H2-In-Memory-Datenbank die bisherige Abfrage (LIKE '%q%' über Titel, Inhalt
+ * und Tags, entspricht NoteRepository.searchAndFilter) mit dem Weg über den Trigramm-Index:
+ * Kandidaten aus NoteSearchIndex, Laden der Kandidaten und ihrer Tags per ID, Prüfung mit
+ * SubstringMatcher. Zusätzlich die Suche mit einem Tippfehler (nur über den Index möglich).
+ *
+ * Suchtexte: "quarzuhr" steht in 0,1 % der Notizen, "ranvel" ist ein häufiger Wortteil. Für die
+ * Suche mit Tippfehler wird ein Buchstabe ersetzt; bei "ranvel" (unter 7 Zeichen) sucht der Index
+ * dann exakt nach "ranxel".
+ *
+ * Ausführen:
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath org.bootstmytool.backend.benchmark.NoteSearchBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class NoteSearchBenchmark {
+
+    private static final int USER_ID = 1;
+
+    @Param({"100000"})
+    private int notes;
+
+    @Param({"quarzuhr", "ranvel"})
+    private String query;
+
+    private Connection connection;
+    private NoteSearchIndex index;
+
+    /** dieselbe Anfrage mit einem falschen Buchstaben */
+    private String misspelled;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:searchbench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            st.execute("CREATE TABLE note (id INT PRIMARY KEY, user_id INT, title VARCHAR(255), "
+                    + "content VARCHAR(4000), category VARCHAR(20), created_at TIMESTAMP)");
+            st.execute("CREATE INDEX idx_note_user_created ON note (user_id, created_at DESC, id DESC)");
+            st.execute("CREATE TABLE note_tags (note_id INT, tags VARCHAR(255))");
+            st.execute("CREATE INDEX idx_note_tags_note ON note_tags (note_id)");
+        }
+
+        index = new NoteSearchIndex(true);
+        index.beginLoad();
+
+        Random random = new Random(42);
+        String[] words = vocabulary(random, 2000);
+        try (PreparedStatement note = connection.prepareStatement("INSERT INTO note VALUES (?, ?, ?, ?, 'ARBEIT', ?)");
+             PreparedStatement tag = connection.prepareStatement("INSERT INTO note_tags VALUES (?, ?)")) {
+            for (int id = 1; id <= notes; id++) {
+                String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                StringBuilder content = new StringBuilder();
+                for (int w = 0; w < 30; w++) {
+                    content.append(words[random.nextInt(words.length)]).append(w % 8 == 7 ? ". " : " ");
+                }
+                if (id % 1000 == 0) {
+                    content.append("Die Quarzuhr ist kaputt.");
+                }
+                List<String> tags = List.of(words[random.nextInt(50)], words[random.nextInt(50)]);
+
+                note.setInt(1, id);
+                note.setInt(2, USER_ID);
+                note.setString(3, title);
+                note.setString(4, content.toString());
+                note.setTimestamp(5, new Timestamp(1_700_000_000_000L + id * 60_000L));
+                note.addBatch();
+                for (String t : tags) {
+                    tag.setInt(1, id);
+                    tag.setString(2, t);
+                    tag.addBatch();
+                }
+                index.load(id, USER_ID, title, content.toString(), tags);
+                if (id % 1000 == 0) {
+                    note.executeBatch();
+                    tag.executeBatch();
+                }
+            }
+            note.executeBatch();
+            tag.executeBatch();
+        }
+        index.finishLoad();
+        int middle = query.length() / 2;
+        misspelled = query.substring(0, middle) + "x" + query.substring(middle + 1);
+
+        // beide Wege müssen dieselben Treffer liefern
+        int viaDatabase = searchViaLike();
+        int viaIndex = searchViaIndex(query, 0);
+        if (viaDatabase != viaIndex) {
+            throw new IllegalStateException("Treffer weichen ab: LIKE " + viaDatabase + ", Index " + viaIndex);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Erfundene Wörter aus Silben (deterministisch), damit Teilstrings über viele Wörter streuen.
+     */
+    private static String[] vocabulary(Random random, int size) {
+        String[] syllables = {"ka", "ran", "vel", "mo", "ti", "sen", "ba", "lor", "qui", "de", "nu", "ster",
+                "fa", "gon", "wi", "pel", "ru", "ho", "zen", "la"};
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int parts = 2 + random.nextInt(3);
+            for (int p = 0; p < parts; p++) {
+                word.append(syllables[random.nextInt(syllables.length)]);
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    // ── bisheriger Weg: LIKE über alle Notizen des Benutzers ────────────────
+
+    @Benchmark
+    public void jpqlLike(Blackhole bh) throws SQLException {
+        bh.consume(searchViaLike());
+    }
+
+    private int searchViaLike() throws SQLException {
+        int hits = 0;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT n.id, n.title, n.content, n.category, n.created_at FROM note n "
+                        + "WHERE n.user_id = ? AND (LOWER(n.title) LIKE ? OR LOWER(n.content) LIKE ? "
+                        + "OR EXISTS (SELECT 1 FROM note_tags t WHERE t.note_id = n.id AND LOWER(t.tags) LIKE ?)) "
+                        + "ORDER BY n.created_at DESC, n.id DESC")) {
+            String like = "%" + query.toLowerCase() + "%";
+            ps.setInt(1, USER_ID);
+            ps.setString(2, like);
+            ps.setString(3, like);
+            ps.setString(4, like);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getString(2) != null || rs.getString(3) != null) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    // ── aktueller Weg: Trigramm-Kandidaten, Laden per ID, Prüfung ──────────
+
+    @Benchmark
+    public void trigramIndex(Blackhole bh) throws SQLException {
+        bh.consume(searchViaIndex(query, 0));
+    }
+
+    @Benchmark
+    public void trigramIndexOneTypo(Blackhole bh) throws SQLException {
+        bh.consume(searchViaIndex(misspelled, 1));
+    }
+
+    private int searchViaIndex(String q, int typos) throws SQLException {
+        int[] candidates = index.substringCandidates(USER_ID, q, typos);
+        Integer[] ids = new Integer[candidates.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = candidates[i];
+        }
+
+        Map<Integer, List<String>> tags = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT t.note_id, t.tags FROM note_tags t WHERE t.note_id = ANY(?)")) {
+            ps.setObject(1, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    tags.computeIfAbsent(rs.getInt(1), id -> new ArrayList<>()).add(rs.getString(2));
+                }
+            }
+        }
+
+        String pattern = TextTokenizer.normalize(q);
+        int effectiveTypos = NoteSearchIndex.effectiveTypos(q, typos);
+        int hits = 0;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT n.id, n.title, n.content, n.category, n.created_at FROM note n "
+                        + "WHERE n.user_id = ? AND n.id = ANY(?) ORDER BY n.created_at DESC, n.id DESC")) {
+            ps.setInt(1, USER_ID);
+            ps.setObject(2, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (SubstringMatcher.matchesAny(pattern, effectiveTypos, rs.getString(2), rs.getString(3),
+                            tags.get(rs.getInt(1)))) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NoteSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
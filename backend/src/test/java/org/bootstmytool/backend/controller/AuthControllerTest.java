@@ -1,6 +1,7 @@
 package org.bootstmytool.backend.controller;
 
 
+import org.bootstmytool.backend.security.LoginRateLimiter;
 import org.bootstmytool.backend.service.AuthService;
 import org.bootstmytool.backend.service.JwtService;
 import org.bootstmytool.backend.controller.AuthController.LoginResponse;
@@ -12,7 +13,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +36,9 @@ class AuthControllerTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private LoginRateLimiter loginRateLimiter; // liefert standardmaessig 0 → Versuch erlaubt
+
     @InjectMocks
     private AuthController authController;
 
@@ -58,7 +64,7 @@ class AuthControllerTest {
         when(jwtService.generateToken(validLoginRequest.getEmail())).thenReturn("mockJwtToken");
 
         // Controller aufrufen
-        ResponseEntity<?> response = authController.login(validLoginRequest);
+        ResponseEntity<?> response = authController.login(validLoginRequest, new MockHttpServletRequest());
 
         // Überprüfen, ob das Login erfolgreich war
         assertEquals(200, response.getStatusCodeValue());
@@ -73,7 +79,7 @@ class AuthControllerTest {
         when(authService.authenticate(validLoginRequest.getEmail(), validLoginRequest.getPassword())).thenReturn(false);
 
         // Controller aufrufen
-        ResponseEntity<?> response = authController.login(validLoginRequest);
+        ResponseEntity<?> response = authController.login(validLoginRequest, new MockHttpServletRequest());
 
         // Überprüfen, ob das Login fehlgeschlagen ist
         assertEquals(401, response.getStatusCodeValue());
@@ -82,6 +88,22 @@ class AuthControllerTest {
         assertNull(loginResponse.getToken());
     }
 
+    @Test
+    void testLoginRateLimited() {
+        // Mock der Ratenbegrenzung: Versuch wird abgewiesen
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("10.0.0.1");
+        when(loginRateLimiter.tryAcquire("10.0.0.1", validLoginRequest.getEmail())).thenReturn(30L);
+
+        // Controller aufrufen
+        ResponseEntity<?> response = authController.login(validLoginRequest, httpRequest);
+
+        // 429 mit Retry-After, ohne dass der AuthService (DB/BCrypt) beruehrt wird
+        assertEquals(429, response.getStatusCodeValue());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verifyNoInteractions(authService);
+    }
+
     @Test
     void testRegisterSuccess() {
         // Mock für erfolgreiche Registrierung
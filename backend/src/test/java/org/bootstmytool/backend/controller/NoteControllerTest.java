@@ -1,12 +1,20 @@
 package org.bootstmytool.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bootstmytool.backend.dto.NoteCursor;
 import org.bootstmytool.backend.dto.NoteDTO;
+import org.bootstmytool.backend.dto.NotePageDTO;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
 import org.bootstmytool.backend.model.Note;
 import org.bootstmytool.backend.model.User;
+import org.bootstmytool.backend.security.CurrentUserArgumentResolver;
+import org.bootstmytool.backend.security.JwtAuthentication;
+import org.bootstmytool.backend.security.JwtPrincipal;
 import org.bootstmytool.backend.service.JwtService;
+import org.bootstmytool.backend.service.NoteQueryService;
 import org.bootstmytool.backend.service.NoteService;
 import org.bootstmytool.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +26,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -27,6 +36,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +60,9 @@ public class NoteControllerTest {
     @Mock
     private NoteService noteService;  // Service als Mock
 
+    @Mock
+    private NoteQueryService noteQueryService;  // Lesemodell für Listen
+
     @InjectMocks
     private NoteController noteController;  // Controller, der die gemockten Services verwendet
 
@@ -61,8 +74,15 @@ public class NoteControllerTest {
 
     @BeforeEach
     public void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(noteController).build();  // Setup von MockMvc für den Controller
+        mockMvc = MockMvcBuilders.standaloneSetup(noteController)
+                .setCustomArgumentResolvers(new CurrentUserArgumentResolver()) // CurrentUser-Parameter auflösen
+                .build();  // Setup von MockMvc für den Controller
+
+    }
 
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
 
@@ -77,7 +97,59 @@ public class NoteControllerTest {
                         .param("title", newNote.getTitle())
                         .param("description", newNote.getContent())
                         .param("tags", String.join(",", newNote.getTags())))
-                .andExpect(status().isBadRequest());  // Expect HTTP 400 due to missing Authorization header
+                .andExpect(status().isUnauthorized());  // Expect HTTP 401: kein authentifizierter Benutzer
+    }
+
+
+    @Test
+    public void testGetNotesUsesPrincipalFromFilter() throws Exception {
+        // Der Filter hat den Token bereits verifiziert und den Principal hinterlegt
+        JwtPrincipal principal = new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7);
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(principal));
+
+        NoteDTO note = new NoteDTO();
+        note.setId(1);
+        note.setTitle("Test Note");
+        when(noteQueryService.getNotePage(7, null, 50)).thenReturn(new NotePageDTO(List.of(note), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/get"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Test Note"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(noteQueryService).getNotePage(7, null, 50);
+    }
+
+
+    @Test
+    public void testGetNotesPassesCursorAndClampsLimit() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
+
+        String cursor = new NoteCursor(1_000L, 42).encode();
+        when(noteQueryService.getNotePage(eq(7), any(NoteCursor.class), eq(NoteController.MAX_PAGE_SIZE)))
+                .thenReturn(new NotePageDTO(List.of(), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/get").param("limit", "5000").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+
+        ArgumentCaptor<NoteCursor> captor = ArgumentCaptor.forClass(NoteCursor.class);
+        verify(noteQueryService).getNotePage(eq(7), captor.capture(), eq(NoteController.MAX_PAGE_SIZE));
+        assertEquals(42, captor.getValue().getId());
+        assertEquals(1_000L, captor.getValue().getCreatedAt());
+    }
+
+
+    @Test
+    public void testGetNotesRejectsInvalidCursor() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/get").param("cursor", "kein-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(noteQueryService);
     }
 
 
@@ -95,9 +167,69 @@ public class NoteControllerTest {
     }
 
 
+    @Test
+    public void testEditDeletesImagesToDeleteInOneCall() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
+        User owner = new User();
+        owner.setId(7);
+        Note note = new Note();
+        note.setId(3);
+        note.setUser(owner);
+        when(noteService.getNoteById(3)).thenReturn(note);
+        when(noteService.updateNote(note, List.of(4, 5, 6))).thenReturn(note);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/notes/edit/{id}", 3)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Neu\",\"imagesToDelete\":[4,5,6]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Neu"));
+
+        verify(noteService, times(1)).updateNote(note, List.of(4, 5, 6));
+    }
+
+    @Test
+    public void testFilterWithRelevanceSortReturnsSnippets() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
+
+        NoteDTO hit = new NoteDTO();
+        hit.setId(3);
+        hit.setSnippet("Die <mark>Welt</mark>");
+        when(noteQueryService.searchRanked(7, "welt", null, null, null, null, 10)).thenReturn(List.of(hit));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/filter")
+                        .param("q", " welt ")
+                        .param("sort", "relevance")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].snippet").value("Die <mark>Welt</mark>"));
+
+        verify(noteQueryService, never()).searchAndFilter(anyInt(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testFilterRejectsUnknownSort() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
 
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/filter").param("q", "welt").param("sort", "beliebt"))
+                .andExpect(status().isBadRequest());
 
+        verifyNoInteractions(noteQueryService);
+    }
 
+    @Test
+    public void testSuggestTagsClampsLimit() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthentication(
+                new JwtPrincipal("user@test.de", new Date(System.currentTimeMillis() + 60_000), 7)));
 
+        when(noteQueryService.suggestTags(7, "un", NoteController.MAX_TAG_SUGGESTIONS))
+                .thenReturn(List.of(new TagSuggestionDTO("Uni", 12)));
 
+        mockMvc.perform(MockMvcRequestBuilders.get("/notes/tags").param("prefix", "un").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tag").value("Uni"))
+                .andExpect(jsonPath("$[0].count").value(12));
+    }
 }
@@ -0,0 +1,74 @@
+package org.bootstmytool.backend.repository;
+
+import org.bootstmytool.backend.dto.NoteRow;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Keyset-Pagination des NoteRepository gegen eine H2-Datenbank:
+ * Alle Notizen werden genau einmal und in der Reihenfolge (createdAt DESC, id DESC) geliefert,
+ * auch wenn mehrere Notizen denselben Zeitstempel haben.
+ */
+@DataJpaTest
+public class NoteRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Test
+    public void testKeysetPagesCoverAllNotesWithEqualTimestamps() {
+        User user = new User();
+        user.setEmail("pager@test.de");
+        user.setPassword("x");
+        entityManager.persist(user);
+
+        // Drei der sieben Notizen teilen sich denselben Zeitstempel
+        for (int i = 0; i < 7; i++) {
+            Note note = new Note();
+            note.setTitle("Notiz " + i);
+            note.setUser(user);
+            entityManager.persist(note);
+        }
+        entityManager.flush();
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Note n SET n.createdAt = :ts WHERE n.title IN ('Notiz 2', 'Notiz 3', 'Notiz 4')")
+                .setParameter("ts", new Date(1_000_000L))
+                .executeUpdate();
+        entityManager.clear();
+
+        List<NoteRow> collected = new ArrayList<>();
+        List<NoteRow> page = noteRepository.findFirstPage((int) user.getId(), Limit.of(2));
+        while (!page.isEmpty()) {
+            collected.addAll(page);
+            NoteRow last = page.get(page.size() - 1);
+            page = noteRepository.findPageAfter((int) user.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+        }
+
+        assertEquals(7, collected.size());
+        assertEquals(7, collected.stream().map(NoteRow::getId).distinct().count());
+        for (int i = 1; i < collected.size(); i++) {
+            NoteRow prev = collected.get(i - 1);
+            NoteRow cur = collected.get(i);
+            int byTime = cur.getCreatedAt().compareTo(prev.getCreatedAt());
+            assertEquals(true, byTime < 0 || (byTime == 0 && cur.getId() < prev.getId()));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.bootstmytool.backend.search;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.bootstmytool.backend.dto.NoteDTO;
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.model.NoteCategory;
+import org.bootstmytool.backend.model.User;
+import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.service.NoteQueryService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft den Aufbau des Suchindex aus der Datenbank und die Filterabfrage über seine Treffer.
+ */
+@DataJpaTest
+@Import({NoteQueryService.class, NoteSearchIndex.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class NoteSearchIndexLoaderTest {
+
+    private static final int NOTE_COUNT = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private NoteSearchIndex noteSearchIndex;
+
+    @Autowired
+    private NoteQueryService noteQueryService;
+
+    private int userId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setEmail("index@test.de");
+        user.setPassword("x");
+        entityManager.persist(user);
+        userId = (int) user.getId();
+
+        for (int i = 0; i < NOTE_COUNT; i++) {
+            Note note = new Note();
+            note.setTitle("Notiz " + i);
+            note.setContent(i % 10 == 0 ? "Die Welt ist rund" : "Nichts Besonderes");
+            note.setCategory(i % 20 == 0 ? NoteCategory.ARBEIT : null);
+            note.setTags(new ArrayList<>(List.of("uni", "tag" + i)));
+            note.setUser(user);
+            entityManager.persist(note);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Der Index ist ein Singleton des (gecachten) Testkontexts – danach wieder auf "nicht bereit".
+     */
+    @AfterEach
+    public void tearDown() {
+        noteSearchIndex.beginLoad();
+        noteSearchIndex.abortLoad();
+    }
+
+    @Test
+    public void testLoadsAllNotesInBatches() {
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 100).load();
+
+        assertTrue(noteSearchIndex.isReady());
+        assertEquals(NOTE_COUNT, noteSearchIndex.documentCount());
+        assertEquals(NOTE_COUNT / 10, noteSearchIndex.search(userId, "welt").length);
+        assertEquals(1, noteSearchIndex.search(userId, "tag42").length);
+        assertEquals(NOTE_COUNT, noteSearchIndex.search(userId, "uni").length);
+    }
+
+    @Test
+    public void testFilterResolvesIndexHitsWithThreeStatements() {
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<NoteDTO> result = noteQueryService.searchAndFilter(userId, "welt", NoteCategory.ARBEIT,
+                null, null, null, 0);
+
+        assertEquals(NOTE_COUNT / 20, result.size());
+        assertEquals(3, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+        // neueste zuerst, wie bei der Datenbanksuche
+        assertTrue(result.get(0).getId() > result.get(result.size() - 1).getId());
+    }
+
+    @Test
+    public void testCandidatesAreVerifiedBeforeImagesAreLoaded() {
+        // teilt alle Trigramme von "bcxy", enthält es aber nicht
+        Note falsePositive = new Note();
+        falsePositive.setTitle("abcx");
+        falsePositive.setContent("cxyz");
+        falsePositive.setUser(entityManager.find(User.class, userId));
+        entityManager.persist(falsePositive);
+        entityManager.flush();
+        entityManager.clear();
+
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+        assertEquals(1, noteSearchIndex.substringCandidates(userId, "bcxy", 0).length);
+
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertTrue(noteQueryService.searchAndFilter(userId, "bcxy", null, null, null, null, 0).isEmpty());
+        // Notizen und Tags des Kandidaten, aber keine Bilder
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        stats.clear();
+        List<NoteDTO> byTag = noteQueryService.searchAndFilter(userId, "tag42", null, null, null, null, 0);
+        assertEquals(1, byTag.size());
+        assertTrue(byTag.get(0).getTags().contains("tag42"));
+        assertEquals(4, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testSubstringSearchMatchesDatabaseSemantics() {
+        List<String> queries = List.of("welt", "elt is", "ag4", "notiz 1", "UNI", "xyz", "tag19");
+        List<List<Integer>> fromDatabase = new ArrayList<>();
+        for (String q : queries) {
+            fromDatabase.add(ids(noteQueryService.searchAndFilter(userId, q, null, null, null, null, 0)));
+        }
+
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+
+        for (int i = 0; i < queries.size(); i++) {
+            assertEquals(fromDatabase.get(i),
+                    ids(noteQueryService.searchAndFilter(userId, queries.get(i), null, null, null, null, 0)),
+                    queries.get(i));
+        }
+    }
+
+    @Test
+    public void testTyposAreToleratedOnlyWhenRequested() {
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+
+        assertEquals(0, noteQueryService.searchAndFilter(userId, "Welt ist rnud", null, null, null, null, 0).size());
+        assertEquals(NOTE_COUNT / 10,
+                noteQueryService.searchAndFilter(userId, "Welt ist rnud", null, null, null, null, 2).size());
+        // "Besonderes" mit einem fehlenden Buchstaben
+        assertEquals(NOTE_COUNT - NOTE_COUNT / 10,
+                noteQueryService.searchAndFilter(userId, "Besondres", null, null, null, null, 1).size());
+    }
+
+    private static List<Integer> ids(List<NoteDTO> dtos) {
+        return dtos.stream().map(NoteDTO::getId).toList();
+    }
+
+    @Test
+    public void testRankedSearchReturnsSnippetsInRankOrder() {
+        User user = entityManager.find(User.class, userId);
+        Note titled = new Note();
+        titled.setTitle("Welt");
+        titled.setContent("Reiseplanung für die Welt");
+        titled.setUser(user);
+        entityManager.persist(titled);
+        entityManager.flush();
+
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+
+        List<NoteDTO> result = noteQueryService.searchRanked(userId, "welt", null, null, null, null, 5);
+
+        assertEquals(5, result.size());
+        assertEquals(titled.getId(), result.get(0).getId());
+        assertEquals("Reiseplanung für die <mark>Welt</mark>", result.get(0).getSnippet());
+        assertTrue(result.stream().allMatch(dto -> dto.getContent() == null));
+    }
+
+    @Test
+    public void testRelevanceAndDateSortFindTheSameNotes() {
+        List<String> queries = List.of("welt", "elt is", "ag4", "sonder", "UNI", "xyz");
+        List<List<Integer>> beforeLoad = new ArrayList<>();
+        for (String q : queries) {
+            beforeLoad.add(sorted(ids(noteQueryService.searchRanked(userId, q, null, null, null, null, NOTE_COUNT))));
+        }
+
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 1000).load();
+
+        for (int i = 0; i < queries.size(); i++) {
+            String q = queries.get(i);
+            List<Integer> byDate = sorted(ids(noteQueryService.searchAndFilter(userId, q, null, null, null, null, 0)));
+            List<Integer> byRelevance = sorted(ids(noteQueryService.searchRanked(userId, q, null, null, null, null,
+                    NOTE_COUNT)));
+            assertEquals(byDate, byRelevance, q);
+            assertEquals(beforeLoad.get(i), byRelevance, q);
+        }
+    }
+
+    private static List<Integer> sorted(List<Integer> ids) {
+        return ids.stream().sorted().toList();
+    }
+
+    @Test
+    public void testTagSuggestionsFromIndexMatchDatabase() {
+        List<String> viaDatabase = format(noteQueryService.suggestTags(userId, "TA", 3));
+        assertEquals(List.of("tag0:1", "tag1:1", "tag10:1"), viaDatabase);
+        assertEquals(List.of("uni:" + NOTE_COUNT), format(noteQueryService.suggestTags(userId, "", 1)));
+
+        noteSearchIndex.beginLoad();
+        new NoteSearchIndexLoader(noteSearchIndex, noteRepository, 100).load();
+
+        assertEquals(viaDatabase, format(noteQueryService.suggestTags(userId, "TA", 3)));
+        assertEquals(List.of("uni:" + NOTE_COUNT), format(noteQueryService.suggestTags(userId, "", 1)));
+        assertEquals(List.of(), format(noteQueryService.suggestTags(userId, "%", 3)));
+    }
+
+    private static List<String> format(List<TagSuggestionDTO> suggestions) {
+        return suggestions.stream().map(s -> s.getTag() + ":" + s.getCount()).toList();
+    }
+}
@@ -0,0 +1,220 @@
+package org.bootstmytool.backend.search;
+
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft den Suchindex: Begriffe aus Titel, Inhalt und Tags, Präfixe, UND-Verknüpfung,
+ * Nachführen bei Änderung und Löschen sowie die Trennung nach Benutzern und die Tag-Vorschläge.
+ */
+public class NoteSearchIndexTest {
+
+    private NoteSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new NoteSearchIndex(true);
+        index.beginLoad();
+        index.finishLoad();
+    }
+
+    @Test
+    public void testFindsTermsOfTitleContentAndTags() {
+        index.index(1, 7, "Hallo", "Welt, schöne Grüße!", List.of("uni"));
+        index.index(2, 7, "Einkauf", "Milch", List.of("Arbeit-Projekt"));
+
+        assertArrayEquals(new int[]{1}, index.search(7, "HALLO"));
+        assertArrayEquals(new int[]{1}, index.search(7, "grüße"));
+        assertArrayEquals(new int[]{2}, index.search(7, "projekt"));
+        assertArrayEquals(new int[]{1}, index.search(7, "uni"));
+    }
+
+    @Test
+    public void testPrefixesAndAllTermsMustMatch() {
+        index.index(1, 7, "Welt", "", List.of());
+        index.index(2, 7, "Weltraum", "Reise", List.of());
+        index.index(3, 7, "Wetter", "Reise", List.of());
+
+        assertArrayEquals(new int[]{1, 2}, index.search(7, "wel"));
+        assertArrayEquals(new int[]{2}, index.search(7, "welt reise"));
+        assertArrayEquals(new int[0], index.search(7, "welt urlaub"));
+    }
+
+    @Test
+    public void testUpdateReplacesTermsAndRemoveDeletes() {
+        index.index(1, 7, "Alt", "", List.of("x"));
+        index.index(1, 7, "Neu", "", List.of("x"));
+
+        assertArrayEquals(new int[0], index.search(7, "alt"));
+        assertArrayEquals(new int[]{1}, index.search(7, "neu"));
+
+        index.remove(7, 1);
+        assertArrayEquals(new int[0], index.search(7, "neu"));
+        assertArrayEquals(new int[0], index.search(7, "x"));
+        assertEquals(0, index.documentCount());
+    }
+
+    @Test
+    public void testUsersAreSeparated() {
+        index.index(1, 7, "Geheim", "", List.of());
+
+        assertArrayEquals(new int[]{1}, index.search(7, "geheim"));
+        assertArrayEquals(new int[0], index.search(8, "geheim"));
+    }
+
+    @Test
+    public void testNotReadyOrNoTermsFallsBackToDatabase() {
+        NoteSearchIndex loading = new NoteSearchIndex(true);
+        loading.beginLoad();
+        loading.index(1, 7, "Hallo", "", List.of());
+
+        assertNull(loading.search(7, "hallo"));
+        assertNull(index.search(7, "  !? "));
+    }
+
+    @Test
+    public void testLoadDoesNotOverwriteChangesMadeDuringLoad() {
+        NoteSearchIndex loading = new NoteSearchIndex(true);
+        loading.beginLoad();
+        loading.index(1, 7, "Neu", "", List.of());
+        loading.remove(7, 2);
+
+        // veraltete Stände aus der Datenbank
+        loading.load(1, 7, "Alt", "", List.of());
+        loading.load(2, 7, "Gelöscht", "", List.of());
+        loading.load(3, 7, "Alt", "", List.of());
+        loading.finishLoad();
+
+        assertArrayEquals(new int[]{1}, loading.search(7, "neu"));
+        assertArrayEquals(new int[]{3}, loading.search(7, "alt"));
+        assertArrayEquals(new int[0], loading.search(7, "gelöscht"));
+    }
+
+    @Test
+    public void testPostingsStaySortedForOutOfOrderIds() {
+        for (int id : new int[]{5, 1, 9, 3, 7, 3}) {
+            index.index(id, 7, "gleich", "", List.of());
+        }
+        index.remove(7, 9);
+
+        assertArrayEquals(new int[]{1, 3, 5, 7}, index.search(7, "gleich"));
+    }
+
+    @Test
+    public void testRankPrefersTitleAndTagOverContent() {
+        index.index(1, 7, "Einkauf", "Nebenbei noch Welt kaufen", List.of());
+        index.index(2, 7, "Welt", "Reiseziele", List.of());
+        index.index(3, 7, "Notiz", "Irgendwas", List.of("welt"));
+
+        NoteSearchIndex.RankedHits hits = index.score(7, "welt", new int[]{1, 2, 3});
+
+        assertArrayEquals(new int[]{2, 3, 1}, hits.getNoteIds());
+        assertTrue(hits.getScores()[0] > hits.getScores()[1]);
+        assertTrue(hits.getScores()[1] > hits.getScores()[2]);
+    }
+
+    @Test
+    public void testRankFavoursRareTermsAndShortNotes() {
+        index.index(1, 7, "", "uni uni klausur", List.of());
+        index.index(2, 7, "", "uni mensa", List.of());
+        index.index(3, 7, "", "uni " + "füllwort ".repeat(50) + "klausur", List.of());
+
+        NoteSearchIndex.RankedHits hits = index.score(7, "uni klausur", new int[]{1, 2, 3});
+
+        // 1 und 3 enthalten beide Begriffe, die kurze Notiz gewinnt; 2 nur den häufigen
+        assertArrayEquals(new int[]{1, 3, 2}, hits.getNoteIds());
+    }
+
+    @Test
+    public void testScoreCountsMatchesInsideWords() {
+        index.index(1, 7, "", "Die Quarzuhr ist kaputt", List.of());
+        index.index(2, 7, "", "Eine Uhr", List.of());
+        index.index(3, 7, "", "Nichts", List.of());
+
+        NoteSearchIndex.RankedHits hits = index.score(7, "uhr", new int[]{1, 2, 3});
+
+        assertArrayEquals(new int[]{2, 1, 3}, hits.getNoteIds());
+        assertTrue(hits.getScores()[1] > 0);
+        assertEquals(0, hits.getScores()[2]);
+    }
+
+    @Test
+    public void testRankWithoutReadyIndexFallsBack() {
+        assertNull(new NoteSearchIndex(true).score(7, "welt", new int[]{1}));
+        assertArrayEquals(new int[]{1}, index.score(8, "welt", new int[]{1}).getNoteIds());
+    }
+
+    @Test
+    public void testSubstringCandidatesUseTrigramsOfAllFields() {
+        index.index(1, 7, "Hallo Welt", "", List.of());
+        index.index(2, 7, "", "Weltraum", List.of());
+        index.index(3, 7, "Wetter", "", List.of("ausländisch"));
+
+        assertArrayEquals(new int[]{1, 2}, index.substringCandidates(7, "ELT", 0));
+        assertArrayEquals(new int[]{3}, index.substringCandidates(7, "ländi", 0));
+        assertArrayEquals(new int[0], index.substringCandidates(7, "mond", 0));
+        // unter drei Zeichen entscheidet die Datenbank
+        assertNull(index.substringCandidates(7, "we", 0));
+    }
+
+    @Test
+    public void testTyposRelaxTheTrigramFilter() {
+        index.index(1, 7, "", "Klausurvorbereitung", List.of());
+
+        assertArrayEquals(new int[0], index.substringCandidates(7, "vorbereitnug", 0));
+        assertArrayEquals(new int[]{1}, index.substringCandidates(7, "vorbereitnug", 2));
+        assertEquals(0, NoteSearchIndex.effectiveTypos("klausr", 2));
+        assertEquals(1, NoteSearchIndex.effectiveTypos("klausrv", 2));
+        assertEquals(2, NoteSearchIndex.effectiveTypos("vorbereitnug", 5));
+    }
+
+    @Test
+    public void testRemovedNotesLeaveNoTrigrams() {
+        index.index(1, 7, "Einmalig", "", List.of());
+        index.index(1, 7, "Anders", "", List.of());
+
+        assertArrayEquals(new int[0], index.substringCandidates(7, "nmal", 0));
+        index.remove(7, 1);
+        assertArrayEquals(new int[0], index.substringCandidates(7, "nder", 0));
+    }
+
+    @Test
+    public void testSuggestTagsFollowsEditsAndDeletes() {
+        index.index(1, 7, "A", "", List.of("Uni", "uni ", "Urlaub"));
+        index.index(2, 7, "B", "", List.of("UNI"));
+        index.index(3, 8, "C", "", List.of("umzug"));
+
+        // ein Tag zählt pro Notiz einmal, Schreibweise der ersten Verwendung
+        assertEquals(List.of("Uni:2", "Urlaub:1"), format(index.suggestTags(7, "U", 10)));
+
+        index.index(1, 7, "A", "", List.of("Umzug"));
+        assertEquals(List.of("Umzug:1", "Uni:1"), format(index.suggestTags(7, "u", 10)));
+
+        index.remove(7, 2);
+        assertEquals(List.of("Umzug:1"), format(index.suggestTags(7, "", 10)));
+        assertEquals(List.of(), format(index.suggestTags(9, "u", 10)));
+    }
+
+    @Test
+    public void testSuggestTagsWithoutReadyIndexFallsBack() {
+        NoteSearchIndex loading = new NoteSearchIndex(true);
+        loading.beginLoad();
+        assertNull(loading.suggestTags(7, "u", 10));
+    }
+
+    private static List<String> format(List<TagSuggestionDTO> suggestions) {
+        return suggestions.stream().map(s -> s.getTag() + ":" + s.getCount()).toList();
+    }
+}
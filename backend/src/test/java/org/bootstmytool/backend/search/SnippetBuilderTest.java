@@ -0,0 +1,62 @@
+package org.bootstmytool.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Textausschnitte der Relevanzsuche: Hervorhebung, Escaping und Fensterwahl.
+ */
+public class SnippetBuilderTest {
+
+    @Test
+    public void testShortContentIsHighlightedCompletely() {
+        assertEquals("Hallo <mark>Welt</mark>, schöne <mark>Weltreise</mark>!",
+                SnippetBuilder.build("Hallo Welt, schöne Weltreise!", List.of("welt"), 200));
+    }
+
+    @Test
+    public void testHtmlInContentIsEscaped() {
+        assertEquals("&lt;b&gt;<mark>Welt</mark>&lt;/b&gt; &amp; mehr",
+                SnippetBuilder.build("<b>Welt</b> & mehr", List.of("welt"), 200));
+    }
+
+    @Test
+    public void testLongContentIsCutAroundTheDensestMatches() {
+        String content = "Anfang " + "lorem ipsum ".repeat(30) + "hier steht die Klausur am Montag, Klausur "
+                + "dolor sit ".repeat(30) + "Ende";
+
+        String snippet = SnippetBuilder.build(content, List.of("klausur"), 80);
+
+        assertTrue(snippet.startsWith("…"), snippet);
+        assertTrue(snippet.endsWith("…"), snippet);
+        assertEquals(2, snippet.split("<mark>Klausur</mark>", -1).length - 1, snippet);
+        assertTrue(snippet.replace("<mark>", "").replace("</mark>", "").length() <= 82, snippet);
+    }
+
+    @Test
+    public void testWithoutContentMatchTheBeginningIsUsed() {
+        String snippet = SnippetBuilder.build("Nur im Titel gefunden " + "x ".repeat(100), List.of("welt"), 20);
+
+        assertTrue(snippet.startsWith("Nur im Titel"), snippet);
+        assertTrue(snippet.endsWith("…"), snippet);
+        assertEquals("", SnippetBuilder.build(null, List.of("welt"), 20));
+    }
+
+    @Test
+    public void testHitLongerThanTheWindowIsClipped() {
+        String snippet = SnippetBuilder.build("intro " + "x".repeat(250), List.of("xx"), 200);
+
+        assertEquals("…" + SnippetBuilder.MARK_OPEN + "x".repeat(200) + SnippetBuilder.MARK_CLOSE + "…", snippet);
+
+        String mixed = SnippetBuilder.build("kurz xx " + "x".repeat(250) + " xx Ende", List.of("xx"), 200);
+        assertTrue(mixed.startsWith("kurz <mark>xx</mark>"), mixed);
+    }
+}
@@ -0,0 +1,40 @@
+package org.bootstmytool.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Textprüfung der Teilstringsuche: exakt wie LIKE und mit Tippfehlertoleranz.
+ */
+public class SubstringMatcherTest {
+
+    @Test
+    public void testExactMatchIgnoresCase() {
+        assertTrue(SubstringMatcher.matches("Hallo WELT", "lo we", 0));
+        assertFalse(SubstringMatcher.matches("Hallo Welt", "welten", 0));
+        assertFalse(SubstringMatcher.matches(null, "welt", 0));
+    }
+
+    @Test
+    public void testTyposAllowInsertDeleteAndReplace() {
+        assertTrue(SubstringMatcher.matches("Die Klausur am Montag", "klasur", 1));   // gelöscht
+        assertTrue(SubstringMatcher.matches("Die Klausur am Montag", "klauusur", 1)); // eingefügt
+        assertTrue(SubstringMatcher.matches("Die Klausur am Montag", "klaosur", 1));  // ersetzt
+        assertFalse(SubstringMatcher.matches("Die Klausur am Montag", "klaosr", 1));
+        assertTrue(SubstringMatcher.matches("Die Klausur am Montag", "klaosr", 2));
+    }
+
+    @Test
+    public void testAnyFieldMayMatch() {
+        assertTrue(SubstringMatcher.matchesAny("arbeit", 0, "Titel", null, List.of("uni", "Arbeitsplatz")));
+        assertFalse(SubstringMatcher.matchesAny("arbeit", 0, "Titel", "Inhalt", null));
+    }
+}
@@ -0,0 +1,76 @@
+package org.bootstmytool.backend.search;
+
+import org.bootstmytool.backend.dto.TagSuggestionDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft das Tag-Verzeichnis: Normalisierung, Zähler, Präfixbereich und Reihenfolge der Vorschläge.
+ */
+public class TagDictionaryTest {
+
+    @Test
+    public void testKeyIgnoresCaseAndWhitespace() {
+        assertEquals("uni projekt", TagDictionary.key("  Uni \t PROJEKT "));
+        assertNull(TagDictionary.key("   "));
+        assertNull(TagDictionary.key(null));
+    }
+
+    @Test
+    public void testSuggestsPrefixRangeByCountThenAlphabetically() {
+        TagDictionary dictionary = new TagDictionary();
+        add(dictionary, "Uni");
+        add(dictionary, "urlaub");
+        add(dictionary, "uni");
+        add(dictionary, "Umzug");
+        add(dictionary, "arbeit");
+        add(dictionary, "Zuhause");
+
+        assertEquals(List.of("Uni:2", "Umzug:1", "urlaub:1"), format(dictionary.suggest("u", 10)));
+        assertEquals(List.of("Uni:2", "Umzug:1"), format(dictionary.suggest("u", 2)));
+        assertEquals(List.of("Zuhause:1"), format(dictionary.suggest("z", 10)));
+        assertEquals(List.of(), format(dictionary.suggest("x", 10)));
+        assertEquals(5, dictionary.suggest("", 10).size());
+    }
+
+    @Test
+    public void testRemoveDropsUnusedTags() {
+        TagDictionary dictionary = new TagDictionary();
+        add(dictionary, "uni");
+        add(dictionary, "uni");
+        add(dictionary, "urlaub");
+
+        dictionary.remove("uni");
+        dictionary.remove("urlaub");
+        dictionary.remove("unbekannt");
+
+        assertEquals(List.of("uni:1"), format(dictionary.suggest("u", 10)));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        TagDictionary dictionary = new TagDictionary();
+        for (int i = 99; i >= 0; i--) {
+            add(dictionary, "tag" + i);
+        }
+        assertEquals(100, dictionary.size());
+        assertEquals(List.of("tag5:1", "tag50:1", "tag51:1"), format(dictionary.suggest("tag5", 3)));
+    }
+
+    private static void add(TagDictionary dictionary, String tag) {
+        dictionary.add(TagDictionary.key(tag), tag);
+    }
+
+    private static List<String> format(List<TagSuggestionDTO> suggestions) {
+        return suggestions.stream().map(s -> s.getTag() + ":" + s.getCount()).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package org.bootstmytool.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Diese Testklasse überprüft die Kalibrierung des BCrypt-Kostenfaktors
+ * und die Erkennung von Hashes, die neu erstellt werden sollten.
+ */
+class BCryptCostCalibratorTest {
+
+    @Test
+    void testGenerousTargetPicksMaxCost() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(Duration.ofSeconds(10), 4, 6);
+
+        assertEquals(6, calibrator.calibrate());
+        assertEquals(3, calibrator.getMeasuredMillis().size());
+    }
+
+    @Test
+    void testUnreachableTargetFallsBackToMinCost() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(Duration.ZERO, 5, 8);
+
+        assertEquals(5, calibrator.calibrate());
+        // Nach der ersten Überschreitung wird nicht weiter gemessen
+        assertEquals(1, calibrator.getMeasuredMillis().size());
+    }
+
+    @Test
+    void testNeedsRehashInBothDirections() {
+        BCryptCostCalibrator calibrator = BCryptCostCalibrator.fixed(5);
+
+        assertEquals(4, BCryptCostCalibrator.costOf(BCrypt.hashpw("pw", BCrypt.gensalt(4))));
+        assertTrue(calibrator.needsRehash(BCrypt.hashpw("pw", BCrypt.gensalt(4))));  // Upgrade
+        assertTrue(calibrator.needsRehash(BCrypt.hashpw("pw", BCrypt.gensalt(6))));  // Downgrade
+        assertFalse(calibrator.needsRehash(BCrypt.hashpw("pw", BCrypt.gensalt(5))));
+        assertFalse(calibrator.needsRehash("kein-bcrypt-hash"));
+    }
+}
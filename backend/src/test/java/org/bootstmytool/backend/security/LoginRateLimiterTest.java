@@ -0,0 +1,49 @@
+package org.bootstmytool.backend.security;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Diese Testklasse überprüft die Token-Buckets des LoginRateLimiter mit einer manuellen Uhr.
+ */
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1);
+    private final Ticker ticker = nanos::get;
+
+    @Test
+    void testEmailBucketLimitsAndRefills() {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, Duration.ofMinutes(1), 3, Duration.ofMinutes(1), 1000, ticker);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1", "User@Test.de"));
+        }
+        // 4. Versuch: abgewiesen, ein Token kommt nach 20 s zurück
+        assertEquals(20, limiter.tryAcquire("10.0.0.2", "user@test.de"));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "user@test.de"));
+    }
+
+    @Test
+    void testIpBucketIsIndependentOfEmail() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, Duration.ofMinutes(1), 100, Duration.ofMinutes(1), 1000, ticker);
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "a@test.de"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1", "b@test.de"));
+        assertTrue(limiter.tryAcquire("10.0.0.1", "c@test.de") > 0);
+
+        // Andere IP ist nicht betroffen
+        assertEquals(0, limiter.tryAcquire("10.0.0.9", "c@test.de"));
+    }
+}
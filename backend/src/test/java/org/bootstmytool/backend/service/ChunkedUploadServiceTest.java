@@ -0,0 +1,190 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.bootstmytool.backend.utils.ProcessImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.1
+ * @Date: 2025-09-24
+ *
+ * Prüft den Upload in Teilstücken: Zusammensetzen über Offsets, Fortsetzen nach einem
+ * abgebrochenen Teilstück, Offset-Konflikte, Größenlimit und den Abschluss in den Bildspeicher
+ * (nur für erkannte Bildformate) sowie das Limit offener Sitzungen.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    private LocalImageStorage storage;
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(root);
+        service = new ChunkedUploadService(storage, imageRepository, imageVariantService,
+                DataSize.ofKilobytes(64), Duration.ofMinutes(5), 100, 2);
+    }
+
+    @Test
+    void testChunksAreAssembledAndCommitted() throws Exception {
+        byte[] data = content(10_000);
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "gross.png", data.length);
+
+        assertEquals(4_000, service.append(session, 0, slice(data, 0, 4_000)));
+        assertEquals(10_000, service.append(session, 4_000, slice(data, 4_000, 10_000)));
+        Image image = service.commit(session, new Note());
+
+        assertArrayEquals(data, Files.readAllBytes(storage.localPath(image.getUrl()).orElseThrow()));
+        assertEquals(10_000L, image.getSize());
+        assertFalse(Files.exists(session.getTempFile()));
+        assertTrue(service.find(session.getUploadId(), 1L).isEmpty());
+        verify(imageRepository).save(image);
+        verify(imageVariantService).enqueue(image.getUrl());
+    }
+
+    @Test
+    void testAbortedChunkKeepsReceivedBytes() throws Exception {
+        byte[] data = content(8_000);
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "a.png", data.length);
+
+        // Verbindung reißt nach 3000 Bytes ab
+        InputStream broken = new InputStream() {
+            private final InputStream delegate = slice(data, 0, 3_000);
+
+            @Override
+            public int read() throws IOException {
+                int b = delegate.read();
+                if (b == -1) {
+                    throw new IOException("Verbindung abgebrochen");
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int n = delegate.read(buffer, off, len);
+                if (n == -1) {
+                    throw new IOException("Verbindung abgebrochen");
+                }
+                return n;
+            }
+        };
+        assertThrows(IOException.class, () -> service.append(session, 0, broken));
+        assertEquals(3_000, session.getReceived());
+
+        // Fortsetzen ab dem gemeldeten Offset
+        service.append(session, session.getReceived(), slice(data, 3_000, 8_000));
+        Image image = service.commit(session, new Note());
+
+        assertArrayEquals(data, Files.readAllBytes(storage.localPath(image.getUrl()).orElseThrow()));
+    }
+
+    @Test
+    void testOffsetBeyondReceivedIsRejected() throws Exception {
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "a.png", 100);
+
+        ChunkedUploadService.OffsetConflictException e = assertThrows(ChunkedUploadService.OffsetConflictException.class,
+                () -> service.append(session, 50, new ByteArrayInputStream(new byte[10])));
+        assertEquals(0, e.getReceived());
+        // Unvollständig → kein Abschluss
+        assertThrows(ChunkedUploadService.OffsetConflictException.class, () -> service.commit(session, new Note()));
+        verifyNoInteractions(imageRepository);
+    }
+
+    @Test
+    void testSizeLimitsAreEnforced() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> service.initiate(7, 1L, "a.png", 65 * 1024));
+        assertThrows(IllegalArgumentException.class, () -> service.initiate(7, 1L, "a.png", 0));
+
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "a.png", 100);
+        assertThrows(ChunkedUploadService.UploadTooLargeException.class,
+                () -> service.append(session, 0, new ByteArrayInputStream(new byte[101])));
+        assertEquals(0, session.getReceived());
+        assertEquals(0, Files.size(session.getTempFile()));
+    }
+
+    @Test
+    void testCommitRejectsUnsupportedContent() throws Exception {
+        byte[] svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>".getBytes();
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "bild.png", svg.length);
+        service.append(session, 0, new ByteArrayInputStream(svg));
+
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class, () -> service.commit(session, new Note()));
+        assertFalse(Files.exists(session.getTempFile()));
+        assertTrue(service.find(session.getUploadId(), 1L).isEmpty());
+        verifyNoInteractions(imageRepository, imageVariantService);
+    }
+
+    @Test
+    void testOpenSessionsAreLimitedPerUser() throws Exception {
+        ChunkedUploadService.UploadSession first = service.initiate(7, 1L, "a.png", 100);
+        service.initiate(7, 1L, "b.png", 100);
+
+        assertThrows(ChunkedUploadService.TooManySessionsException.class, () -> service.initiate(7, 1L, "c.png", 100));
+        // Andere Benutzer sind nicht betroffen, und keine Sitzung wird verdrängt
+        ChunkedUploadService.UploadSession other = service.initiate(8, 2L, "d.png", 100);
+        assertTrue(service.find(first.getUploadId(), 1L).isPresent());
+        assertTrue(service.find(other.getUploadId(), 2L).isPresent());
+
+        // Nach dem Abbruch ist wieder Platz
+        service.abort(first);
+        assertNotNull(service.initiate(7, 1L, "c.png", 100));
+    }
+
+    @Test
+    void testSessionsAreScopedToTheirUser() throws Exception {
+        ChunkedUploadService.UploadSession session = service.initiate(7, 1L, "a.png", 100);
+
+        assertTrue(service.find(session.getUploadId(), 1L).isPresent());
+        assertTrue(service.find(session.getUploadId(), 2L).isEmpty());
+
+        service.abort(session);
+        assertTrue(service.find(session.getUploadId(), 1L).isEmpty());
+    }
+
+    /** Bytes mit PNG-Signatur am Anfang (nur die Signatur zählt für die Typerkennung) */
+    private static byte[] content(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        System.arraycopy(PNG_SIGNATURE, 0, data, 0, PNG_SIGNATURE.length);
+        return data;
+    }
+
+    private static InputStream slice(byte[] data, int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(data, from, to));
+    }
+}
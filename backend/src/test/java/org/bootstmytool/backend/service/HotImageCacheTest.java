@@ -0,0 +1,137 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.1
+ * @Date: 2025-09-24
+ *
+ * Prüft den Bild-Cache: Aufnahme erst ab dem zweiten Abruf, Treffer ohne Dateisystem, Größenlimits,
+ * Invalidierung und Metriken.
+ */
+public class HotImageCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new LocalImageStorage(dir);
+    }
+
+    @Test
+    public void testLoadedImageIsServedWithoutFile() throws Exception {
+        HotImageCache cache = new HotImageCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        Files.write(dir.resolve("a.png"), new byte[]{1, 2, 3});
+
+        assertNull(cache.getIfPresent(HotImageCache.ORIGINAL, "a.png"));
+        load(cache, HotImageCache.ORIGINAL, "a.png");
+        assertNotNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+        storage.delete("a.png");
+
+        HotImageCache.CachedImage cached = cache.getIfPresent(HotImageCache.ORIGINAL, "a.png");
+        assertNotNull(cached);
+        assertArrayEquals(new byte[]{1, 2, 3}, cached.getData());
+        // Darstellungen werden getrennt gehalten
+        assertNull(cache.getIfPresent("thumb", "a.png"));
+    }
+
+    @Test
+    public void testFirstMissIsNotCached() throws Exception {
+        HotImageCache cache = new HotImageCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        Files.write(dir.resolve("a.png"), new byte[100]);
+
+        // Einmaliger Abruf: wird vom Bildspeicher ausgeliefert und belegt keinen Cache-Platz
+        assertNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+        assertNull(cache.getIfPresent(HotImageCache.ORIGINAL, "a.png"));
+        assertEquals(0, cache.residentBytes());
+
+        // Andere Darstellungen zählen getrennt
+        assertNull(load(cache, "thumb", "a.png"));
+        assertNotNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+        assertNotNull(cache.getIfPresent(HotImageCache.ORIGINAL, "a.png"));
+
+        // Nach dem Invalidieren beginnt die Zählung neu
+        cache.invalidate("a.png");
+        assertNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+    }
+
+    @Test
+    public void testLargeFilesAreNotAdmitted() throws Exception {
+        HotImageCache cache = new HotImageCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(1));
+        Files.write(dir.resolve("gross.png"), new byte[2048]);
+
+        load(cache, HotImageCache.ORIGINAL, "gross.png");
+        assertNull(load(cache, HotImageCache.ORIGINAL, "gross.png"));
+        assertEquals(0, cache.residentBytes());
+    }
+
+    @Test
+    public void testInvalidateRemovesAllRepresentations() throws Exception {
+        HotImageCache cache = new HotImageCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        Files.write(dir.resolve("a.png"), new byte[100]);
+        for (String representation : new String[]{HotImageCache.ORIGINAL, "thumb", "medium"}) {
+            load(cache, representation, "a.png");
+            assertNotNull(load(cache, representation, "a.png"));
+        }
+
+        cache.invalidate("a.png");
+
+        assertNull(cache.getIfPresent(HotImageCache.ORIGINAL, "a.png"));
+        assertNull(cache.getIfPresent("thumb", "a.png"));
+        assertNull(cache.getIfPresent("medium", "a.png"));
+    }
+
+    @Test
+    public void testMetricsReportHitRatioAndResidentBytes() throws Exception {
+        HotImageCache cache = new HotImageCache(true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        Files.write(dir.resolve("a.png"), new byte[1000]);
+
+        cache.getIfPresent(HotImageCache.ORIGINAL, "a.png");
+        load(cache, HotImageCache.ORIGINAL, "a.png");
+        cache.getIfPresent(HotImageCache.ORIGINAL, "a.png");
+        load(cache, HotImageCache.ORIGINAL, "a.png");
+        cache.getIfPresent(HotImageCache.ORIGINAL, "a.png");
+        cache.getIfPresent(HotImageCache.ORIGINAL, "a.png");
+
+        assertEquals(0.5, registry.get("image.cache.hit.ratio").gauge().value(), 0.001);
+        double resident = registry.get("image.cache.resident.bytes").gauge().value();
+        assertTrue(resident >= 1000, "resident=" + resident);
+    }
+
+    @Test
+    public void testDisabledCacheDoesNothing() throws Exception {
+        HotImageCache cache = new HotImageCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        Files.write(dir.resolve("a.png"), new byte[10]);
+
+        assertFalse(cache.isEnabled());
+        assertNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+        assertNull(load(cache, HotImageCache.ORIGINAL, "a.png"));
+        assertNull(cache.getIfPresent(HotImageCache.ORIGINAL, "a.png"));
+        cache.invalidate("a.png");
+    }
+
+    private HotImageCache.CachedImage load(HotImageCache cache, String representation, String name) throws Exception {
+        return cache.load(representation, name, storage, storage.stat(name).orElseThrow());
+    }
+}
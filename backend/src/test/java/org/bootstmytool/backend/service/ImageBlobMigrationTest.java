@@ -0,0 +1,84 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Migration alter Bild-Blobs: Die Datei wird aus dem Blob wiederhergestellt,
+ * die Metadaten werden ergänzt und der Blob wird geleert.
+ */
+@DataJpaTest
+public class ImageBlobMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path imageDir;
+
+    private byte[] png;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Alte Spalte simulieren, wie sie vor der Umstellung existierte
+        jdbcTemplate.execute("ALTER TABLE image ADD COLUMN IF NOT EXISTS data BLOB");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(12, 7, BufferedImage.TYPE_INT_RGB), "png", out);
+        png = out.toByteArray();
+    }
+
+    @Test
+    public void testBlobIsMovedToFileAndCleared() throws Exception {
+        jdbcTemplate.update("INSERT INTO image (url, data) VALUES (?, ?)", "alt.png", png);
+
+        int migrated = new ImageBlobMigration(jdbcTemplate, new LocalImageStorage(imageDir)).migrate();
+
+        assertEquals(1, migrated);
+        assertArrayEquals(png, Files.readAllBytes(new LocalImageStorage(imageDir).localPath("alt.png").orElseThrow()));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT data, size_bytes, content_type, checksum, width, height FROM image WHERE url = 'alt.png'");
+        assertNull(row.get("DATA"));
+        assertEquals((long) png.length, ((Number) row.get("SIZE_BYTES")).longValue());
+        assertEquals("image/png", row.get("CONTENT_TYPE"));
+        assertEquals(64, ((String) row.get("CHECKSUM")).length());
+        assertEquals(12, ((Number) row.get("WIDTH")).intValue());
+        assertEquals(7, ((Number) row.get("HEIGHT")).intValue());
+
+        // Zweiter Lauf findet nichts mehr zu tun
+        assertEquals(0, new ImageBlobMigration(jdbcTemplate, new LocalImageStorage(imageDir)).migrate());
+    }
+
+    @Test
+    public void testExistingFileIsKeptAndOnlyMetadataAdded() throws Exception {
+        Files.write(imageDir.resolve("vorhanden.png"), png);
+        jdbcTemplate.update("INSERT INTO image (url, data) VALUES (?, ?)", "vorhanden.png", new byte[]{1, 2, 3});
+
+        new ImageBlobMigration(jdbcTemplate, new LocalImageStorage(imageDir)).migrate();
+
+        assertArrayEquals(png, Files.readAllBytes(imageDir.resolve("vorhanden.png")));
+        assertEquals((long) png.length, jdbcTemplate.queryForObject(
+                "SELECT size_bytes FROM image WHERE url = 'vorhanden.png'", Long.class));
+    }
+}
@@ -0,0 +1,257 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.dto.NoteImageRow;
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.storage.InMemoryImageStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.2
+ * @Date: 2025-09-24
+ *
+ * Prüft den Mehrfach-Upload (die Notiz wird nicht erneut geladen, alle Zeilen werden mit einem
+ * saveAll angelegt, Fehler werden pro Datei gemeldet) und das mengenbasierte Löschen
+ * (Dateien erst nach dem Commit, auf einem eigenen Thread).
+ */
+@ExtendWith(MockitoExtension.class)
+class ImageServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    private InMemoryImageStorage storage;
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryImageStorage();
+        HotImageCache cache = new HotImageCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        imageService = new ImageService(noteRepository, imageRepository, imageVariantService, cache, storage, 2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchUploadSavesAllRowsAtOnce() {
+        Note note = new Note();
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("images", "a.png", "image/png", png(1)),
+                new MockMultipartFile("images", "b.png", "image/png", png(2)),
+                new MockMultipartFile("images", "c.png", "image/png", png(3)));
+
+        List<ImageService.UploadResult> results = imageService.uploadImages(note, files);
+
+        assertEquals(3, results.size());
+        assertEquals(List.of("a.png", "b.png", "c.png"), results.stream().map(ImageService.UploadResult::getFileName).toList());
+        assertTrue(results.stream().allMatch(ImageService.UploadResult::isSuccess));
+        assertSame(note, results.get(0).getImage().getNote());
+        assertEquals(3, storage.size());
+
+        ArgumentCaptor<List<Image>> saved = ArgumentCaptor.forClass(List.class);
+        verify(imageRepository, times(1)).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        verify(noteRepository, never()).findById(anyInt());
+        verify(noteRepository, never()).save(any());
+        verify(imageVariantService, times(3)).enqueue(anyString());
+    }
+
+    @Test
+    void testFailedFileIsReportedWithoutStoppingOthers() {
+        MultipartFile broken = new MockMultipartFile("images", "kaputt.png", "image/png", png(1)) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("Lesefehler");
+            }
+        };
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("images", "gut.png", "image/png", png(1)),
+                broken);
+
+        List<ImageService.UploadResult> results = imageService.uploadImages(new Note(), files);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getError().contains("Lesefehler"));
+        verify(imageRepository).saveAll(argThat(images -> ((List<Image>) images).size() == 1));
+    }
+
+    @Test
+    void testUnsupportedTypeIsReportedPerFile() {
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("images", "gut.png", "image/png", png(1)),
+                new MockMultipartFile("images", "seite.png", "image/png", "<html></html>".getBytes()));
+
+        List<ImageService.UploadResult> results = imageService.uploadImages(new Note(), files);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).isUnsupportedType());
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    void testDatabaseFailureMarksAllFilesAsFailed() {
+        when(imageRepository.saveAll(any())).thenThrow(new IllegalStateException("DB weg"));
+
+        List<ImageService.UploadResult> results = imageService.uploadImages(new Note(),
+                List.of(new MockMultipartFile("images", "a.png", "image/png", png(1))));
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getError().contains("DB weg"));
+        verifyNoInteractions(imageVariantService);
+    }
+
+    @Test
+    void testDeleteImagesOfNoteIsSetBased() throws Exception {
+        Note note = new Note();
+        note.setImages(new ArrayList<>(List.of(image(1, "a.png"), image(2, "b.png"), image(3, "c.png"))));
+        storage.putBytes("a.png", new byte[]{1});
+        storage.putBytes("b.png", new byte[]{2});
+        storage.setLastModified("a.png", 0);
+        storage.setLastModified("b.png", 0);
+        // b.png wird noch von einer anderen Notiz verwendet
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of("b.png"));
+
+        List<Integer> deleted = imageService.deleteImagesOfNote(note, List.of(1, 2, 99));
+
+        assertEquals(List.of(1, 2), deleted);
+        assertEquals(List.of(3), note.getImages().stream().map(Image::getId).toList());
+        verify(imageRepository, times(1)).deleteAllByIdInBatch(List.of(1, 2));
+        verify(imageRepository, times(1)).findReferencedUrls(Set.of("a.png", "b.png"));
+        verify(noteRepository, never()).findByImagesContaining(any());
+        verify(noteRepository, never()).save(any());
+
+        // Datei ohne Referenz wird im Hintergrund entfernt, die andere bleibt
+        for (int i = 0; i < 100 && storage.size() > 1; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(storage.stat("a.png").isEmpty());
+        assertTrue(storage.stat("b.png").isPresent());
+    }
+
+    @Test
+    void testDeleteImagesForUserSkipsForeignImages() {
+        when(imageRepository.findRowsByIdsAndUser(List.of(1, 2), 7))
+                .thenReturn(List.of(new NoteImageRow(3, 1, "a.png")));
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of("a.png"));
+
+        List<Integer> deleted = imageService.deleteImagesForUser(List.of(1, 2), 7);
+
+        assertEquals(List.of(1), deleted);
+        verify(imageRepository).deleteAllByIdInBatch(List.of(1));
+    }
+
+    @Test
+    void testFilesAreReleasedOnlyAfterCommit() throws Exception {
+        storage.putBytes("a.png", new byte[]{1});
+        storage.setLastModified("a.png", 0);
+        when(imageRepository.findRowsByIdsAndUser(List.of(1), 7)).thenReturn(List.of(new NoteImageRow(1, 3, "a.png")));
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            imageService.deleteImagesForUser(List.of(1), 7);
+            Thread.sleep(50);
+            assertTrue(storage.stat("a.png").isPresent(), "vor dem Commit bleibt die Datei");
+
+            // Rollback: Zeilen bleiben, also auch die Datei
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            Thread.sleep(50);
+            assertTrue(storage.stat("a.png").isPresent());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            imageService.deleteImagesForUser(List.of(1), 7);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        for (int i = 0; i < 100 && storage.stat("a.png").isPresent(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(storage.stat("a.png").isEmpty());
+    }
+
+    @Test
+    void testFilesAreReleasedOnTheirOwnThread() throws Exception {
+        List<String> deletingThreads = new CopyOnWriteArrayList<>();
+        InMemoryImageStorage recording = new InMemoryImageStorage() {
+            @Override
+            public boolean delete(String key) {
+                deletingThreads.add(Thread.currentThread().getName());
+                return super.delete(key);
+            }
+        };
+        recording.putBytes("a.png", new byte[]{1});
+        recording.setLastModified("a.png", 0);
+        HotImageCache cache = new HotImageCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        ImageService service = new ImageService(noteRepository, imageRepository, imageVariantService, cache, recording, 1, 1);
+        when(imageRepository.findRowsByIdsAndUser(List.of(1), 7)).thenReturn(List.of(new NoteImageRow(1, 3, "a.png")));
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of());
+        try {
+            service.deleteImagesForUser(List.of(1), 7);
+
+            for (int i = 0; i < 100 && recording.stat("a.png").isPresent(); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(recording.stat("a.png").isEmpty());
+            // weder der anfragende Thread noch der Upload-Pool
+            assertEquals("image-release", deletingThreads.get(0));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    /** Bytes mit PNG-Signatur; marker unterscheidet die Inhalte */
+    private static byte[] png(int marker) {
+        return new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, (byte) marker};
+    }
+
+    private static Image image(int id, String url) {
+        Image image = new Image();
+        image.setId(id);
+        image.setUrl(url);
+        return image;
+    }
+}
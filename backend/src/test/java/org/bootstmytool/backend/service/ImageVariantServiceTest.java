@@ -0,0 +1,177 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.InMemoryImageStorage;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.bootstmytool.backend.storage.StoredImage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.1
+ * @Date: 2025-09-24
+ *
+ * Prüft das Erzeugen der Bildvarianten: Verkleinern mit erhaltenem Seitenverhältnis,
+ * Kopie bei kleinen Originalen, Rückfall auf das Original bei nicht unterstützten Formaten und
+ * nur eine Erzeugung bei gleichzeitigen Abrufen derselben Variante.
+ */
+public class ImageVariantServiceTest {
+
+    @TempDir
+    Path imageDir;
+
+    private SimpleMeterRegistry registry;
+    private LocalImageStorage storage;
+    private ImageVariantService service;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        storage = new LocalImageStorage(imageDir);
+        service = new ImageVariantService(storage, registry, 1, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testLargeImageIsScaledToVariantSize() throws Exception {
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png", imageDir.resolve("gross.png").toFile());
+
+        Optional<StoredImage> thumb = service.resolve("gross.png", ImageVariant.THUMB);
+
+        assertTrue(thumb.isPresent());
+        BufferedImage scaled = ImageIO.read(storage.localPath(thumb.get().getKey()).orElseThrow().toFile());
+        assertEquals(ImageVariant.THUMB.getMaxSize(), scaled.getWidth());
+        assertEquals(ImageVariant.THUMB.getMaxSize() / 2, scaled.getHeight());
+        assertEquals(1, registry.get("image.variants.processing.time").tag("mode", "lazy").timer().count());
+    }
+
+    @Test
+    public void testSmallImageIsCopied() throws Exception {
+        Path original = imageDir.resolve("klein.png");
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        StoredImage medium = service.resolve("klein.png", ImageVariant.MEDIUM).orElseThrow();
+
+        assertArrayEquals(Files.readAllBytes(original),
+                Files.readAllBytes(storage.localPath(medium.getKey()).orElseThrow()));
+    }
+
+    @Test
+    public void testUnsupportedOrMissingImagesFallBackToOriginal() throws Exception {
+        Files.write(imageDir.resolve("daten.bin"), new byte[]{1, 2, 3});
+
+        assertTrue(service.resolve("daten.bin", ImageVariant.THUMB).isEmpty());
+        assertTrue(service.resolve("fehlt.png", ImageVariant.THUMB).isEmpty());
+        assertTrue(service.resolve("../gross.png", ImageVariant.THUMB).isEmpty());
+    }
+
+    @Test
+    public void testEnqueueGeneratesAllVariantsInBackground() throws Exception {
+        ImageIO.write(new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_RGB), "jpg", imageDir.resolve("foto.jpg").toFile());
+
+        service.enqueue("foto.jpg");
+
+        String thumb = ImageStorage.variantKey(ImageVariant.THUMB, "foto.jpg");
+        String medium = ImageStorage.variantKey(ImageVariant.MEDIUM, "foto.jpg");
+        for (int i = 0; i < 100 && !(storage.stat(thumb).isPresent() && storage.stat(medium).isPresent()); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(ImageVariant.MEDIUM.getMaxSize(), ImageIO.read(storage.localPath(medium).orElseThrow().toFile()).getWidth());
+        assertEquals(ImageVariant.THUMB.getMaxSize(), ImageIO.read(storage.localPath(thumb).orElseThrow().toFile()).getWidth());
+    }
+
+    @Test
+    public void testVariantsWorkWithObjectStorage() throws Exception {
+        InMemoryImageStorage objectStorage = new InMemoryImageStorage();
+        // eigene Registry – sonst wäre die Queue-Gauge zweimal unter demselben Namen registriert
+        ImageVariantService objectService = new ImageVariantService(objectStorage, new SimpleMeterRegistry(), 1, 4);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(1600, 400, BufferedImage.TYPE_INT_RGB), "png", out);
+            objectStorage.putBytes("breit.png", out.toByteArray());
+
+            StoredImage medium = objectService.resolve("breit.png", ImageVariant.MEDIUM).orElseThrow();
+
+            try (InputStream in = objectStorage.open(medium.getKey())) {
+                BufferedImage scaled = ImageIO.read(in);
+                assertEquals(ImageVariant.MEDIUM.getMaxSize(), scaled.getWidth());
+                assertEquals(ImageVariant.MEDIUM.getMaxSize() / 4, scaled.getHeight());
+            }
+        } finally {
+            objectService.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsDecodeOnce() throws Exception {
+        AtomicInteger decodes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryImageStorage objectStorage = new InMemoryImageStorage() {
+            @Override
+            public InputStream open(String key) throws IOException {
+                if (key.equals("gross.png")) {
+                    decodes.incrementAndGet();
+                    try {
+                        release.await(); // erste Erzeugung hängt, bis der zweite Abruf wartet
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return super.open(key);
+            }
+        };
+        ImageVariantService objectService = new ImageVariantService(objectStorage, new SimpleMeterRegistry(), 1, 4);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png", out);
+            objectStorage.putBytes("gross.png", out.toByteArray());
+
+            List<Optional<StoredImage>> results = new CopyOnWriteArrayList<>();
+            Thread first = new Thread(() -> results.add(objectService.resolve("gross.png", ImageVariant.THUMB)));
+            Thread second = new Thread(() -> results.add(objectService.resolve("gross.png", ImageVariant.THUMB)));
+            first.start();
+            for (int i = 0; i < 200 && decodes.get() == 0; i++) {
+                Thread.sleep(10);
+            }
+            second.start();
+            for (int i = 0; i < 200 && second.getState() != Thread.State.WAITING; i++) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            first.join(5000);
+            second.join(5000);
+
+            assertEquals(1, decodes.get());
+            assertEquals(2, results.size());
+            assertTrue(results.stream().allMatch(Optional::isPresent));
+        } finally {
+            objectService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.bootstmytool.backend.service;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Diese Testklasse überprüft den JwtService ohne Spring-Kontext:
+ * Erzeugen und Parsen von Tokens, den Austausch des Secrets zur Laufzeit
+ * und den Cache für bereits verifizierte Tokens.
+ */
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-1234";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "JWT_EXPIRATION_TIME", 60_000L);
+        jwtService.init();
+    }
+
+    @Test
+    void testGenerateAndParseToken() {
+        String token = jwtService.generateToken("user@test.de");
+
+        assertEquals("user@test.de", jwtService.extractUsername(token));
+        assertEquals("user@test.de", jwtService.parseToken(token).getSubject());
+        assertFalse(jwtService.isTokenExpired(token));
+    }
+
+    @Test
+    void testReloadSecretInvalidatesOldTokens() {
+        String oldToken = jwtService.generateToken("user@test.de");
+
+        jwtService.reloadSecret("another-secret-another-secret-another-secret");
+
+        // Alte Tokens sind mit dem neuen Schlüssel nicht mehr gültig, neue schon
+        assertThrows(JwtException.class, () -> jwtService.parseToken(oldToken));
+        String newToken = jwtService.generateToken("user@test.de");
+        assertEquals("user@test.de", jwtService.extractUsername(newToken));
+    }
+
+    @Test
+    void testReloadSecretRejectsShortSecret() {
+        String token = jwtService.generateToken("user@test.de");
+
+        assertThrows(IllegalArgumentException.class, () -> jwtService.reloadSecret("zu-kurz"));
+
+        // Das bisherige Secret bleibt aktiv
+        assertEquals("user@test.de", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void testTokenCacheVerifiesSignatureOnlyOnce() {
+        JwtService cached = newCachedService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cached.bindTo(registry);
+
+        String token = cached.generateToken("user@test.de");
+        for (int i = 0; i < 5; i++) {
+            assertEquals("user@test.de", cached.extractUsername(token));
+        }
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "miss").functionCounter().count());
+        assertEquals(4.0, registry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testTokenCacheIsClearedOnSecretReload() {
+        JwtService cached = newCachedService();
+        String token = cached.generateToken("user@test.de");
+        cached.parseToken(token); // landet im Cache
+
+        cached.reloadSecret("another-secret-another-secret-another-secret");
+
+        assertThrows(JwtException.class, () -> cached.parseToken(token));
+    }
+
+    private JwtService newCachedService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "JWT_EXPIRATION_TIME", 60_000L);
+        ReflectionTestUtils.setField(service, "tokenCacheEnabled", true);
+        ReflectionTestUtils.setField(service, "tokenCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+}
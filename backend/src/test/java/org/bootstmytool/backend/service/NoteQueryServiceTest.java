@@ -0,0 +1,130 @@
+package org.bootstmytool.backend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.bootstmytool.backend.dto.NoteCursor;
+import org.bootstmytool.backend.dto.NoteDTO;
+import org.bootstmytool.backend.dto.NotePageDTO;
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.model.User;
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft, dass das Lesemodell für Listen eine feste Anzahl Abfragen pro Seite stellt
+ * (Notizen, Tags, Bild-URLs) – unabhängig von der Anzahl Notizen – und keine Entitäten
+ * und damit keine Bilddaten lädt.
+ */
+@DataJpaTest
+@Import({NoteQueryService.class, NoteSearchIndex.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class NoteQueryServiceTest {
+
+    private static final int NOTE_COUNT = 500;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private NoteQueryService noteQueryService;
+
+    private int userId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = new User();
+        user.setEmail("viele@test.de");
+        user.setPassword("x");
+        entityManager.persist(user);
+        userId = (int) user.getId();
+
+        for (int i = 0; i < NOTE_COUNT; i++) {
+            Note note = new Note();
+            note.setTitle("Notiz " + i);
+            note.setTags(new ArrayList<>(List.of("uni", "tag" + i)));
+            note.setUser(user);
+            entityManager.persist(note);
+
+            Image image = new Image();
+            image.setUrl("bild" + i + ".png");
+            image.setSize(1024L);
+            image.setNote(note);
+            entityManager.persist(image);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testPagesUseThreeStatementsEachAndNoEntities() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<NoteDTO> all = new ArrayList<>();
+        NotePageDTO page = noteQueryService.getNotePage(userId, null, 200);
+        int pages = 1;
+        all.addAll(page.getItems());
+        while (page.getNextCursor() != null) {
+            page = noteQueryService.getNotePage(userId, NoteCursor.decode(page.getNextCursor()), 200);
+            all.addAll(page.getItems());
+            pages++;
+        }
+
+        assertEquals(NOTE_COUNT, all.size());
+        assertEquals(3, pages);
+        assertEquals(3L * pages, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+        assertEquals(0, stats.getCollectionLoadCount());
+
+        NoteDTO first = all.get(0);
+        assertEquals(2, first.getTags().size());
+        assertEquals(1, first.getImages().size());
+        assertTrue(first.getImages().get(0).getUrl().endsWith("/image/bild" + first.getTitle().substring(6) + ".png"));
+    }
+
+    @Test
+    public void testFilterUsesThreeStatementsForAllMatches() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<NoteDTO> result = noteQueryService.searchAndFilter(userId, "uni", null, null, null, null, 0);
+
+        assertEquals(NOTE_COUNT, result.size());
+        assertEquals(3, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+
+    @Test
+    public void testEmptyPageNeedsSingleStatement() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        NotePageDTO page = noteQueryService.getNotePage(userId + 1, null, 50);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,106 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.Note;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.repository.NoteRepository;
+import org.bootstmytool.backend.search.NoteSearchIndex;
+import org.bootstmytool.backend.storage.InMemoryImageStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft das Löschen einer Notiz: Der ImageService prüft die Referenzen aller Bilder mit einer
+ * Abfrage und gibt die Dateien im Hintergrund frei. Ein Fehler beim Freigeben einer Datei
+ * bricht weder das Löschen noch die übrigen Dateien ab.
+ */
+@ExtendWith(MockitoExtension.class)
+class NoteServiceTest {
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private NoteSearchIndex noteSearchIndex;
+
+    private InMemoryImageStorage storage;
+    private ImageService imageService;
+    private NoteService noteService;
+
+    @BeforeEach
+    void setUp() {
+        // a.png lässt sich nicht löschen
+        storage = new InMemoryImageStorage() {
+            @Override
+            public boolean delete(String key) {
+                if (key.equals("a.png")) {
+                    throw new IllegalStateException("Speicher nicht erreichbar");
+                }
+                return super.delete(key);
+            }
+        };
+        HotImageCache cache = new HotImageCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        imageService = new ImageService(noteRepository, imageRepository, imageVariantService, cache, storage, 2, 1);
+        noteService = new NoteService(noteRepository, imageRepository, imageVariantService, noteSearchIndex, imageService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageService.shutdown();
+    }
+
+    @Test
+    void testFailedReleaseDoesNotStopDeletion() throws Exception {
+        Note note = new Note();
+        note.setImages(new ArrayList<>(List.of(image(1, "a.png"), image(2, "b.png"))));
+        storage.putBytes("a.png", new byte[]{1});
+        storage.putBytes("b.png", new byte[]{2});
+        storage.setLastModified("a.png", 0);
+        storage.setLastModified("b.png", 0);
+        when(noteRepository.findById(5)).thenReturn(Optional.of(note));
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of());
+
+        assertEquals("Notiz gelöscht!", noteService.deleteNoteById(5));
+
+        verify(imageRepository, times(1)).findReferencedUrls(Set.of("a.png", "b.png"));
+        verify(noteRepository).delete(note);
+
+        // b.png wird trotz des Fehlers bei a.png im Hintergrund entfernt
+        for (int i = 0; i < 100 && storage.stat("b.png").isPresent(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(storage.stat("b.png").isEmpty());
+        assertTrue(storage.stat("a.png").isPresent()); // bleibt für den OrphanImageSweeper
+    }
+
+    private static Image image(int id, String url) {
+        Image image = new Image();
+        image.setId(id);
+        image.setUrl(url);
+        return image;
+    }
+}
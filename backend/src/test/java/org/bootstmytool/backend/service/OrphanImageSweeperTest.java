@@ -0,0 +1,150 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.repository.ImageRepository;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die Bereinigung verwaister Bilddateien: nur nicht referenzierte Dateien außerhalb der
+ * Karenzzeit werden gelöscht (samt Varianten und alten Temp-Dateien), ein Durchlauf verteilt sich
+ * auf mehrere Schritte, die freigegebenen Bytes landen in den Metriken und fremde Dateien bleiben.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrphanImageSweeperTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    /** Namen wie von ProcessImage vergeben (SHA-256 + Endung) */
+    private static final String KEPT = "a".repeat(64) + ".png";
+    private static final String ORPHAN = "b".repeat(64) + ".png";
+    private static final String FRESH = "c".repeat(64) + ".png";
+
+    private LocalImageStorage storage;
+    private SimpleMeterRegistry registry;
+    private OrphanImageSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(root);
+        registry = new SimpleMeterRegistry();
+        HotImageCache cache = new HotImageCache(false, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64));
+        sweeper = new OrphanImageSweeper(storage, imageRepository, cache, registry,
+                Duration.ofHours(1), Duration.ofHours(48), 2);
+    }
+
+    @Test
+    void testOnlyOldUnreferencedFilesAreDeleted() throws Exception {
+        when(imageRepository.count()).thenReturn(1L);
+        when(imageRepository.findReferencedUrls(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> urls = invocation.getArgument(0);
+            return urls.stream().filter(KEPT::equals).toList();
+        });
+        store(KEPT, 100, Duration.ofDays(2));
+        store(ORPHAN, 1000, Duration.ofDays(2));
+        store(ImageStorage.variantKey(ImageVariant.THUMB, ORPHAN), 50, Duration.ofDays(2));
+        store(FRESH, 10, Duration.ZERO);
+        Path temp = Files.write(storage.createTempFile(), new byte[5]);
+        Files.setLastModifiedTime(temp, FileTime.from(Instant.now().minus(Duration.ofDays(3))));
+
+        long reclaimed = 0;
+        int steps = 0;
+        do {
+            reclaimed += sweeper.sweepStep();
+            steps++;
+        } while (steps < 10 && storage.stat(ImageStorage.variantKey(ImageVariant.THUMB, ORPHAN)).isPresent());
+        // Rest des Durchlaufs
+        for (int i = 0; i < 3; i++) {
+            reclaimed += sweeper.sweepStep();
+        }
+
+        assertTrue(steps > 1, "Durchlauf muss sich auf mehrere Schritte verteilen");
+        assertTrue(storage.stat(KEPT).isPresent());
+        assertTrue(storage.stat(FRESH).isPresent());
+        assertTrue(storage.stat(ORPHAN).isEmpty());
+        assertTrue(storage.stat(ImageStorage.variantKey(ImageVariant.THUMB, ORPHAN)).isEmpty());
+        assertFalse(Files.exists(temp));
+        assertEquals(1055, reclaimed);
+        assertEquals(1055, registry.get("image.gc.reclaimed.bytes").counter().count(), 0.001);
+        assertEquals(2, registry.get("image.gc.deleted.files").tag("kind", "image").counter().count(), 0.001);
+        assertEquals(1, registry.get("image.gc.deleted.files").tag("kind", "temp").counter().count(), 0.001);
+    }
+
+    @Test
+    void testNothingIsDeletedWhenTableIsEmpty() throws Exception {
+        when(imageRepository.count()).thenReturn(0L);
+        store(ORPHAN, 1000, Duration.ofDays(2));
+
+        assertEquals(0, sweeper.sweepStep());
+
+        assertTrue(storage.stat(ORPHAN).isPresent());
+        verify(imageRepository, never()).findReferencedUrls(anyCollection());
+    }
+
+    @Test
+    void testReferenceCheckIsOneQueryPerStep() throws Exception {
+        when(imageRepository.count()).thenReturn(1L);
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of());
+        for (int i = 0; i < 4; i++) {
+            store(String.valueOf(i).repeat(64) + ".png", 10, Duration.ZERO);
+        }
+
+        sweeper.sweepStep();
+        sweeper.sweepStep();
+
+        verify(imageRepository, times(2)).findReferencedUrls(anyCollection());
+        assertEquals(4, registry.get("image.gc.scanned.files").counter().count(), 0.001);
+    }
+
+    @Test
+    void testForeignFilesAreNeverDeleted() throws Exception {
+        when(imageRepository.count()).thenReturn(1L);
+        when(imageRepository.findReferencedUrls(anyCollection())).thenReturn(List.of());
+        store("logo.png", 100, Duration.ofDays(2));
+        store("1740583174643_alt.png", 100, Duration.ofDays(2)); // frühere Namensvergabe
+        store(ORPHAN, 100, Duration.ofDays(2));
+
+        for (int i = 0; i < 4; i++) {
+            sweeper.sweepStep();
+        }
+
+        assertTrue(storage.stat("logo.png").isPresent());
+        assertTrue(storage.stat("1740583174643_alt.png").isEmpty());
+        assertTrue(storage.stat(ORPHAN).isEmpty());
+        verify(imageRepository, never()).findReferencedUrls(argThat(urls -> urls.contains("logo.png")));
+    }
+
+    private void store(String key, int size, Duration age) throws Exception {
+        storage.put(key, Files.write(storage.createTempFile(), new byte[size]));
+        Path file = storage.localPath(key).orElseThrow();
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+    }
+}
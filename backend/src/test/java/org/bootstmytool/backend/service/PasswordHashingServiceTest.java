@@ -0,0 +1,97 @@
+package org.bootstmytool.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bootstmytool.backend.security.BCryptCostCalibrator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Diese Testklasse überprüft die Backpressure des PasswordHashingService:
+ * ist der Pool samt Warteschlange belegt, wird sofort abgewiesen statt zu blockieren.
+ */
+class PasswordHashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testRejectsWhenPoolAndQueueAreFull() throws Exception {
+        service = new PasswordHashingService(new BlockingEncoder(), BCryptCostCalibrator.fixed(10), registry, 1, 1, Duration.ofSeconds(5));
+
+        // 1. Auftrag belegt den einzigen Thread, 2. Auftrag die Warteschlange
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.encode("a"));
+        waitForQueueDepth(0);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> service.encode("b"));
+        waitForQueueDepth(1);
+
+        // 3. Auftrag wird sofort abgewiesen
+        assertThrows(PasswordHashingService.BusyException.class, () -> service.encode("c"));
+        assertEquals(1.0, registry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:a", first.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:b", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMatchesDelegatesToEncoder() {
+        release.countDown();
+        service = new PasswordHashingService(new BlockingEncoder(), BCryptCostCalibrator.fixed(10), registry, 2, 4, Duration.ofSeconds(5));
+
+        assertTrue(service.matches("geheim", "hash:geheim"));
+        assertFalse(service.matches("falsch", "hash:geheim"));
+        assertEquals(2, registry.get("auth.password.hash.time").tag("operation", "matches").timer().count());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (registry.get("auth.password.queue.depth").gauge().value() != depth
+                || (depth == 0 && registry.get("auth.password.queue.wait").timer().count() == 0)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Warteschlange erreicht nicht die erwartete Tiefe " + depth);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Encoder, der blockiert, bis der Test ihn freigibt.
+     */
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
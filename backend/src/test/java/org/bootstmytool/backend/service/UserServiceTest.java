@@ -0,0 +1,85 @@
+package org.bootstmytool.backend.service;
+
+import org.bootstmytool.backend.model.User;
+import org.bootstmytool.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Diese Testklasse überprüft den Identitäts-Cache des UserService:
+ * wiederholte Zugriffe treffen die Datenbank nur einmal, eine Invalidierung lädt neu.
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userService, "identityCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(userService, "identityCacheTtl", Duration.ofMinutes(10));
+        userService.init();
+    }
+
+    @Test
+    void testIdentityIsLoadedOnlyOnce() {
+        when(userRepository.findByEmail("user@test.de")).thenReturn(Optional.of(user(3, "user@test.de", "hash-1")));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(3, userService.findIdentityByEmail("user@test.de").orElseThrow().getId());
+        }
+
+        verify(userRepository, times(1)).findByEmail("user@test.de");
+    }
+
+    @Test
+    void testEvictIdentityReloadsChangedPassword() {
+        when(userRepository.findByEmail("user@test.de"))
+                .thenReturn(Optional.of(user(3, "user@test.de", "hash-1")))
+                .thenReturn(Optional.of(user(3, "user@test.de", "hash-2")));
+
+        assertEquals("hash-1", userService.findIdentityByEmail("user@test.de").orElseThrow().getPasswordHash());
+
+        userService.evictIdentity("user@test.de");
+
+        assertEquals("hash-2", userService.findIdentityByEmail("user@test.de").orElseThrow().getPasswordHash());
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        when(userRepository.findByEmail("neu@test.de")).thenReturn(Optional.empty());
+
+        assertTrue(userService.findIdentityByEmail("neu@test.de").isEmpty());
+        assertTrue(userService.findIdentityByEmail("neu@test.de").isEmpty());
+
+        // Kein Negativ-Caching: eine spätere Registrierung wird sofort sichtbar
+        verify(userRepository, times(2)).findByEmail("neu@test.de");
+    }
+
+    private static User user(int id, String email, String hash) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setPassword(hash);
+        return user;
+    }
+}
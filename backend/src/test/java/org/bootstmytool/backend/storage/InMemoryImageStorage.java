@@ -0,0 +1,119 @@
+package org.bootstmytool.backend.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Bildspeicher im Arbeitsspeicher für Tests. Verhält sich wie ein Objektspeicher (S3):
+ * flache Schlüssel, Inhalte nur als Ganzes schreibbar, kein lokaler Pfad – Leser müssen
+ * also den Stream-Weg gehen.
+ */
+public class InMemoryImageStorage implements ImageStorage {
+
+    private final ConcurrentSkipListMap<String, StoredBytes> objects = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile("in-memory-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        ImageStorage.checkKey(key);
+        putBytes(key, Files.readAllBytes(source));
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public Optional<StoredImage> stat(String key) {
+        ImageStorage.checkKey(key);
+        StoredBytes object = objects.get(key);
+        return object == null ? Optional.empty()
+                : Optional.of(new StoredImage(key, object.data.length, object.lastModified));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        ImageStorage.checkKey(key);
+        StoredBytes object = objects.get(key);
+        if (object == null) {
+            throw new NoSuchFileException(key);
+        }
+        return new ByteArrayInputStream(object.data);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean touch(String key) {
+        ImageStorage.checkKey(key);
+        return objects.computeIfPresent(key, (k, object) -> new StoredBytes(object.data, System.currentTimeMillis())) != null;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        ImageStorage.checkKey(key);
+        return objects.remove(key) != null;
+    }
+
+    @Override
+    public StoragePage list(String cursor, int limit) {
+        // wie ListObjectsV2 mit StartAfter: sortiert nach Schlüssel, Marke = letzter Schlüssel
+        Map<String, StoredBytes> tail = cursor == null ? objects : objects.tailMap(cursor, false);
+        List<StoredImage> entries = new ArrayList<>();
+        for (Map.Entry<String, StoredBytes> object : tail.entrySet()) {
+            if (entries.size() == limit) {
+                return new StoragePage(entries, entries.get(entries.size() - 1).getKey());
+            }
+            entries.add(new StoredImage(object.getKey(), object.getValue().data.length, object.getValue().lastModified));
+        }
+        return new StoragePage(entries, null);
+    }
+
+    /**
+     * Legt einen Inhalt direkt an.
+     */
+    public void putBytes(String key, byte[] data) {
+        objects.put(key, new StoredBytes(data, System.currentTimeMillis()));
+    }
+
+    /**
+     * Setzt den Änderungszeitpunkt (z.B. um eine Karenzzeit zu überspringen).
+     */
+    public void setLastModified(String key, long lastModified) {
+        objects.computeIfPresent(key, (k, object) -> new StoredBytes(object.data, lastModified));
+    }
+
+    /**
+     * @return Anzahl gespeicherter Objekte
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    private static final class StoredBytes {
+        private final byte[] data;
+        private final long lastModified;
+
+        private StoredBytes(byte[] data, long lastModified) {
+            this.data = data;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.bootstmytool.backend.storage;
+
+import org.bootstmytool.backend.model.ImageVariant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft die lokale Ablage: zweistufige Verteilung, Zugriff auf noch flach liegende Altdateien
+ * und deren Migration, seitenweises Listen, das Aufräumen von Temp-Dateien sowie das Abweisen
+ * ungültiger Schlüssel.
+ */
+public class LocalImageStorageTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testPutUsesTwoLevelFanOut() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(root);
+        Path temp = storage.createTempFile();
+        Files.write(temp, new byte[]{1, 2, 3});
+
+        storage.put("abc.png", temp);
+
+        Path stored = storage.localPath("abc.png").orElseThrow();
+        assertEquals(storage.shardedPath("abc.png"), stored);
+        Path shard = root.relativize(stored);
+        assertEquals(3, shard.getNameCount());
+        assertTrue(shard.getName(0).toString().matches("[0-9a-f]{2}"));
+        assertTrue(shard.getName(1).toString().matches("[0-9a-f]{2}"));
+        assertFalse(Files.exists(temp));
+        assertEquals(3, storage.stat("abc.png").orElseThrow().getSize());
+    }
+
+    @Test
+    public void testVariantsAreShardedBelowTheirDirectory() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(root);
+        String key = ImageStorage.variantKey(ImageVariant.THUMB, "abc.png");
+        Path temp = storage.createTempFile();
+
+        storage.put(key, temp);
+
+        assertTrue(storage.localPath(key).orElseThrow().startsWith(root.resolve("variants/thumb")));
+        assertTrue(storage.delete(key));
+        assertTrue(storage.stat(key).isEmpty());
+    }
+
+    @Test
+    public void testLegacyFilesAreFoundAndMigrated() throws Exception {
+        Files.write(root.resolve("1758498478121_alt.jpg"), new byte[]{7, 8});
+        Files.createDirectories(root.resolve("variants/medium"));
+        Files.write(root.resolve("variants/medium/1758498478121_alt.jpg"), new byte[]{9});
+        Files.write(root.resolve(".upload-123.tmp"), new byte[]{0}); // Temp-Dateien bleiben liegen
+        LocalImageStorage storage = new LocalImageStorage(root);
+
+        // Vor der Migration über den flachen Pfad erreichbar
+        try (InputStream in = storage.open("1758498478121_alt.jpg")) {
+            assertArrayEquals(new byte[]{7, 8}, in.readAllBytes());
+        }
+
+        assertEquals(2, storage.migrateLegacyLayout());
+
+        assertFalse(Files.exists(root.resolve("1758498478121_alt.jpg")));
+        assertEquals(storage.shardedPath("1758498478121_alt.jpg"), storage.localPath("1758498478121_alt.jpg").orElseThrow());
+        String variant = ImageStorage.variantKey(ImageVariant.MEDIUM, "1758498478121_alt.jpg");
+        assertEquals(storage.shardedPath(variant), storage.localPath(variant).orElseThrow());
+        assertTrue(Files.exists(root.resolve(".upload-123.tmp")));
+        try (Stream<Path> files = Files.list(root)) {
+            assertEquals(0, files.filter(Files::isRegularFile).filter(f -> !f.getFileName().toString().startsWith(".")).count());
+        }
+
+        // Zweiter Lauf hat nichts mehr zu tun
+        assertEquals(0, storage.migrateLegacyLayout());
+    }
+
+    @Test
+    public void testListPagesThroughAllEntriesOnce() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(root);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            String name = "bild" + i + ".png";
+            storage.put(name, Files.write(storage.createTempFile(), new byte[i]));
+            expected.add(name);
+        }
+        String variant = ImageStorage.variantKey(ImageVariant.THUMB, "bild3.png");
+        storage.put(variant, storage.createTempFile());
+        expected.add(variant);
+        Files.write(root.resolve("alt.png"), new byte[]{1}); // noch flach abgelegt
+        expected.add("alt.png");
+        storage.createTempFile(); // Temp-Dateien gehören nicht dazu
+
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            StoragePage page = storage.list(cursor, 3);
+            assertTrue(page.getEntries().size() <= 3);
+            page.getEntries().forEach(e -> listed.add(e.getKey()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected.size(), listed.size());
+        assertEquals(expected, new HashSet<>(listed));
+        assertTrue(pages >= 8);
+    }
+
+    @Test
+    public void testStaleTempFilesAreDeleted() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(root);
+        Path stale = Files.write(storage.createTempFile(), new byte[10]);
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(3))));
+        Path active = storage.createTempFile();
+
+        long[] deleted = storage.deleteStaleTempFiles(Instant.now().minus(Duration.ofDays(2)));
+
+        assertArrayEquals(new long[]{1, 10}, deleted);
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(active));
+    }
+
+    @Test
+    public void testInvalidKeysAreRejected() {
+        LocalImageStorage storage = new LocalImageStorage(root);
+
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("../geheim.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.stat("a/b.png"));
+        assertThrows(IllegalArgumentException.class, () -> storage.stat(".versteckt"));
+        assertFalse(ImageStorage.isValidName("..") || ImageStorage.isValidName(""));
+    }
+}
@@ -0,0 +1,168 @@
+package org.bootstmytool.backend.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.1
+ * @Date: 2025-09-24
+ *
+ * Prüft die Auslieferung von Bilddateien: Cache-Header, bedingte Anfragen (304),
+ * Teilbereiche (206/416) und die Übergabe an sendfile.
+ */
+public class ImageResponseWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = dir.resolve("abc.png");
+        Files.write(file, content);
+    }
+
+    @Test
+    public void testFullResponseCarriesCacheHeaders() throws Exception {
+        MockHttpServletResponse response = write(new MockHttpServletRequest("GET", "/image/abc.png"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(ImageResponseWriter.CACHE_IMMUTABLE, response.getHeader("Cache-Control"));
+        assertEquals(ImageResponseWriter.etag("original", "abc.png", 1000), response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("nosniff", response.getHeader("X-Content-Type-Options"));
+        assertEquals(1000, response.getContentLengthLong());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testMatchingEtagReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.addHeader("If-None-Match", "\"other\", W/" + ImageResponseWriter.etag("original", "abc.png", 1000));
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testRangeReturnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.addHeader("Range", "bytes=100-199");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertEquals(100, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testRangeBeyondEndIsNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.addHeader("Range", "bytes=5000-");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void testStaleIfRangeReturnsWholeFile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"veraltet\"");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testLargeFileIsHandedToSendfile() throws Exception {
+        Files.write(file, new byte[(int) ImageResponseWriter.SENDFILE_MIN_SIZE]);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=-1024");
+
+        MockHttpServletResponse response = write(request);
+
+        // Bereich ist kleiner als die Schwelle → direkt geschrieben
+        assertEquals(1024, response.getContentAsByteArray().length);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+
+        request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        response = write(request);
+
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(ImageResponseWriter.SENDFILE_MIN_SIZE, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testInMemoryImageUsesSameHeadersAndRanges() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/image/abc.png");
+        request.addHeader("Range", "bytes=10-19");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ImageResponseWriter.write("abc.png", content, 0L, "original", ImageResponseWriter.CACHE_IMMUTABLE,
+                request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(ImageResponseWriter.etag("original", "abc.png", 1000), response.getHeader("ETag"));
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testOnlyAcceptedImageTypesAreServedAsSuch() {
+        assertEquals("image/jpeg", ImageResponseWriter.contentType("abc.jpg").toString());
+        assertEquals("image/webp", ImageResponseWriter.contentType("abc.webp").toString());
+        // Altbestand mit fremder Endung wird nicht als HTML/SVG interpretiert
+        assertEquals("application/octet-stream", ImageResponseWriter.contentType("1700000000000_x.html").toString());
+        assertEquals("application/octet-stream", ImageResponseWriter.contentType("1700000000000_x.svg").toString());
+    }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new long[]{0, 99}, ImageResponseWriter.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[]{990, 999}, ImageResponseWriter.parseRange("bytes=-10", 1000));
+        assertArrayEquals(new long[]{500, 999}, ImageResponseWriter.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[]{500, 999}, ImageResponseWriter.parseRange("bytes=500-5000", 1000));
+        assertSame(ImageResponseWriter.UNSATISFIABLE, ImageResponseWriter.parseRange("bytes=1000-", 1000));
+        assertNull(ImageResponseWriter.parseRange("bytes=0-1,5-6", 1000));
+        assertNull(ImageResponseWriter.parseRange("bytes=9-1", 1000));
+        assertNull(ImageResponseWriter.parseRange("items=0-1", 1000));
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ImageResponseWriter.write(file, "original", ImageResponseWriter.CACHE_IMMUTABLE, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,211 @@
+package org.bootstmytool.backend.utils;
+
+import org.bootstmytool.backend.model.Image;
+import org.bootstmytool.backend.model.ImageVariant;
+import org.bootstmytool.backend.storage.ImageStorage;
+import org.bootstmytool.backend.storage.InMemoryImageStorage;
+import org.bootstmytool.backend.storage.LocalImageStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.1
+ * @Date: 2025-09-24
+ *
+ * Prüft das Streamen eines Uploads: Datei, Prüfsumme, Größe und erkannter Typ werden in
+ * einem Durchlauf erzeugt, ohne die Datei als Byte-Array zu laden.
+ * Außerdem die inhaltsadressierte Ablage (Deduplizierung, Freigabe der letzten Referenz) und dass
+ * nur erkannte Bildformate angenommen werden.
+ */
+public class ProcessImageTest {
+
+    @TempDir
+    Path dir;
+
+    /** Upload, der ein vollständiges Laden in den Speicher nicht erlaubt */
+    private static class StreamOnlyFile extends MockMultipartFile {
+        StreamOnlyFile(String contentType, byte[] content) {
+            super("images", "bild.png", contentType, content);
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            throw new IOException("Upload darf nicht komplett gepuffert werden");
+        }
+    }
+
+    @Test
+    public void testStreamToFileComputesMetadataInOnePass() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(9, 4, BufferedImage.TYPE_INT_RGB), "png", out);
+        byte[] png = out.toByteArray();
+
+        Image image = new Image();
+        Path target = dir.resolve("bild.png");
+        // Der Client behauptet einen falschen Typ – entscheidend sind die Magic Bytes
+        ProcessImage.streamToFile(new StreamOnlyFile("application/octet-stream", png), target, image);
+
+        assertArrayEquals(png, Files.readAllBytes(target));
+        assertEquals(png.length, image.getSize());
+        assertEquals("image/png", image.getContentType());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)), image.getChecksum());
+    }
+
+    @Test
+    public void testLargeUploadIsStreamed() throws Exception {
+        long size = 10L * 1024 * 1024;
+        MockMultipartFile file = new StreamOnlyFile("image/jpeg", new byte[0]) {
+            @Override
+            public InputStream getInputStream() {
+                return new InputStream() {
+                    private long remaining = size;
+
+                    @Override
+                    public int read() {
+                        return remaining-- > 0 ? 0 : -1;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) {
+                        if (remaining <= 0) return -1;
+                        int n = (int) Math.min(len, remaining);
+                        if (remaining == size) {
+                            // JPEG-Signatur am Anfang, der Rest sind Nullen
+                            b[off] = (byte) 0xFF;
+                            b[off + 1] = (byte) 0xD8;
+                            b[off + 2] = (byte) 0xFF;
+                        }
+                        remaining -= n;
+                        return n;
+                    }
+                };
+            }
+        };
+
+        Image image = new Image();
+        ProcessImage.streamToFile(file, dir.resolve("gross.bin"), image);
+
+        assertEquals(size, image.getSize());
+        assertEquals(size, Files.size(dir.resolve("gross.bin")));
+        assertEquals("image/jpeg", image.getContentType());
+    }
+
+    @Test
+    public void testSniffContentType() {
+        assertEquals("image/jpeg", ImageMetadata.sniffContentType(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0}, 4));
+        assertEquals("image/gif", ImageMetadata.sniffContentType("GIF89a".getBytes(), 6));
+        assertEquals("image/webp", ImageMetadata.sniffContentType("RIFF\0\0\0\0WEBP".getBytes(), 12));
+        assertEquals(null, ImageMetadata.sniffContentType("hallo".getBytes(), 5));
+    }
+
+    @Test
+    public void testIdenticalUploadsAreStoredOnce() throws Exception {
+        byte[] png = png(5, 5);
+        LocalImageStorage storage = new LocalImageStorage(dir);
+
+        Image first = ProcessImage.store(new MockMultipartFile("images", "a.png", "image/png", png), storage);
+        Image second = ProcessImage.store(new MockMultipartFile("images", "kopie von a.PNG", "image/png", png), storage);
+
+        assertEquals(first.getUrl(), second.getUrl());
+        assertEquals(first.getChecksum() + ".png", first.getUrl());
+        assertEquals(5, second.getWidth());
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count()); // keine Kopie, keine Temp-Reste
+        }
+    }
+
+    @Test
+    public void testReleaseFileOnlyWithoutReferences() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(dir);
+        Image image = ProcessImage.store(new MockMultipartFile("images", "a.png", "image/png", png(3, 3)), storage);
+        Path file = storage.localPath(image.getUrl()).orElseThrow();
+
+        // Noch referenziert bzw. gerade erst hochgeladen → bleibt
+        assertFalse(ProcessImage.releaseFile(storage, image.getUrl(), 1));
+        assertFalse(ProcessImage.releaseFile(storage, image.getUrl(), 0));
+        assertTrue(Files.exists(file));
+
+        String thumbKey = ImageStorage.variantKey(ImageVariant.THUMB, image.getUrl());
+        Path copy = storage.createTempFile();
+        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        storage.put(thumbKey, copy);
+
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(ProcessImage.RECENT_UPLOAD_GRACE.multipliedBy(2))));
+        assertTrue(ProcessImage.releaseFile(storage, image.getUrl(), 0));
+        assertFalse(Files.exists(file));
+        assertTrue(storage.stat(thumbKey).isEmpty()); // Varianten werden mit entfernt
+    }
+
+    @Test
+    public void testStoreWorksWithObjectStorage() throws Exception {
+        InMemoryImageStorage storage = new InMemoryImageStorage();
+        byte[] png = png(4, 2);
+
+        Image image = ProcessImage.store(new MockMultipartFile("images", "a.png", "image/png", png), storage);
+
+        assertEquals(1, storage.size());
+        try (InputStream in = storage.open(image.getUrl())) {
+            assertArrayEquals(png, in.readAllBytes());
+        }
+        assertEquals(4, image.getWidth());
+
+        storage.setLastModified(image.getUrl(), 0);
+        assertTrue(ProcessImage.releaseFile(storage, image.getUrl(), 0));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testOnlyRecognizedTypesGetAnExtension() {
+        assertEquals("jpg", ProcessImage.extensionFor("image/jpeg"));
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class, () -> ProcessImage.extensionFor(null));
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class, () -> ProcessImage.extensionFor("image/svg+xml"));
+    }
+
+    @Test
+    public void testClientTypeAndNameAreIgnored() throws Exception {
+        LocalImageStorage storage = new LocalImageStorage(dir);
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes();
+
+        // Der Client behauptet ein PNG – die Magic Bytes sagen etwas anderes
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class,
+                () -> ProcessImage.store(new MockMultipartFile("images", "a.png", "image/png", html), storage));
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class,
+                () -> ProcessImage.store(new MockMultipartFile("images", "logo.svg", "image/svg+xml", html), storage));
+
+        Path source = Files.write(dir.resolve("upload.tmp"), html);
+        assertThrows(ProcessImage.UnsupportedImageTypeException.class, () -> ProcessImage.storeFile(source, storage));
+        assertFalse(Files.exists(source));
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count()); // nichts abgelegt, keine Temp-Reste
+        }
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
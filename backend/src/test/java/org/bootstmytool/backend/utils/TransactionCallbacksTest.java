@@ -0,0 +1,58 @@
+package org.bootstmytool.backend.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @Author Mohamed Elslakawy
+ * @Version 1.0
+ * @Date: 2025-09-24
+ *
+ * Prüft, dass Nebenwirkungen erst nach dem Commit und bei einem Rollback gar nicht laufen.
+ */
+public class TransactionCallbacksTest {
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testRunsImmediatelyWithoutTransaction() {
+        AtomicInteger runs = new AtomicInteger();
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testRunsOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+        assertEquals(0, runs.get());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testSkippedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, runs.get());
+    }
+}
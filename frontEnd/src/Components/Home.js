@@ -4,16 +4,16 @@
  * Datum: 24.09.2025
  *
  * Die `Home` Komponente ist die Hauptseite der EduNotizen-Anwendung. Sie lädt
- * die Notizen einmal beim Mount vom Server, prüft die Token-Gültigkeit und
- * zeigt Lade- bzw. Fehlermeldungen an. Zusätzlich bietet sie umfangreiche
- * Filtermöglichkeiten:
+ * beim Mount die erste Seite der Notizen vom Server (weitere Seiten über
+ * "Mehr laden"), prüft die Token-Gültigkeit und zeigt Lade- bzw.
+ * Fehlermeldungen an. Zusätzlich bietet sie umfangreiche Filtermöglichkeiten:
  * - Suchtext in Titel/Content
  * - Tag-Pills
  * - Kategorie- und Typ-Filter
  * - Zeitraumfilter (Von/Bis)
  * Lange Inhalte können ein- oder ausgeklappt werden, und Notizen lassen sich
- * direkt löschen. Alle Filter wirken clientseitig, um schnelle UI-Interaktionen
- * ohne erneutes Laden vom Server zu ermöglichen.
+ * direkt löschen. Alle Filter wirken clientseitig auf die bereits geladenen Notizen,
+ * um schnelle UI-Interaktionen ohne erneutes Laden vom Server zu ermöglichen.
  */
 
 // Import von React und Material-UI Komponenten
@@ -32,7 +32,7 @@ import {
 import RestartAltIcon from "@mui/icons-material/RestartAlt";
 import { jwtDecode } from "jwt-decode";
 import { useNavigate } from "react-router-dom";
-import { deleteNote, getNotes } from "../api";
+import { deleteNote, getNotesPage } from "../api";
 import NoteList from "./Notes/NoteList";
 import UserProfile from "./UserProfile";
 
@@ -42,6 +42,8 @@ const Home = ({ searchTerm = "" }) => {
   const [notes, setNotes] = useState([]);
   const [filteredNotes, setFilteredNotes] = useState([]);
   const [isLoading, setIsLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);   // null = keine weiteren Seiten
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const [error, setError] = useState("");
   const [successMessage, setSuccessMessage] = useState("");
   const [expandedNoteIds, setExpandedNoteIds] = useState([]);
@@ -80,10 +82,11 @@ const Home = ({ searchTerm = "" }) => {
     }
 
     try {
-      const data = await getNotes();
-      const safeData = Array.isArray(data) ? data : [];
+      const page = await getNotesPage();
+      const safeData = Array.isArray(page.items) ? page.items : [];
       setNotes(safeData);
       setFilteredNotes(safeData);
+      setNextCursor(page.nextCursor);
       setError("");
     } catch (err) {
       console.error("Fehler beim Laden der Notizen:", err);
@@ -93,6 +96,24 @@ const Home = ({ searchTerm = "" }) => {
     }
   };
 
+  // Nächste Seite anhängen
+  const loadMoreNotes = async () => {
+    if (!nextCursor || isLoadingMore) return;
+    setIsLoadingMore(true);
+    try {
+      const page = await getNotesPage({ cursor: nextCursor });
+      const items = Array.isArray(page.items) ? page.items : [];
+      setNotes((prev) => [...prev, ...items]);
+      setNextCursor(page.nextCursor);
+      setError("");
+    } catch (err) {
+      console.error("Fehler beim Laden weiterer Notizen:", err);
+      setError("Es gab ein Problem beim Laden weiterer Notizen.");
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   // Einmaliges Laden beim Mount
   useEffect(() => {
     fetchNotes();
@@ -340,6 +361,13 @@ const Home = ({ searchTerm = "" }) => {
             handleDelete={handleDelete}
             navigate={navigate}
           />
+          {nextCursor && (
+            <Box sx={{ display: "flex", justifyContent: "center", mt: 3 }}>
+              <Button variant="outlined" onClick={loadMoreNotes} disabled={isLoadingMore}>
+                {isLoadingMore ? "Lädt..." : "Mehr laden"}
+              </Button>
+            </Box>
+          )}
         </Grid>
       </Grid>
     </Box>
@@ -128,14 +128,18 @@ const EditNote = () => {
     }
   };
 
-  // Neue Bilder an Backend senden
+  // Neue Bilder an Backend senden; liefert die Fehlermeldungen der nicht gespeicherten Dateien.
+  // Nur diese bleiben in der Vorschau, damit ein erneutes Speichern nichts doppelt hochlädt.
   const handleUploadImages = async () => {
     const formData = new FormData();
-    newImages.forEach((img) => formData.append("image", img.file));
+    newImages.forEach((img) => formData.append("images", img.file));
     try {
-      await handleImageUpload(id, formData);
+      const results = await handleImageUpload(id, formData);
+      const failed = results.filter((r) => r.error);
+      setNewImages((prev) => prev.filter((_, i) => results[i]?.error));
+      return failed.map((r) => `${r.fileName}: ${r.error}`);
     } catch {
-      setError("Fehler beim Hochladen der Bilder.");
+      return ["Fehler beim Hochladen der Bilder."];
     }
   };
 
@@ -151,8 +155,12 @@ const EditNote = () => {
         category: note.category,
         type: note.type,
       };
-      if (newImages.length > 0) await handleUploadImages();
+      const uploadErrors = newImages.length > 0 ? await handleUploadImages() : [];
       await updateNote(id, data);
+      if (uploadErrors.length > 0) {
+        setError(uploadErrors.join(" · "));
+        return;
+      }
       navigate("/");
     } catch {
       setError("Fehler beim Aktualisieren.");
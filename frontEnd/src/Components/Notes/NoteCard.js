@@ -147,7 +147,7 @@ const NoteCard = ({
                 key={index}
                 component="img"
                 alt={`Note image ${index + 1}`}
-                image={image.url}
+                image={`${image.url}?variant=thumb`}
                 style={{
                   width: "calc(50% - 4px)",
                   height: "120px",
@@ -261,7 +261,7 @@ const NoteCard = ({
             <Grid container spacing={3}>
               <Grid item xs={12} md={6}>
                 <img
-                  src={selectedNote.images?.[0]?.url}
+                  src={selectedNote.images?.[0]?.url && `${selectedNote.images[0].url}?variant=medium`}
                   alt="Full size preview"
                   style={{
                     width: "100%",
@@ -93,10 +93,17 @@ const makeApiCall = async (method, url, data = null, config = {}) => {
 
 // Notizen-Funktionen
 
-export const getNotes = async ({ signal } = {}) => {
+// Notizen werden seitenweise geladen (Keyset-Pagination); die nächste Seite wird mit
+// nextCursor angefordert, null bedeutet: keine weiteren Notizen.
+export const getNotesPage = async ({ cursor, limit = 50, signal } = {}) => {
+  const params = new URLSearchParams()
+  params.set("limit", limit)
+  if (cursor) params.set("cursor", cursor)
   try {
-    const res = await makeApiCall("get", "/notes/get", null, { signal })
-    if (res.status >= 200 && res.status < 300) return res.data
+    const res = await makeApiCall("get", `/notes/get?${params.toString()}`, null, { signal })
+    if (res.status >= 200 && res.status < 300) {
+      return { items: res.data?.items ?? [], nextCursor: res.data?.nextCursor ?? null }
+    }
     throw new Error(`Fehler beim Abrufen der Notizen: ${res.statusText}`)
   } catch (error) {
     throw new Error(handleApiError(error, "Fehler beim Abrufen der Notizen"))
@@ -215,11 +222,17 @@ export const handleImageUpload = async (noteId, formData) => {
       headers: { Authorization: `Bearer ${token}` },
       body: formData
     })
-    if (!res.ok) {
-      const text = await res.text().catch(() => "")
-      throw new Error(`Fehler beim Hochladen des Bildes (${res.status}): ${text}`)
+    // Antwort: ein Ergebnis pro Datei (auch bei 207/415); Fehler stehen im Feld "error"
+    const text = await res.text().catch(() => "")
+    let results = null
+    try {
+      results = JSON.parse(text)
+    } catch {
+      // kein JSON (z.B. 404 "Note not found")
     }
-    return await res.json()
+    if (Array.isArray(results)) return results
+    if (!res.ok) throw new Error(`Fehler beim Hochladen des Bildes (${res.status}): ${text}`)
+    return []
   } catch (err) {
     console.error("Fehler beim Hochladen des Bildes:", err)
     throw err